@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.benchmark;
+
+import java.awt.Polygon;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Random;
+
+import it.unisa.di.cluelab.euler.code.EulerCode;
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
+
+/**
+ * Times the construction of diagrams with many curves and the computation of
+ * their zones and codes. The curves are circles on a jittered grid, each one
+ * crossing its neighbours, labelled with {@link CurveIds}. The arguments are
+ * the numbers of curves (default 26, 50, 100, 200, 400, 1000).
+ *
+ * @author Mattia De Rosa
+ */
+public class CurvesBenchmark {
+	private static final int POINTS_PER_CURVE = 48;
+	private static final int SPACING = 100;
+
+	static Polygon[] circles(int n, Random rnd) {
+		int cols = (int) Math.ceil(Math.sqrt(n));
+		Polygon[] polys = new Polygon[n];
+		for (int i = 0; i < n; i++) {
+			double cx = SPACING * (1 + i % cols) + rnd.nextInt(11) - 5;
+			double cy = SPACING * (1 + i / cols) + rnd.nextInt(11) - 5;
+			// only the horizontal and vertical neighbours cross (the diagonal
+			// ones are at least 127 apart), so there are no triple points
+			double r = SPACING * 0.58 + rnd.nextInt(4);
+			double a0 = rnd.nextDouble();
+			Polygon p = new Polygon();
+			for (int k = 0; k < POINTS_PER_CURVE; k++) {
+				double a = a0 + 2 * Math.PI * k / POINTS_PER_CURVE;
+				p.addPoint((int) Math.round(cx + r * Math.cos(a)), (int) Math.round(cy + r * Math.sin(a)));
+			}
+			polys[i] = p;
+		}
+		return polys;
+	}
+
+	private static double ms(long start) {
+		return (System.nanoTime() - start) / 1e6;
+	}
+
+	public static void main(String[] args) {
+		int[] sizes = { 26, 50, 100, 200, 400, 1000 };
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++)
+				sizes[i] = Integer.parseInt(args[i]);
+		}
+		PrintStream out = System.out;
+		// the diagnostic messages of the code computations are discarded
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		out.println("curves  points   zones    build(ms)  zones(ms)  areas(ms)  gauss(ms)  code(ms)  gaussRBC(ms)");
+		// the first round warms up the JIT
+		for (int round = 0; round < 2; round++) {
+			for (int n : sizes) {
+				Polygon[] polys = circles(n, new Random(n));
+				char[] labels = CurveIds.labels(n);
+
+				long t = System.nanoTime();
+				EulerCode ec = new EulerCode(labels, polys, null, null, null, true);
+				double build = ms(t);
+				t = System.nanoTime();
+				int zones = ec.getZones().size();
+				double zonesTime = ms(t);
+				t = System.nanoTime();
+				for (Zone z : ec.getZones())
+					z.getArea();
+				double areas = ms(t);
+				t = System.nanoTime();
+				ec.getGaussCode(false, false);
+				double gauss = ms(t);
+				t = System.nanoTime();
+				ec.getCode(false, false, false);
+				double code = ms(t);
+				t = System.nanoTime();
+				ec.getGaussCodeRBC();
+				double gaussRBC = ms(t);
+
+				if (round == 1)
+					out.println(String.format(Locale.ROOT, "%6d %7d %7d %12.1f %10.1f %10.1f %10.1f %9.1f %13.1f", n,
+							ec.getIncidentPoints().size(), zones, build, zonesTime, areas, gauss, code, gaussRBC));
+			}
+		}
+		System.setOut(out);
+	}
+}
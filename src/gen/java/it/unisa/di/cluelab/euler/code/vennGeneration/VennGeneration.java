@@ -127,6 +127,7 @@ public class VennGeneration {
 		return false;
 	}
 
+	// a single lookup per region list: scanning it is cheaper than building a RegionGraph
 	static SegmentCode[] getOuterFaceCode(SegmentCode s, ArrayList<SegmentCode[]> ar) {
 		SegmentCode[] region = new SegmentCode[0];
 		for (SegmentCode[] r : ar) {
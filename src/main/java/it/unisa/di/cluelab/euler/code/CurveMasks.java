@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Utility methods for curve masks: sets of curve labels stored as a
+ * {@link BitSet} indexed by the dense curve identifiers of {@link CurveIds}
+ * (so the masks of the first 64 curves fit in one long). A label that is not
+ * one of the CurveIds labels gets the bit {@link CurveIds#MAX_CURVES} plus
+ * the label. The identifiers are in the order of the labels, so a mask
+ * corresponds to the sorted label string used for the zones.
+ *
+ * @author Mattia De Rosa
+ */
+final class CurveMasks {
+
+	/**
+	 * This class is not instantiable.
+	 */
+	private CurveMasks() {
+	}
+
+	/**
+	 * Returns the bit of the curve label.
+	 */
+	static int bit(char label) {
+		int id = CurveIds.id(label);
+		return id >= 0 ? id : CurveIds.MAX_CURVES + label;
+	}
+
+	/**
+	 * Returns the curve label of the bit.
+	 */
+	static char label(int bit) {
+		return bit < CurveIds.MAX_CURVES ? CurveIds.label(bit) : (char) (bit - CurveIds.MAX_CURVES);
+	}
+
+	/**
+	 * Returns the mask of the given labels, or null if a label is repeated.
+	 */
+	static BitSet of(CharSequence labels) {
+		BitSet mask = new BitSet();
+		for (int i = 0, len = labels.length(); i < len; i++) {
+			int b = bit(labels.charAt(i));
+			if (mask.get(b))
+				return null;
+			mask.set(b);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the mask of the given labels, or null if a label is repeated.
+	 */
+	static BitSet of(Collection<Character> labels) {
+		BitSet mask = new BitSet();
+		for (Character c : labels) {
+			int b = bit(c);
+			if (mask.get(b))
+				return null;
+			mask.set(b);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the labels of the mask in ascending order.
+	 */
+	static String toLabel(BitSet mask) {
+		char[] labels = new char[mask.cardinality()];
+		int n = 0;
+		for (int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1))
+			labels[n++] = label(i);
+		// the labels without identifier are not in order
+		if (n > 0 && mask.length() > CurveIds.MAX_CURVES)
+			Arrays.sort(labels);
+		return new String(labels);
+	}
+
+	/**
+	 * Returns an unmodifiable view of the mask as a set of labels (in the
+	 * order of the bits).
+	 */
+	static Set<Character> asSet(final BitSet mask) {
+		return new AbstractSet<Character>() {
+			@Override
+			public Iterator<Character> iterator() {
+				return new Iterator<Character>() {
+					private int next = mask.nextSetBit(0);
+
+					@Override
+					public boolean hasNext() {
+						return next >= 0;
+					}
+
+					@Override
+					public Character next() {
+						if (next < 0)
+							throw new NoSuchElementException();
+						char c = label(next);
+						next = mask.nextSetBit(next + 1);
+						return c;
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return mask.cardinality();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof Character && mask.get(bit((Character) o));
+			}
+
+			@Override
+			public boolean isEmpty() {
+				return mask.isEmpty();
+			}
+		};
+	}
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search of a small translation of a new curve that does not produce a wrong
+ * diagram (see {@link #isValid(EulerCode)}), used by
+ * {@link EulerSketchInputPanel} when the option delCurvWrIntGauss is set. The
+ * offsets are tested in parallel on the pool of {@link ParallelIntersector},
+ * each worker on its own copy of the diagram, and the first valid offset in
+ * the order of {@link #OFFSETS} is returned, so the result does not depend on
+ * the scheduling. With a single worker the offsets are tested in the calling
+ * thread on one copy.
+ *
+ * @author Mattia De Rosa
+ */
+class CurvePlacement {
+	/**
+	 * The offsets in the order they are preferred: no offset, then the 8
+	 * neighbours in the order of the original sequential search.
+	 */
+	static final int[][] OFFSETS = { { 0, 0 }, { 1, 0 }, { -1, 0 }, { 0, -1 },
+			{ 1, -1 }, { -1, -1 }, { 0, 1 }, { 1, 1 }, { -1, 1 } };
+
+	/**
+	 * Tests the offsets first, first + step, ... below the best valid one
+	 * found so far, and lowers found to the first valid one.
+	 */
+	static class Worker extends RecursiveAction {
+		private static final long serialVersionUID = 5386225218458734367L;
+		private final EulerCode.Snapshot base;
+		private final boolean sweepLine;
+		private final Polygon curve;
+		private final int first, step;
+		private final AtomicInteger found;
+		// the copy of the diagram (without the curve between two tests)
+		private transient EulerCode ec = null;
+
+		Worker(EulerCode.Snapshot base, boolean sweepLine, Polygon curve, int first, int step, AtomicInteger found) {
+			this.base = base;
+			this.sweepLine = sweepLine;
+			this.curve = curve;
+			this.first = first;
+			this.step = step;
+			this.found = found;
+		}
+
+		@Override
+		protected void compute() {
+			for (int i = first; i < OFFSETS.length && i < found.get(); i += step) {
+				if (test(i)) {
+					for (int f = found.get(); i < f && !found.compareAndSet(f, i); f = found.get())
+						;
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Returns true if adding the curve translated by OFFSETS[i] gives a
+		 * valid diagram.
+		 */
+		boolean test(int i) {
+			Polygon moved = new Polygon(curve.xpoints, curve.ypoints, curve.npoints);
+			moved.translate(OFFSETS[i][0], OFFSETS[i][1]);
+			try {
+				if (ec == null)
+					ec = base.newEulerCode(sweepLine);
+				Character cl = ec.addCurve(moved);
+				boolean valid = isValid(ec);
+				ec.removeCurve(cl, false);
+				return valid;
+			} catch (RuntimeException re) {
+				// the copy may be incoherent
+				ec = null;
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * This class is not instantiable.
+	 */
+	private CurvePlacement() {
+	}
+
+	/**
+	 * Returns true if the Gauss code of the diagram has no wrong intersection
+	 * and the diagram has at least one zone.
+	 */
+	static boolean isValid(EulerCode ec) {
+		try {
+			String gc = ec.getGaussCode(false, false);
+			return !gc.contains("#") && !gc.contains("@") && !ec.getZones().isEmpty();
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the first offset of {@link #OFFSETS} (the no offset excluded)
+	 * for which adding the translated curve to the diagram gives a valid
+	 * diagram. It must not be called on the event dispatch thread (see
+	 * {@link EulerSketchInputPanel}).
+	 *
+	 * @param base
+	 *            the diagram without the new curve
+	 * @return the offset, or null if no offset is valid
+	 */
+	static int[] findOffset(EulerCode.Snapshot base, boolean sweepLine, Polygon curve) {
+		return findOffset(base, sweepLine, curve,
+				Math.min(ParallelIntersector.POOL.getParallelism(), OFFSETS.length - 1));
+	}
+
+	/**
+	 * As {@link #findOffset(EulerCode.Snapshot, boolean, Polygon)}, with the
+	 * given number of workers (from 1 to OFFSETS.length - 1).
+	 */
+	static int[] findOffset(EulerCode.Snapshot base, boolean sweepLine, Polygon curve, int workers) {
+		AtomicInteger found = new AtomicInteger(OFFSETS.length);
+		final Worker[] tasks = new Worker[workers];
+		for (int w = 0; w < workers; w++)
+			tasks[w] = new Worker(base, sweepLine, curve, 1 + w, workers, found);
+		if (workers == 1) {
+			tasks[0].invoke();
+		} else {
+			ParallelIntersector.POOL.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = -8153526781394613452L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		}
+		int i = found.get();
+		return i < OFFSETS.length ? OFFSETS[i] : null;
+	}
+}
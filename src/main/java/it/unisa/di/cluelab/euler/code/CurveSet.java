@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of curve labels in insertion order (as a
+ * {@link java.util.LinkedHashSet}) stored in a char array of exactly its size.
+ * It is meant for the few curves of an incident point: the operations take
+ * O(size) time, but an incident point of two curves takes a few bytes instead
+ * of the table and the entries of a hash set.
+ *
+ * @author Mattia De Rosa
+ */
+final class CurveSet extends AbstractSet<Character> implements Serializable {
+	private static final long serialVersionUID = -1519435069520745062L;
+	private static final char[] EMPTY = new char[0];
+	private char[] labels = EMPTY;
+
+	@Override
+	public int size() {
+		return labels.length;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Character && indexOf((Character) o) >= 0;
+	}
+
+	@Override
+	public boolean add(Character c) {
+		if (indexOf(c) >= 0)
+			return false;
+		int n = labels.length;
+		labels = Arrays.copyOf(labels, n + 1);
+		labels[n] = c;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Character))
+			return false;
+		int i = indexOf((Character) o);
+		if (i < 0)
+			return false;
+		removeAt(i);
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		labels = EMPTY;
+	}
+
+	@Override
+	public Iterator<Character> iterator() {
+		return new Iterator<Character>() {
+			private char[] expected = labels;
+			private int next = 0;
+			private boolean removable = false;
+
+			@Override
+			public boolean hasNext() {
+				return next < expected.length;
+			}
+
+			@Override
+			public Character next() {
+				if (expected != labels)
+					throw new ConcurrentModificationException();
+				if (next >= expected.length)
+					throw new NoSuchElementException();
+				removable = true;
+				return expected[next++];
+			}
+
+			@Override
+			public void remove() {
+				if (!removable)
+					throw new IllegalStateException();
+				if (expected != labels)
+					throw new ConcurrentModificationException();
+				removeAt(--next);
+				expected = labels;
+				removable = false;
+			}
+		};
+	}
+
+	private int indexOf(char c) {
+		for (int i = 0; i < labels.length; i++) {
+			if (labels[i] == c)
+				return i;
+		}
+		return -1;
+	}
+
+	private void removeAt(int i) {
+		int n = labels.length;
+		char[] nl = n == 1 ? EMPTY : new char[n - 1];
+		System.arraycopy(labels, 0, nl, 0, i);
+		System.arraycopy(labels, i + 1, nl, i, n - i - 1);
+		labels = nl;
+	}
+}
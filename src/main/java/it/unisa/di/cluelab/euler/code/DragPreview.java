@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import javax.swing.SwingUtilities;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+
+/**
+ * Background worker that keeps a speculative {@link EulerCode} for a curve
+ * dragged in the move mode of {@link EulerSketchInputPanel}. The positions
+ * requested while a preview is being computed are coalesced (only the last
+ * one is computed). Each preview is computed with
+ * {@link EulerCode#translateCurve(Character, int, int)} alternating between two
+ * copies of the diagram: the copy shown by the panel is never modified, the
+ * other one is moved to the new position, warmed up (zones, areas and codes)
+ * and then passed to the panel on the event dispatch thread. The next preview
+ * is computed only after the panel shows the last one.
+ *
+ * @author Mattia De Rosa
+ */
+class DragPreview extends Thread {
+	private final EulerSketchInputPanel panel;
+	private final Character curveLabel;
+	// copy of the diagram taken on the event dispatch thread
+	private final EulerCode.Snapshot snapshot;
+	// last requested offset (guarded by this)
+	private int targetDx = 0, targetDy = 0;
+	// pending: a preview is passed to the panel but not yet shown
+	private boolean changed = false, finished = false, pending = false;
+
+	/**
+	 * Must be called on the event dispatch thread.
+	 */
+	DragPreview(EulerSketchInputPanel panel, EulerCode eulerCode, Character curveLabel) {
+		super("DragPreview");
+		setDaemon(true);
+		this.panel = panel;
+		this.curveLabel = curveLabel;
+		this.snapshot = eulerCode.snapshot();
+	}
+
+	/**
+	 * Requests the preview of the curve translated by (dx, dy) from its
+	 * original position.
+	 */
+	synchronized void moveTo(int dx, int dy) {
+		if (dx != targetDx || dy != targetDy) {
+			targetDx = dx;
+			targetDy = dy;
+			changed = true;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Stops the worker. The preview being computed is discarded.
+	 */
+	synchronized void finish() {
+		finished = true;
+		notifyAll();
+	}
+
+	private synchronized boolean isFinished() {
+		return finished;
+	}
+
+	// called on the event dispatch thread when the last preview is shown
+	private synchronized void shown() {
+		pending = false;
+		notifyAll();
+	}
+
+	/**
+	 * Passes a preview to the panel. Called on the event dispatch thread.
+	 */
+	void show(EulerCode preview) {
+		panel.showDragPreview(this, preview);
+	}
+
+	@Override
+	public void run() {
+		EulerCode[] copies = new EulerCode[2];
+		int[][] offsets = new int[2][2];
+		try {
+			// the sweep line finds the same intersections, faster for a single curve
+			for (int k = 0; k < 2 && !isFinished(); k++)
+				copies[k] = snapshot.newEulerCode(true);
+		} catch (RuntimeException re) {
+			System.err.println(re.getMessage());
+			return;
+		}
+		int next = 0;
+		while (true) {
+			int dx, dy;
+			synchronized (this) {
+				// the other copy can be modified only when the last preview is shown
+				while ((!changed || pending) && !finished) {
+					try {
+						wait();
+					} catch (InterruptedException ie) {
+						return;
+					}
+				}
+				if (finished)
+					return;
+				changed = false;
+				dx = targetDx;
+				dy = targetDy;
+			}
+			// the copy not shown by the panel
+			final EulerCode preview = copies[next];
+			try {
+				preview.translateCurve(curveLabel, dx - offsets[next][0], dy - offsets[next][1]);
+				offsets[next][0] = dx;
+				offsets[next][1] = dy;
+			} catch (RuntimeException re) {
+				// the copy may be partially moved: it is rebuilt and this position is skipped
+				try {
+					copies[next] = snapshot.newEulerCode(true);
+				} catch (RuntimeException re2) {
+					System.err.println(re2.getMessage());
+					return;
+				}
+				offsets[next][0] = 0;
+				offsets[next][1] = 0;
+				continue;
+			}
+			try {
+				for (Zone zone : preview.getZones())
+					zone.getArea();
+				preview.getGaussCodeRBC().getRegionBoundaryCode();
+				preview.getEulerCodeRBC();
+			} catch (RuntimeException re) {
+				// invalid diagrams are shown as they are
+			}
+			synchronized (this) {
+				pending = true;
+			}
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run() {
+					try {
+						show(preview);
+					} finally {
+						shown();
+					}
+				}
+			});
+			next = 1 - next;
+		}
+	}
+}
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package it.unisa.di.cluelab.euler.code;
 
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
 import it.unisa.di.cluelab.euler.code.gausscode.EulerCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.GaussCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.RegionCode;
@@ -20,14 +21,17 @@ import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.Point2D;
+import java.lang.ref.SoftReference;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedHashMap;
@@ -47,14 +51,40 @@ import org.jgrapht.alg.util.UnionFind;
 public class EulerCode {
 	private static final double POINTS_MIN_DISTANCE = 1.; //TODO chose a good min distance
 	private static final double DOUBLE_EQUALITY_TOLERANCE = 0.000976562; //TODO chose a good tolerance
+	private static final Comparator<Zone> ZONE_LABEL_ORDER = new Comparator<Zone>() {
+		@Override
+		public int compare(Zone o1, Zone o2) {
+			return o1.label.compareTo(o2.label);
+		}
+	};
+	// indexes of the memoized derived codes (the flags are added to the base index)
+	private static final int CODE = 0, CODE_ALT = 8, EULER_CODE_RBC = 10, KNOT_CODE = 11,
+			GAUSS_CODE = 15, EULER_CODE = 19, ZONES_CODE = 23, GAUSS_ZONES_CODE = 31,
+			GAUSS_CODE_RBC = 33, GAUSS_CODE_RBC_FROM_CODE = 34, ZONE_LOCATOR = 35, DERIVED_CODES = 36;
+	private static final Object NOT_COMPUTED = new Object();
 	private final LinkedHashMap<Character, IncidentPointsPolygon> curves = new LinkedHashMap<Character, IncidentPointsPolygon>();
 	private final LinkedHashMap<Integer, IncidentPoint> incidentPoints = new LinkedHashMap<Integer, IncidentPoint>();
 	private final TreeSet<Character> unusedCurveLabels = new TreeSet<Character>();
 	private final LinkedList<Integer> unusedIncidentPointLabels = new LinkedList<Integer>();
+	// spatial index of incidentPoints (same keys and insertion order) for the snapping of new intersections
+	private final PointGrid<IncidentPoint> incidentPointsGrid = new PointGrid<IncidentPoint>(POINTS_MIN_DISTANCE);
+	// curve label -> incident point refs whose following segment is contained in the curve (see folContCurves)
+	private final HashMap<Character, Set<IncidentPointRef>> containedRefs = new HashMap<Character, Set<IncidentPointRef>>();
 	// unmodifiable collections for getter methods
 	private final Map<Character, IncidentPointsPolygon> curvesUnm = Collections.unmodifiableMap(curves);
 	private final Map<Integer, IncidentPoint> incidentPointsUnm = Collections.unmodifiableMap(incidentPoints);
 	private List<Zone> zones = null;
+	// previous zones computation (by label) and its segments groups
+	private final HashMap<BitSet, Zone> zonesCache = new HashMap<BitSet, Zone>();
+	private HashMap<BitSet, List<Segment>> zonesGroups = new HashMap<BitSet, List<Segment>>();
+	private boolean sweepLine = true;
+	// number of modifications of the curves or of the under flags
+	private int modCount = 0;
+	// derived codes computed at derivedModCount (NOT_COMPUTED if not yet computed)
+	private final Object[] derivedCodes = new Object[DERIVED_CODES];
+	private int derivedModCount = -1;
+	// if true the curves cannot be modified (see freeze)
+	private volatile boolean frozen = false;
 
 	public EulerCode() {
 		this.unusedCurveLabels.add('A');
@@ -72,6 +102,21 @@ public class EulerCode {
 			int[] preferredIncidentPointLabels,
 			Point2D[] preferredIncidentPointPositions,
 			Set<String>[] preferredIncidentPointUnderCurves) {
+		this(preferredCurveLabels, polys, preferredIncidentPointLabels,
+				preferredIncidentPointPositions,
+				preferredIncidentPointUnderCurves, true);
+	}
+
+	/**
+	 * @param sweepLine
+	 *            if true the intersections between the curves are searched
+	 *            with a sweep line (see {@link #setSweepLine(boolean)})
+	 */
+	public EulerCode(char[] preferredCurveLabels, Polygon[] polys,
+			int[] preferredIncidentPointLabels,
+			Point2D[] preferredIncidentPointPositions,
+			Set<String>[] preferredIncidentPointUnderCurves, boolean sweepLine) {
+		this.sweepLine = sweepLine;
 		this.unusedCurveLabels.add('A');
 
 		if (preferredCurveLabels.length != polys.length)
@@ -102,8 +147,15 @@ public class EulerCode {
 				if (!sipl.containsKey(i))
 					this.unusedIncidentPointLabels.add(i);
 			}
-			for (int i = 0; i < preferredCurveLabels.length; i++)
-				addCurve(preferredCurveLabels[i], polys[i], sipl);
+			PointGrid<Entry<Point2D, Set<String>>> siplGrid = new PointGrid<Entry<Point2D, Set<String>>>(
+					POINTS_MIN_DISTANCE);
+			for (Entry<Integer, Entry<Point2D, Set<String>>> e : sipl.entrySet()) {
+				Point2D pt = e.getValue().getKey();
+				siplGrid.put(e.getKey(), pt.getX(), pt.getY(), e.getValue());
+			}
+			addCurves(preferredCurveLabels, polys, siplGrid);
+			if (preferredIncidentPointUnderCurves != null)
+				setUnderCurves(sipl);
 
 			// reset unusedIncidentPointLabels
 			this.unusedIncidentPointLabels.clear();
@@ -120,26 +172,108 @@ public class EulerCode {
 			this.unusedIncidentPointLabels.add(maxLbl + 1);
 		} else {
 			this.unusedIncidentPointLabels.add(1);
-			for (int i = 0; i < preferredCurveLabels.length; i++)
-				addCurve(preferredCurveLabels[i], polys[i], null);
+			addCurves(preferredCurveLabels, polys, null);
 		}
 	}
-	
-	public void clear() {
+
+	/**
+	 * Sets the under flags of the points of more than two curves to the
+	 * preferred ones: only the refs of the first two curves get them when the
+	 * point is created, the refs added later have the default flag.
+	 */
+	private void setUnderCurves(Map<Integer, Entry<Point2D, Set<String>>> preferred) {
+		for (Entry<Character, IncidentPointsPolygon> ecc : this.curves.entrySet()) {
+			String curve = ecc.getKey().toString();
+			for (Entry<IncidentPointRef, Integer> e : ecc.getValue().incidentPointRefs.entrySet()) {
+				int l = e.getValue();
+				Entry<Point2D, Set<String>> p = preferred.get(Math.abs(l));
+				if (p == null || p.getValue() == null
+						|| this.incidentPoints.get(l).incidentCurves.size() <= 2)
+					continue;
+				e.getKey().under = p.getValue().contains(l < 0 ? "-" + curve : curve);
+			}
+		}
+	}
+
+	/**
+	 * Adds the curves in order. All the intersections are searched at once
+	 * (with the sweep line or testing the curve pairs in parallel), then the
+	 * curves are added with the same result of adding them one at a time.
+	 */
+	private void addCurves(char[] curveLabels, Polygon[] polys,
+			PointGrid<Entry<Point2D, Set<String>>> suggestedIncidentPointLabels) {
+		IncidentPointsPolygon[] ipps = new IncidentPointsPolygon[polys.length];
+		for (int i = 0; i < polys.length; i++) {
+			Polygon poly = polys[i];
+			if(poly == null || poly.npoints <= 2) throw new IllegalArgumentException("Illegal input polygon");
+			ipps[i] = new IncidentPointsPolygon(poly.xpoints, poly.ypoints, poly.npoints);
+		}
+		int[][] crossings = null;
+		if (this.sweepLine)
+			crossings = SweepLineIntersector.findCrossings(ipps, 0);
+		// null also if the coordinates range is wider than SweepLineIntersector.MAX_RANGE
+		if (crossings == null)
+			crossings = ParallelIntersector.findCrossings(ipps);
+		for (int i = 0; i < curveLabels.length; i++) {
+			if (crossings == null)
+				addCurve(curveLabels[i], polys[i], suggestedIncidentPointLabels);
+			else
+				addCurve(curveLabels[i], polys[i], ipps[i],
+						suggestedIncidentPointLabels, crossings[i]);
+		}
+	}
+
+	/**
+	 * If true (the default) the intersections of the added curves are
+	 * searched with a Bentley-Ottmann sweep line in O((n + k) log n) instead
+	 * of testing every edge of the new curve against every edge of the
+	 * existing curves, when it is expected to be faster (see
+	 * {@link #preferSweepLine(int)}) and the coordinates range is at most
+	 * 2^20. The resulting incident points are the same.
+	 *
+	 * @param sweepLine
+	 *            true to use the sweep line
+	 */
+	public synchronized void setSweepLine(boolean sweepLine) {
+		checkNotFrozen();
+		this.sweepLine = sweepLine;
+	}
+
+	public synchronized boolean isSweepLine() {
+		return sweepLine;
+	}
+
+	public synchronized void clear() {
+		checkNotFrozen();
 		this.curves.clear();
 		this.incidentPoints.clear();
+		this.incidentPointsGrid.clear();
+		this.containedRefs.clear();
 		this.unusedCurveLabels.clear();
 		this.unusedIncidentPointLabels.clear();
 		this.unusedCurveLabels.add('A');
 		this.unusedIncidentPointLabels.add(1);
 		this.zones = null;
+		this.modCount++;
+		this.zonesCache.clear();
+		this.zonesGroups.clear();
 	}
 	
-	public Map<Character, IncidentPointsPolygon> getCurves() {
+	/**
+	 * Returns an unmodifiable live view of the curves, updated by the later
+	 * modifications. It can be read while other threads use this EulerCode
+	 * only if it is {@link #freeze() frozen}.
+	 */
+	public synchronized Map<Character, IncidentPointsPolygon> getCurves() {
 		return this.curvesUnm;
 	}
 
-	public Map<Integer, IncidentPoint> getIncidentPoints() {
+	/**
+	 * Returns an unmodifiable live view of the incident points, updated by
+	 * the later modifications. It can be read while other threads use this
+	 * EulerCode only if it is {@link #freeze() frozen}.
+	 */
+	public synchronized Map<Integer, IncidentPoint> getIncidentPoints() {
 		return this.incidentPointsUnm;
 	}
 
@@ -147,208 +281,125 @@ public class EulerCode {
 		return this.addCurve(null, newCurve);
 	}
 	
-	public Character addCurve(Character preferredCurveLabel, Polygon poly) {
+	public synchronized Character addCurve(Character preferredCurveLabel, Polygon poly) {
+		checkNotFrozen();
 		return addCurve(preferredCurveLabel, poly, null);
 	}
 	
 	private Character addCurve(Character preferredCurveLabel, Polygon poly,
-			Map<Integer, Entry<Point2D, Set<String>>> suggestedIncidentPointLabels) {
+			PointGrid<Entry<Point2D, Set<String>>> suggestedIncidentPointLabels) {
 		// basic check (also a polygon with > 2 points can be invalid)
 		if(poly == null || poly.npoints <= 2) throw new IllegalArgumentException("Illegal input polygon");
+		IncidentPointsPolygon pl = new IncidentPointsPolygon(poly.xpoints, poly.ypoints, poly.npoints);
+		int[] crossings = null;
+		if(this.sweepLine && preferSweepLine(pl.npoints)) {
+			Polygon[] polys = this.curves.values().toArray(new Polygon[this.curves.size() + 1]);
+			polys[polys.length - 1] = pl;
+			int[][] cr = SweepLineIntersector.findCrossings(polys, polys.length - 1);
+			// null if the coordinates range is too wide: all the edge pairs are tested
+			if(cr != null) crossings = cr[0];
+		}
+		return addCurve(preferredCurveLabel, poly, pl, suggestedIncidentPointLabels, crossings);
+	}
+
+	/**
+	 * Returns true if the sweep line is expected to be faster than the
+	 * pairwise test for a new curve with the given number of edges. The
+	 * sweep visits all the n edges and the k incident points of the diagram
+	 * in O((n + k) log n), the pairwise test O(m n) edge pairs; the constant
+	 * is the measured cost of a sweep step relative to an edge pair test.
+	 */
+	private boolean preferSweepLine(int newEdges) {
+		long n = newEdges;
+		for(IncidentPointsPolygon c : this.curves.values()) n += c.npoints;
+		long k = this.incidentPoints.size();
+		return 8 * (n + k) * (64 - Long.numberOfLeadingZeros(n)) < newEdges * n;
+	}
+
+	/**
+	 * @param crossings the edge pairs to test (see {@link SweepLineIntersector#findCrossings(Polygon[], int)}),
+	 *            if null all the edge pairs are tested
+	 */
+	private Character addCurve(Character preferredCurveLabel, Polygon poly, IncidentPointsPolygon pl,
+			PointGrid<Entry<Point2D, Set<String>>> suggestedIncidentPointLabels, int[] crossings) {
 		this.zones = null;
+		this.modCount++;
 		if(preferredCurveLabel == null || this.curves.containsKey(preferredCurveLabel)) {
 			preferredCurveLabel = this.unusedCurveLabels.pollFirst();
-			if(this.unusedCurveLabels.isEmpty()) this.unusedCurveLabels.add((char)(preferredCurveLabel + 1));
+			if(this.unusedCurveLabels.isEmpty()) this.unusedCurveLabels.add(CurveIds.next(preferredCurveLabel));
 		} else {
-			for(char c = (char)(this.unusedCurveLabels.last() + 1), end = (char)(preferredCurveLabel + 1); c <= end; c++) { 
-				this.unusedCurveLabels.add(c);
+			// the labels after the last unused one are all unused
+			char last = this.unusedCurveLabels.last();
+			if(preferredCurveLabel >= last) {
+				for(char c = CurveIds.next(last); c <= preferredCurveLabel; c = CurveIds.next(c)) {
+					this.unusedCurveLabels.add(c);
+				}
+				this.unusedCurveLabels.add(CurveIds.next(preferredCurveLabel));
 			}
 			this.unusedCurveLabels.remove(preferredCurveLabel);
 		}
-		IncidentPointsPolygon pl = new IncidentPointsPolygon(poly.xpoints, poly.ypoints, poly.npoints);
-		for (int i = 0; i < pl.npoints; i++) {
-			Iterator<Entry<Character, IncidentPointsPolygon>> itr = this.curves
-					.entrySet().iterator();
-			boolean notFirst = false;
-			do {
-				Character ccl;
-				IncidentPointsPolygon cc;
-				if (notFirst) {
-					Entry<Character, IncidentPointsPolygon> ecc = itr.next();
-					ccl = ecc.getKey();
-					cc = ecc.getValue();
-				} else {
-					ccl = preferredCurveLabel;
-					cc = pl;
-				}
-				for (int k = 0; k < cc.npoints; k++) {
-					Point2D.Double intp = null;
-					if (notFirst
-							|| (i != k && ((i + 1) % pl.npoints) != k && ((i - 1 + pl.npoints) % pl.npoints) != k))
-						intp = GeomUtils.getIntersection(pl.xpoints[i],
-								pl.ypoints[i],
-								pl.xpoints[(i + 1) % pl.npoints],
-								pl.ypoints[(i + 1) % pl.npoints],
-								cc.xpoints[k], cc.ypoints[k],
-								cc.xpoints[(k + 1) % cc.npoints],
-								cc.ypoints[(k + 1) % cc.npoints]);
-					if (intp != null) {
-						Entry<Integer, IncidentPoint> found = null;
-						double dist = POINTS_MIN_DISTANCE;
-						for (Entry<Integer, IncidentPoint> ep : this.incidentPoints
-								.entrySet()) {
-							double cdist = intp.distance(ep.getValue());
-							if (dist > cdist) {
-								dist = cdist;
-								found = ep;
-							}
-						}
-
-						if (found == null) {
-							IncidentPoint ip = new IncidentPoint(intp.x, intp.y);
-							ip.incidentCurves.add(ccl);
-							ip.incidentCurves.add(preferredCurveLabel);
-							Integer newLabel = null;
-							Set<String> ucurves = null;
-							if(suggestedIncidentPointLabels != null) {
-								for (Iterator<Entry<Integer, Entry<Point2D, Set<String>>>> it = suggestedIncidentPointLabels
-										.entrySet().iterator(); it.hasNext();) {
-									Entry<Integer, Entry<Point2D, Set<String>>> e = it.next();
-									Entry<Point2D, Set<String>> ptc = e.getValue();
-									if (ip.distance(ptc.getKey()) < POINTS_MIN_DISTANCE) {
-										newLabel = e.getKey();
-										ucurves = ptc.getValue();
-										it.remove();
-										break;
-									}
-								}
-							}
-							if(newLabel == null){
-								newLabel = this.unusedIncidentPointLabels
-										.removeFirst();
-								if (this.unusedIncidentPointLabels
-										.isEmpty())
-									this.unusedIncidentPointLabels
-											.add(newLabel + 1);
-							}
-							this.incidentPoints.put(newLabel, ip);
-							IncidentPointRef ccipr = new IncidentPointRef(k,
-									intp.distance(cc.xpoints[k], cc.ypoints[k]));
-							IncidentPointRef plipr = new IncidentPointRef(i,
-									intp.distance(pl.xpoints[i], pl.ypoints[i]));
-							cc.incidentPointRefs.put(ccipr, newLabel);
-							if (notFirst)
-								pl.incidentPointRefs.put(plipr, newLabel);
-							else {
-								Integer nNewLabel = -newLabel;
-								pl.incidentPointRefs.put(plipr, nNewLabel);
-								this.incidentPoints.put(nNewLabel, ip);
-							}
-							// chose under curve (by gauss sign)
-							double x0 = pl.xpoints[i];
-							double y0 = pl.ypoints[i];
-							if(ip.x == x0 && ip.y == y0) {
-								x0 = pl.xpoints[(i + pl.npoints - 1) % pl.npoints];
-								y0 = pl.ypoints[(i + pl.npoints - 1) % pl.npoints];
-							}
-							double x1 = pl.xpoints[(i + 1) % pl.npoints];
-							double y1 = pl.ypoints[(i + 1) % pl.npoints];
-							if(ip.x == x1 && ip.y == y1) {
-								x1 = pl.xpoints[(i + 2) % pl.npoints];
-								y1 = pl.ypoints[(i + 2) % pl.npoints];
-							}
-							double px = cc.xpoints[(k + 1) % cc.npoints];
-							double py = cc.ypoints[(k + 1) % cc.npoints];
-							if(ip.x == px && ip.y == py) {
-								px = cc.xpoints[(k + 2) % cc.npoints];
-								py = cc.ypoints[(k + 2) % cc.npoints];
-							}
-							if (ucurves == null) { // default under/over
-								(notFirst
-										|| (poly instanceof GeomUtils.PolygonR && ((GeomUtils.PolygonR) poly)
-												.isReversed()) ? ccipr : plipr)
-										.setUnder(true);
-								// // +/O and -/U
-								// // center over ip
-								// x0 -= ip.x;
-								// y0 -= ip.y;
-								// x1 -= ip.x;
-								// y1 -= ip.y;
-								// px -= ip.x;
-								// py -= ip.y;
-								// double pi2 = 2 * Math.PI;
-								// double aRot = pi2 - Math.atan2(y0, x0);
-								// double a1 = (Math.atan2(y1, x1) + aRot) % pi2;
-								// double ap = (Math.atan2(py, px) + aRot) % pi2;
-								// (ap < a1 ? plipr : ccipr).setUnder(true);
-							} else {
-								if (ucurves.contains(ccl.toString()))
-									ccipr.setUnder(true);
-								if (ucurves.contains((notFirst ? "" : "-")
-										+ preferredCurveLabel))
-									plipr.setUnder(true);
-							}
-						} else { // TODO examine special cases
-							IncidentPoint ip = found.getValue();
-							boolean ccCont = ip.incidentCurves.contains(ccl);
-							boolean plCont = ip.incidentCurves
-									.contains(preferredCurveLabel);
-							if (ccCont && plCont) {
-								// do nothing: same point found two times on
-								if (found.getValue().x != intp.x
-										|| found.getValue().y != intp.y)
-									System.out.println("T0 Double point s="
-											+ ip.incidentCurves.size() + " ("
-											+ found.getValue().x + ","
-											+ found.getValue().y + ") ("
-											+ intp.x + "," + intp.y + ")");
-							} else if (ccCont && !plCont) {
-								System.out.println("T1 Triple point ("
-										+ found.getValue().x + ","
-										+ found.getValue().y + ")");
-								ip.incidentCurves.add(preferredCurveLabel);
-								IncidentPointRef plipr = new IncidentPointRef(
-										i, intp.distance(pl.xpoints[i],
-												pl.ypoints[i]));
-								pl.incidentPointRefs.put(plipr, found.getKey());
-							} else if (!ccCont && plCont) {
-								System.out.println("T2 Triple point ("
-										+ found.getValue().x + ","
-										+ found.getValue().y + ")");
-								ip.incidentCurves.add(ccl);
-								IncidentPointRef ccipr = new IncidentPointRef(
-										k, intp.distance(cc.xpoints[k],
-												cc.ypoints[k]));
-								cc.incidentPointRefs.put(ccipr, found.getKey());
-							} else {
-								System.out.println("T3 Triple point ("
-										+ found.getValue().x + ","
-										+ found.getValue().y + ")");
-								ip.incidentCurves.add(ccl);
-								ip.incidentCurves.add(preferredCurveLabel);
-								IncidentPointRef ccipr = new IncidentPointRef(
-										k, intp.distance(cc.xpoints[k],
-												cc.ypoints[k]));
-								IncidentPointRef plipr = new IncidentPointRef(
-										i, intp.distance(pl.xpoints[i],
-												pl.ypoints[i]));
-								cc.incidentPointRefs.put(ccipr, found.getKey());
-								pl.incidentPointRefs.put(plipr, found.getKey());
-							}
-						}
+		double[] intp = new double[2];
+		if(crossings == null) {
+			for (int i = 0; i < pl.npoints; i++) {
+				Iterator<Entry<Character, IncidentPointsPolygon>> itr = this.curves
+						.entrySet().iterator();
+				boolean notFirst = false;
+				do {
+					Character ccl;
+					IncidentPointsPolygon cc;
+					if (notFirst) {
+						Entry<Character, IncidentPointsPolygon> ecc = itr.next();
+						ccl = ecc.getKey();
+						cc = ecc.getValue();
+					} else {
+						ccl = preferredCurveLabel;
+						cc = pl;
 					}
-				}
-				notFirst = true;
-			} while (itr.hasNext());
+					for (int k = 0; k < cc.npoints; k++) {
+						if ((notFirst
+								|| (i != k && ((i + 1) % pl.npoints) != k && ((i - 1 + pl.npoints) % pl.npoints) != k))
+								&& GeomUtils.getEdgesIntersection(pl, i, cc, k, intp))
+							addIntersection(preferredCurveLabel, poly, pl, i, ccl, cc, k, notFirst, intp[0], intp[1],
+									suggestedIncidentPointLabels);
+					}
+					notFirst = true;
+				} while (itr.hasNext());
+			}
+		} else {
+			IncidentPointsPolygon[] ccs = this.curves.values().toArray(new IncidentPointsPolygon[this.curves.size()]);
+			Character[] ccls = this.curves.keySet().toArray(new Character[ccs.length]);
+			for (int h = 0; h < crossings.length; h += 3) {
+				int i = crossings[h], c = crossings[h + 1], k = crossings[h + 2];
+				boolean notFirst = c >= 0;
+				IncidentPointsPolygon cc = notFirst ? ccs[c] : pl;
+				if (GeomUtils.getEdgesIntersection(pl, i, cc, k, intp))
+					addIntersection(preferredCurveLabel, poly, pl, i, notFirst ? ccls[c] : preferredCurveLabel, cc, k,
+							notFirst, intp[0], intp[1], suggestedIncidentPointLabels);
+			}
 		}
 
+		// calculate the suggestedLabelPoints of the new curve
+		if (!pl.incidentPointRefs.isEmpty()) {
+			Iterator<IncidentPointRef> it = pl.incidentPointRefs.keySet().iterator();
+			for (IncidentPointRef first = it.next(), pre = first, cur; first != null; pre = cur) {
+				if (it.hasNext())
+					cur = it.next();
+				else {
+					cur = first;
+					first = null;
+				}
+				pre.setSuggestedLabelPoint(pl.meanPoint(pre, cur));
+			}
+		}
 		for (Entry<Character, IncidentPointsPolygon> ecc : this.curves
 				.entrySet()) {
 			Character ippLbl = ecc.getKey();
 			IncidentPointsPolygon ipp = ecc.getValue();
 			// test the first point of the existent
-			if (pl.contains(ipp.xpoints[0], ipp.ypoints[0]))
+			if (pl.contains(ipp.xpoints[0], ipp.ypoints[0])) {
 				ipp.firstPointContCurves.add(preferredCurveLabel);
+				ipp.segmentsStale = true;
+			}
 			// test the first point of the new
 			if (ipp.contains(pl.xpoints[0], pl.ypoints[0]))
 				pl.firstPointContCurves.add(ippLbl);
@@ -356,33 +407,41 @@ public class EulerCode {
 			if (!ipp.incidentPointRefs.isEmpty()) {
 				Iterator<IncidentPointRef> it = ipp.incidentPointRefs.keySet()
 						.iterator();
-				for (IncidentPointRef first = it.next(), pre = first, cur; first != null; pre = cur) {
-					if (it.hasNext())
+				IncidentPointRef first = it.next();
+				// the new refs have no suggestedLabelPoint yet
+				boolean firstNew = !first.hasSuggestedLabelPoint();
+				for (IncidentPointRef pre = first, cur; first != null; pre = cur) {
+					boolean curNew;
+					if (it.hasNext()) {
 						cur = it.next();
-					else {
+						curNew = !cur.hasSuggestedLabelPoint();
+					} else {
 						cur = first;
+						curNew = firstNew;
 						first = null;
 					}
-					Point2D.Double oldSlp = pre.suggestedLabelPoint;
-					pre.suggestedLabelPoint = GeomUtils.meanPoint(ipp,
-							pre.cRef, pre.dis, cur.cRef, cur.dis);
+					// the meanPoint changes only if an adjacent point is new
+					boolean oldSlp = pre.hasSuggestedLabelPoint();
+					double oldX = pre.slpX, oldY = pre.slpY;
+					if (!oldSlp || curNew)
+						pre.setSuggestedLabelPoint(ipp.meanPoint(pre, cur));
 					// if the meanPoint have changed position it must be
 					// retested for containment on all the other existent curves
-					if (!GeomUtils.equalsTolerance(oldSlp,
-							pre.suggestedLabelPoint, DOUBLE_EQUALITY_TOLERANCE)) {
-						pre.folContCurves.clear();
+					if (!oldSlp || Math.abs(oldX - pre.slpX) > DOUBLE_EQUALITY_TOLERANCE
+							|| Math.abs(oldY - pre.slpY) > DOUBLE_EQUALITY_TOLERANCE) {
+						clearContainment(pre);
 						for (Entry<Character, IncidentPointsPolygon> eOthCurve : this.curves
 								.entrySet()) {
 							Character othCurveLabel = eOthCurve.getKey();
 							if (!othCurveLabel.equals(ippLbl)
 									&& eOthCurve.getValue().contains(
-											pre.suggestedLabelPoint))
-								pre.folContCurves.add(othCurveLabel);
+											pre.slpX, pre.slpY))
+								addContainment(pre, othCurveLabel);
 						}
 					}
 					// containment on the new curve
-					if (pl.contains(pre.suggestedLabelPoint))
-						pre.folContCurves.add(preferredCurveLabel);
+					if (pl.contains(pre.slpX, pre.slpY))
+						addContainment(pre, preferredCurveLabel);
 					pre = cur;
 				}
 			}
@@ -399,33 +458,269 @@ public class EulerCode {
 						cur = first;
 						first = null;
 					}
-					pre.suggestedLabelPoint = GeomUtils.meanPoint(pl, pre.cRef,
-							pre.dis, cur.cRef, cur.dis);
 					// containment on the new curve
-					if (ipp.contains(pre.suggestedLabelPoint))
-						pre.folContCurves.add(ippLbl);
+					if (ipp.contains(pre.slpX, pre.slpY))
+						addContainment(pre, ippLbl);
 					pre = cur;
 				}
 			}
 		}
-		// calculate the suggestedLabelPoints for the first curve
-		if (this.curves.isEmpty() && !pl.incidentPointRefs.isEmpty()) {
-			Iterator<IncidentPointRef> it = pl.incidentPointRefs.keySet().iterator();
-			for (IncidentPointRef first = it.next(), pre = first, cur; first != null; pre = cur) {
-				if (it.hasNext())
-					cur = it.next();
-				else {
-					cur = first;
-					first = null;
+		this.curves.put(preferredCurveLabel, pl);
+		return preferredCurveLabel;
+	}
+
+	private void addContainment(IncidentPointRef ipr, Character curveLabel) {
+		int bit = CurveMasks.bit(curveLabel);
+		if (!ipr.folContCurves.get(bit)) {
+			ipr.folContCurves.set(bit);
+			ipr.curve.segmentsStale = true;
+			Set<IncidentPointRef> refs = this.containedRefs.get(curveLabel);
+			if (refs == null) {
+				// open addressing: no entry object per ref
+				refs = Collections.newSetFromMap(new IdentityHashMap<IncidentPointRef, Boolean>());
+				this.containedRefs.put(curveLabel, refs);
+			}
+			refs.add(ipr);
+		}
+	}
+
+	private void clearContainment(IncidentPointRef ipr) {
+		unindexContainment(ipr);
+		if (!ipr.folContCurves.isEmpty()) {
+			ipr.folContCurves.clear();
+			ipr.curve.segmentsStale = true;
+		}
+	}
+
+	private void unindexContainment(IncidentPointRef ipr) {
+		for (int c = ipr.folContCurves.nextSetBit(0); c >= 0; c = ipr.folContCurves.nextSetBit(c + 1)) {
+			Set<IncidentPointRef> refs = this.containedRefs.get(CurveMasks.label(c));
+			if (refs != null)
+				refs.remove(ipr);
+		}
+	}
+
+	/**
+	 * Adds (or updates) the incident point (x, y) of the intersection between
+	 * the edge i of the new curve pl and the edge k of the curve cc.
+	 */
+	private void addIntersection(Character preferredCurveLabel, Polygon poly,
+			IncidentPointsPolygon pl, int i, Character ccl, IncidentPointsPolygon cc,
+			int k, boolean notFirst, double x, double y,
+			PointGrid<Entry<Point2D, Set<String>>> suggestedIncidentPointLabels) {
+		Entry<Integer, IncidentPoint> found = this.incidentPointsGrid.nearest(
+				x, y, POINTS_MIN_DISTANCE);
+
+		if (found == null) {
+			IncidentPoint ip = new IncidentPoint(x, y);
+			ip.incidentCurves.add(ccl);
+			ip.incidentCurves.add(preferredCurveLabel);
+			Integer newLabel = null;
+			Set<String> ucurves = null;
+			if(suggestedIncidentPointLabels != null) {
+				Entry<Integer, Entry<Point2D, Set<String>>> e = suggestedIncidentPointLabels
+						.first(ip.x, ip.y, POINTS_MIN_DISTANCE);
+				if (e != null) {
+					newLabel = e.getKey();
+					ucurves = e.getValue().getValue();
+					suggestedIncidentPointLabels.removeKey(newLabel);
 				}
-				pre.suggestedLabelPoint = GeomUtils.meanPoint(pl, pre.cRef, pre.dis, cur.cRef, cur.dis);
+			}
+			if(newLabel == null){
+				newLabel = this.unusedIncidentPointLabels
+						.removeFirst();
+				if (this.unusedIncidentPointLabels
+						.isEmpty())
+					this.unusedIncidentPointLabels
+							.add(newLabel + 1);
+			}
+			this.incidentPoints.put(newLabel, ip);
+			this.incidentPointsGrid.put(newLabel, ip.x, ip.y, ip);
+			IncidentPointRef ccipr = newIncidentPointRef(k,
+					Point2D.distance(x, y, cc.xpoints[k], cc.ypoints[k]));
+			IncidentPointRef plipr = newIncidentPointRef(i,
+					Point2D.distance(x, y, pl.xpoints[i], pl.ypoints[i]));
+			putRef(cc, ccipr, newLabel);
+			if (notFirst)
+				putRef(pl, plipr, newLabel);
+			else {
+				Integer nNewLabel = -newLabel;
+				putRef(pl, plipr, nNewLabel);
+				this.incidentPoints.put(nNewLabel, ip);
+				this.incidentPointsGrid.put(nNewLabel, ip.x, ip.y, ip);
+			}
+			// chose under curve (by gauss sign)
+			double x0 = pl.xpoints[i];
+			double y0 = pl.ypoints[i];
+			if(ip.x == x0 && ip.y == y0) {
+				x0 = pl.xpoints[(i + pl.npoints - 1) % pl.npoints];
+				y0 = pl.ypoints[(i + pl.npoints - 1) % pl.npoints];
+			}
+			double x1 = pl.xpoints[(i + 1) % pl.npoints];
+			double y1 = pl.ypoints[(i + 1) % pl.npoints];
+			if(ip.x == x1 && ip.y == y1) {
+				x1 = pl.xpoints[(i + 2) % pl.npoints];
+				y1 = pl.ypoints[(i + 2) % pl.npoints];
+			}
+			double px = cc.xpoints[(k + 1) % cc.npoints];
+			double py = cc.ypoints[(k + 1) % cc.npoints];
+			if(ip.x == px && ip.y == py) {
+				px = cc.xpoints[(k + 2) % cc.npoints];
+				py = cc.ypoints[(k + 2) % cc.npoints];
+			}
+			if (ucurves == null) { // default under/over
+				(notFirst
+						|| (poly instanceof GeomUtils.PolygonR && ((GeomUtils.PolygonR) poly)
+								.isReversed()) ? ccipr : plipr)
+						.setUnder(true);
+				// // +/O and -/U
+				// // center over ip
+				// x0 -= ip.x;
+				// y0 -= ip.y;
+				// x1 -= ip.x;
+				// y1 -= ip.y;
+				// px -= ip.x;
+				// py -= ip.y;
+				// double pi2 = 2 * Math.PI;
+				// double aRot = pi2 - Math.atan2(y0, x0);
+				// double a1 = (Math.atan2(y1, x1) + aRot) % pi2;
+				// double ap = (Math.atan2(py, px) + aRot) % pi2;
+				// (ap < a1 ? plipr : ccipr).setUnder(true);
+			} else {
+				if (ucurves.contains(ccl.toString()))
+					ccipr.setUnder(true);
+				if (ucurves.contains((notFirst ? "" : "-")
+						+ preferredCurveLabel))
+					plipr.setUnder(true);
+			}
+		} else { // TODO examine special cases
+			IncidentPoint ip = found.getValue();
+			boolean ccCont = ip.incidentCurves.contains(ccl);
+			boolean plCont = ip.incidentCurves
+					.contains(preferredCurveLabel);
+			if (ccCont && plCont) {
+				// do nothing: same point found two times on
+				if (found.getValue().x != x
+						|| found.getValue().y != y)
+					System.out.println("T0 Double point s="
+							+ ip.incidentCurves.size() + " ("
+							+ found.getValue().x + ","
+							+ found.getValue().y + ") ("
+							+ x + "," + y + ")");
+			} else if (ccCont && !plCont) {
+				System.out.println("T1 Triple point ("
+						+ found.getValue().x + ","
+						+ found.getValue().y + ")");
+				ip.incidentCurves.add(preferredCurveLabel);
+				IncidentPointRef plipr = newIncidentPointRef(
+						i, Point2D.distance(x, y, pl.xpoints[i],
+								pl.ypoints[i]));
+				putRef(pl, plipr, found.getKey());
+			} else if (!ccCont && plCont) {
+				System.out.println("T2 Triple point ("
+						+ found.getValue().x + ","
+						+ found.getValue().y + ")");
+				ip.incidentCurves.add(ccl);
+				IncidentPointRef ccipr = newIncidentPointRef(
+						k, Point2D.distance(x, y, cc.xpoints[k],
+								cc.ypoints[k]));
+				putRef(cc, ccipr, found.getKey());
+			} else {
+				System.out.println("T3 Triple point ("
+						+ found.getValue().x + ","
+						+ found.getValue().y + ")");
+				ip.incidentCurves.add(ccl);
+				ip.incidentCurves.add(preferredCurveLabel);
+				IncidentPointRef ccipr = newIncidentPointRef(
+						k, Point2D.distance(x, y, cc.xpoints[k],
+								cc.ypoints[k]));
+				IncidentPointRef plipr = newIncidentPointRef(
+						i, Point2D.distance(x, y, pl.xpoints[i],
+								pl.ypoints[i]));
+				putRef(cc, ccipr, found.getKey());
+				putRef(pl, plipr, found.getKey());
 			}
 		}
-		this.curves.put(preferredCurveLabel, pl);
-		return preferredCurveLabel;
 	}
 
-	public IncidentPointsPolygon removeCurve(Character curveLabel, boolean redo) {
+	private IncidentPointRef newIncidentPointRef(int cRef, double dis) {
+		return new IncidentPointRef(cRef, dis);
+	}
+
+	/**
+	 * Adds the ref to the incident point refs of the curve.
+	 */
+	private void putRef(IncidentPointsPolygon curve, IncidentPointRef ipr, Integer label) {
+		curve.owner = this;
+		ipr.curve = curve;
+		curve.incidentPointRefs.put(ipr, label);
+		curve.segmentsStale = true;
+	}
+
+	/**
+	 * Returns the number of modifications of the curves (and of the under
+	 * flags of their incident point refs) since the creation of this object.
+	 * The derived codes are recomputed only when it changes.
+	 */
+	public synchronized int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * Returns an immutable copy of the diagram (see {@link Snapshot}). The
+	 * points of the curves not modified since the previous snapshot are
+	 * shared with it.
+	 */
+	public synchronized Snapshot snapshot() {
+		return new Snapshot(this);
+	}
+
+	/**
+	 * Returns an immutable copy of this EulerCode (this if it is already
+	 * frozen), that can be shared by threads without further
+	 * synchronization. Its zones and codes are computed when they are first
+	 * requested, by one thread at a time, and then memoized. The methods that
+	 * modify a frozen EulerCode (or the under flags of its incident point
+	 * refs) throw an IllegalStateException; the returned curves must only be
+	 * read.
+	 */
+	public EulerCode freeze() {
+		if(frozen) return this;
+		EulerCode copy = snapshot().newEulerCode(sweepLine);
+		// publishes the copy to the threads that lock it (all the getters)
+		synchronized(copy) {
+			copy.frozen = true;
+		}
+		return copy;
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	private void checkNotFrozen() {
+		if(frozen) throw new IllegalStateException("Frozen EulerCode.");
+	}
+
+	/**
+	 * Returns the memoized derived code with the given index, or NOT_COMPUTED
+	 * if it has not been computed since the last modification.
+	 */
+	private Object derived(int index) {
+		if(derivedModCount != modCount) {
+			Arrays.fill(derivedCodes, NOT_COMPUTED);
+			derivedModCount = modCount;
+		}
+		return derivedCodes[index];
+	}
+
+	private <T> T derived(int index, T code) {
+		derivedCodes[index] = code;
+		return code;
+	}
+
+	public synchronized IncidentPointsPolygon removeCurve(Character curveLabel, boolean redo) {
+		checkNotFrozen();
 		IncidentPointsPolygon removedCurve = this.curves.remove(curveLabel);
 		if(removedCurve != null) {
 			if(redo) {
@@ -434,15 +729,26 @@ public class EulerCode {
 				for(Entry<Character, IncidentPointsPolygon> e : oldCurves) addCurve(e.getKey(), e.getValue());
 			} else {
 				this.zones = null;
+				this.modCount++;
 				this.unusedCurveLabels.add(curveLabel);
-				for(Integer l : removedCurve.incidentPointRefs.values()) {
+				for(Entry<IncidentPointRef, Integer> e : removedCurve.incidentPointRefs.entrySet()) {
+					unindexContainment(e.getKey());
+					Integer l = e.getValue();
+					if(l < 0) {
+						// second label of a self intersection of the removed curve
+						this.incidentPoints.remove(l);
+						this.incidentPointsGrid.removeKey(l);
+						continue;
+					}
 					IncidentPoint ip = incidentPoints.get(l);
 					if(!ip.incidentCurves.remove(curveLabel)) throw new RuntimeException("EulerCode: incoerent state 1.");
-					if(ip.incidentCurves.size() <= 1) {
+					// a self intersection of the remaining curve is kept
+					if(ip.incidentCurves.size() <= 1 && this.incidentPoints.get(-l) != ip) {
 						if(this.incidentPoints.remove(l) == null) throw new RuntimeException("EulerCode: incoerent state 2.");
+						this.incidentPointsGrid.removeKey(l);
 						this.unusedIncidentPointLabels.addFirst(l);
 						if(ip.incidentCurves.isEmpty()) {
-							System.out.println("EulerCode: incoerent state 3.");
+							if(!removedCurve.incidentPointRefs.containsValue(-l)) System.out.println("EulerCode: incoerent state 3.");
 						} else {
 							Character cl = ip.incidentCurves.iterator().next();
 							IncidentPointsPolygon curCurve = curves.get(cl);
@@ -451,23 +757,233 @@ public class EulerCode {
 							if(before == null) before = curCurve.incidentPointRefs.lastKey();
 							IncidentPointRef after = curCurve.incidentPointRefs.nextKey(p);
 							if(after == null) after = curCurve.incidentPointRefs.firstKey();
+							unindexContainment(p);
 							curCurve.incidentPointRefs.removeValue(l);
-							if(before != null && after != null) before.suggestedLabelPoint = GeomUtils.meanPoint(curCurve, before.cRef, before.dis, after.cRef, after.dis);
+							curCurve.segmentsStale = true;
+							if(before != null && after != null) before.setSuggestedLabelPoint(curCurve.meanPoint(before, after));
 						}
 					}
 				}
-				// To update the state in a more efficient way a collection that link curves and CONTAINED segments is needed
-				for(IncidentPointsPolygon curve : curves.values()) {
-					curve.firstPointContCurves.remove(curveLabel);
-					for(IncidentPointRef ipr : curve.incidentPointRefs.keySet()) {
-						ipr.folContCurves.remove(curveLabel);
+				// only the segments contained in the removed curve have to be updated
+				Set<IncidentPointRef> contained = this.containedRefs.remove(curveLabel);
+				if(contained != null) {
+					for(IncidentPointRef ipr : contained) {
+						ipr.folContCurves.clear(CurveMasks.bit(curveLabel));
+						ipr.curve.segmentsStale = true;
 					}
 				}
+				for(IncidentPointsPolygon curve : curves.values()) {
+					if(curve.firstPointContCurves.remove(curveLabel)) curve.segmentsStale = true;
+				}
 			}
 		}
 		return removedCurve;
 	}
+
+	/**
+	 * Moves a curve. Only the intersections and the containments of the moved
+	 * curve are recomputed (as removing it and adding it again). The incident
+	 * points of the curve that are still intersections after the move (the
+	 * same edges cross) keep their labels and under flags.
+	 *
+	 * @return the moved curve, or null if there is no curve with the given label
+	 */
+	public synchronized IncidentPointsPolygon translateCurve(Character curveLabel, int dx, int dy) {
+		checkNotFrozen();
+		IncidentPointsPolygon curve = this.curves.get(curveLabel);
+		if(curve == null) return null;
+		Polygon moved = new Polygon(curve.xpoints, curve.ypoints, curve.npoints);
+		moved.translate(dx, dy);
+		// the labels of the surviving points at their new position
+		PointGrid<Entry<Point2D, Set<String>>> survivors = new PointGrid<Entry<Point2D, Set<String>>>(POINTS_MIN_DISTANCE);
+		ArrayList<Integer> survivorLabels = new ArrayList<Integer>();
+		// the points of more curves (kept by the removal) where the curve is under
+		ArrayList<Integer> keptUnder = new ArrayList<Integer>();
+		double[] intp = new double[2];
+		for(Entry<IncidentPointRef, Integer> e : curve.incidentPointRefs.entrySet()) {
+			Integer l = e.getValue();
+			if(l < 0) continue;
+			IncidentPointRef ipr = e.getKey();
+			IncidentPoint ip = this.incidentPoints.get(l);
+			Set<String> ucurves = new HashSet<String>();
+			double x, y;
+			if(ip.incidentCurves.size() == 1) {
+				// self intersection: it moves with the curve
+				x = ip.x + dx;
+				y = ip.y + dy;
+				if(ipr.under) ucurves.add(curveLabel.toString());
+				if(curve.incidentPointRefs.getKey(-l).under) ucurves.add("-" + curveLabel);
+			} else if(ip.incidentCurves.size() == 2) {
+				Iterator<Character> it = ip.incidentCurves.iterator();
+				Character ccl = it.next();
+				if(ccl.equals(curveLabel)) ccl = it.next();
+				IncidentPointsPolygon cc = this.curves.get(ccl);
+				IncidentPointRef ccipr = cc.incidentPointRefs.getKey(l);
+				if(!GeomUtils.getEdgesIntersection(moved, ipr.cRef, cc, ccipr.cRef, intp)) continue;
+				x = intp[0];
+				y = intp[1];
+				if(ccipr.under) ucurves.add(ccl.toString());
+				if(ipr.under) ucurves.add(curveLabel.toString());
+			} else {
+				// the points of more curves are not removed with the curve
+				if(ipr.under) keptUnder.add(l);
+				continue;
+			}
+			survivors.put(l, x, y, new AbstractMap.SimpleEntry<Point2D, Set<String>>(new Point2D.Double(x, y), ucurves));
+			survivorLabels.add(l);
+		}
+		removeCurve(curveLabel, false);
+		// the survivor labels are not available for the new points
+		this.unusedIncidentPointLabels.removeAll(survivorLabels);
+		addCurve(curveLabel, moved, survivors);
+		for(Integer l : survivorLabels) {
+			if(!this.incidentPoints.containsKey(l)) this.unusedIncidentPointLabels.addFirst(l);
+		}
+		IncidentPointsPolygon added = this.curves.get(curveLabel);
+		for(Integer l : keptUnder) {
+			IncidentPointRef ipr = added.incidentPointRefs.getKey(l);
+			if(ipr != null) ipr.setUnder(true);
+		}
+		return added;
+	}
 	
+	/**
+	 * Immutable copy of the curves of an EulerCode, of the labels of its
+	 * incident points and of their under flags, from which an EulerCode with
+	 * the same labels can be rebuilt. Every curve is kept as an immutable
+	 * polygon shared by all the snapshots (and all the rebuilt EulerCodes) in
+	 * which the curve is not modified, and every incident point as an
+	 * immutable state shared by the snapshots in which it is not modified, so
+	 * a snapshot takes O(curves + incident points) references and a history
+	 * of snapshots does not keep a copy of every diagram. The last EulerCode equal to the snapshot (the one it was
+	 * taken from or rebuilt) is softly referenced and returned by
+	 * {@link #toEulerCode()} until it is modified: undoing and redoing
+	 * without intermediate changes only swaps the EulerCode objects.
+	 */
+	public static final class Snapshot {
+		private final char[] curveLabels;
+		private final Polygon[] curves;
+		private final PointState[] points;
+		// the label after the last one used, where the labels of the curves without incident points start
+		private final int nextPointLabel;
+		private final boolean sweepLine;
+		// last EulerCode equal to this snapshot, valid while its modCount is instanceModCount
+		private SoftReference<EulerCode> instance;
+		private int instanceModCount;
+
+		private Snapshot(EulerCode eulerCode) {
+			int n = eulerCode.curves.size();
+			this.curveLabels = new char[n];
+			this.curves = new Polygon[n];
+			// the under curves of the points with at least one (the others have none)
+			HashMap<Integer, Set<String>> under = new HashMap<Integer, Set<String>>();
+			int i = 0;
+			for(Entry<Character, IncidentPointsPolygon> e : eulerCode.curves.entrySet()) {
+				Character c = e.getKey();
+				IncidentPointsPolygon curve = e.getValue();
+				curveLabels[i] = c;
+				curves[i++] = curve.frozen();
+				for(Entry<IncidentPointRef, Integer> ep : curve.incidentPointRefs.entrySet()) {
+					if(!ep.getKey().under) continue;
+					int l = ep.getValue();
+					Set<String> u = under.get(Math.abs(l));
+					if(u == null) under.put(Math.abs(l), u = new HashSet<String>());
+					u.add(l < 0 ? "-" + c : c.toString());
+				}
+			}
+			int np = 0;
+			for(Integer l : eulerCode.incidentPoints.keySet()) {
+				if(l > 0) np++;
+			}
+			this.points = new PointState[np];
+			i = 0;
+			for(Entry<Integer, IncidentPoint> e : eulerCode.incidentPoints.entrySet()) {
+				int l = e.getKey();
+				if(l <= 0) continue;
+				IncidentPoint ip = e.getValue();
+				Set<String> u = under.get(l);
+				if(u == null) u = Collections.emptySet();
+				// the state of an unchanged point is shared with the previous snapshots
+				PointState ps = ip.snapshotState;
+				if(ps == null || !ps.sameAs(l, ip, u)) {
+					ip.snapshotState = ps = new PointState(l, new Point2D.Double(ip.x, ip.y),
+							Collections.unmodifiableSet(u));
+				}
+				points[i++] = ps;
+			}
+			this.nextPointLabel = eulerCode.unusedIncidentPointLabels.getLast();
+			this.sweepLine = eulerCode.sweepLine;
+			this.instance = new SoftReference<EulerCode>(eulerCode);
+			this.instanceModCount = eulerCode.modCount;
+		}
+
+		/**
+		 * Returns an EulerCode equal to this snapshot: the last one returned
+		 * (or the one the snapshot was taken from) if it has not been
+		 * modified since, a new one otherwise.
+		 */
+		public synchronized EulerCode toEulerCode() {
+			EulerCode ec = instance.get();
+			if(ec == null || ec.modCount != instanceModCount) {
+				ec = newEulerCode(sweepLine);
+				this.instance = new SoftReference<EulerCode>(ec);
+				this.instanceModCount = ec.modCount;
+			}
+			return ec;
+		}
+
+		/**
+		 * Returns a new EulerCode equal to this snapshot.
+		 *
+		 * @param sweepLine
+		 *            see {@link EulerCode#setSweepLine(boolean)}
+		 */
+		public EulerCode newEulerCode(boolean sweepLine) {
+			int[] pointLabels = new int[points.length];
+			Point2D[] pointPositions = new Point2D[points.length];
+			Set<String>[] pointUnderCurves = newSetArray(points.length);
+			for(int i = 0; i < points.length; i++) {
+				pointLabels[i] = points[i].label;
+				pointPositions[i] = points[i].position;
+				pointUnderCurves[i] = points[i].underCurves;
+			}
+			EulerCode ec = new EulerCode(curveLabels, curves, pointLabels, pointPositions, pointUnderCurves, sweepLine);
+			// the labels of the removed points after the last one are not reused, as in the original
+			for(int l = ec.unusedIncidentPointLabels.getLast() + 1; l <= nextPointLabel; l++)
+				ec.unusedIncidentPointLabels.add(l);
+			for(int i = 0; i < curves.length; i++) {
+				IncidentPointsPolygon curve = ec.curves.get(curveLabels[i]);
+				if(curve != null && curve.npoints == curves[i].npoints) curve.frozen = curves[i];
+			}
+			return ec;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Set<String>[] newSetArray(int length) {
+			return (Set<String>[]) new Set<?>[length];
+		}
+
+		/**
+		 * Label, position and under curves of an incident point in a
+		 * snapshot (never modified, so shared by the snapshots in which the
+		 * point is unchanged).
+		 */
+		private static final class PointState {
+			final int label;
+			final Point2D position;
+			final Set<String> underCurves;
+			PointState(int label, Point2D position, Set<String> underCurves) {
+				this.label = label;
+				this.position = position;
+				this.underCurves = underCurves;
+			}
+			boolean sameAs(int label, Point2D position, Set<String> underCurves) {
+				return this.label == label && this.position.equals(position)
+						&& this.underCurves.equals(underCurves);
+			}
+		}
+	}
+
 	public static class AreaWL extends Area {
 		private List<Polygon> outPolys = new ArrayList<Polygon>();
 		private List<Polygon> intPolys = new ArrayList<Polygon>();
@@ -485,194 +1001,246 @@ public class EulerCode {
 		}
 	}
 	
-	public List<Zone> getZones() {
+	private static class SegmentWithPolygon extends Segment {
+		final Polygon poly;
+		final int x1, y1, x2, y2, startIndex, endIndex;
+		public SegmentWithPolygon(int p1, int p2, char curve, BitSet contCurves, Polygon poly, int start, Point2D.Double startPoint, int end, Point2D.Double endPoint) {
+			super(p1, p2, curve, contCurves);
+			this.poly = poly;
+			this.startIndex = start;
+			this.x1 = (int) Math.round(startPoint.x);
+			this.y1 = (int) Math.round(startPoint.y);
+			this.endIndex = end;
+			this.x2 = (int) Math.round(endPoint.x);
+			this.y2 = (int) Math.round(endPoint.y);
+		}
+		boolean sameAs(SegmentWithPolygon o) {
+			return p1 == o.p1 && p2 == o.p2 && curve == o.curve && poly == o.poly
+					&& startIndex == o.startIndex && endIndex == o.endIndex
+					&& x1 == o.x1 && y1 == o.y1 && x2 == o.x2 && y2 == o.y2
+					&& contMask.equals(o.contMask);
+		}
+		int sameAsHash() {
+			int h = 31 * (31 * p1 + p2) + curve;
+			h = 31 * h + System.identityHashCode(poly);
+			h = 31 * (31 * h + startIndex) + endIndex;
+			h = 31 * (31 * (31 * (31 * h + x1) + y1) + x2) + y2;
+			return 31 * h + contMask.hashCode();
+		}
+	}
+
+	/**
+	 * Wraps a segment to find the equal (same points, geometry and
+	 * containment) segment of the previous zones computation.
+	 */
+	private static class SegmentKey {
+		private final SegmentWithPolygon seg;
+		private final int hash;
+		SegmentKey(SegmentWithPolygon seg) {
+			this.seg = seg;
+			this.hash = seg.sameAsHash();
+		}
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof SegmentKey && seg.sameAs(((SegmentKey) obj).seg);
+		}
+	}
+
+	/**
+	 * Returns the zones of the diagram. After a modification only the
+	 * segments of the curves whose incident point refs or containment have
+	 * changed are rebuilt (the others are kept from the previous
+	 * computation), then the segments are grouped by zone and only the zones
+	 * whose group of segments has changed are chained again.
+	 */
+	public synchronized List<Zone> getZones() {
 		if(zones == null) {
-			class SegmentWithPolygon extends Segment {
-				final Polygon poly;
-				final int x1, y1, x2, y2, startIndex, endIndex;
-				public SegmentWithPolygon(int p1, int p2, char curve, Set<Character> contCurves, Polygon poly, int start, Point2D.Double startPoint, int end, Point2D.Double endPoint) {
-					super(p1, p2, curve, contCurves);
-					this.poly = poly;
-					this.startIndex = start;
-					this.x1 = (int) Math.round(startPoint.x);
-					this.y1 = (int) Math.round(startPoint.y);
-					this.endIndex = end;
-					this.x2 = (int) Math.round(endPoint.x);
-					this.y2 = (int) Math.round(endPoint.y);
-				}
-			}
-			
 			int maxLbl = unusedIncidentPointLabels.getLast();
-			HashMap<String, LinkedList<Segment>> segmentsGroups = new HashMap<String, LinkedList<Segment>>();
-			// ?? curve contains a list of consecutive points for each curve
+			HashMap<BitSet, LinkedList<Segment>> segmentsGroups = new HashMap<BitSet, LinkedList<Segment>>();
 			for(Entry<Character, IncidentPointsPolygon> ec : curves.entrySet()) {
-				char cL = ec.getKey();
 				IncidentPointsPolygon cIPP = ec.getValue();
-				Set<Entry<IncidentPointRef, Integer>> curveIPR = cIPP.incidentPointRefs.entrySet();
-				Iterator<Entry<IncidentPointRef, Integer>> it = curveIPR.iterator();
-				for(Entry<IncidentPointRef, Integer> dummy = new AbstractMap.SimpleImmutableEntry<IncidentPointRef, Integer>(null, null),
-						first = it.hasNext() ? it.next() : dummy, pre = first, cur; first != null; pre = cur) {
-					SegmentWithPolygon seg;
-					if(first == dummy) {
-						first = null;
-						cur = null;
-						seg = new SegmentWithPolygon(maxLbl, maxLbl, cL, cIPP.firstPointContCurves, cIPP, 0, new Point2D.Double(cIPP.xpoints[0], cIPP.ypoints[0]), cIPP.npoints - 1, new Point2D.Double(cIPP.xpoints[cIPP.npoints - 1], cIPP.ypoints[cIPP.npoints - 1]));
-						maxLbl++;
-					} else {
-						if(it.hasNext()) cur = it.next();
-						else { cur = first; first = null; }
-						Integer preP = pre.getValue();
-						IncidentPointRef preIPR = pre.getKey();
-						Integer curP = cur.getValue();
-						IncidentPointRef curIPR = cur.getKey();
-						seg = new SegmentWithPolygon(preP, curP,
-								cL, preIPR.folContCurves, cIPP,
-								(preIPR.cRef + 1) % cIPP.npoints,
-								incidentPoints.get(preP),
-								(curIPR.cRef + 1) % cIPP.npoints,
-								incidentPoints.get(curP));
-					}
-					LinkedList<Segment> lsp = segmentsGroups.get(seg.label);
+				if(cIPP.segmentsStale || cIPP.segments == null) {
+					maxLbl = updateSegments(ec.getKey(), cIPP, maxLbl);
+				} else if(cIPP.incidentPointRefs.isEmpty()) {
+					// the point label of a curve without incident points is maxLbl
+					if(cIPP.segments.get(0).p1 != maxLbl) maxLbl = updateSegments(ec.getKey(), cIPP, maxLbl);
+					else maxLbl++;
+				}
+				for(SegmentWithPolygon seg : cIPP.segments) {
+					LinkedList<Segment> lsp = segmentsGroups.get(seg.labelMask);
 					if(lsp == null) {
 						lsp = new LinkedList<Segment>();
 						lsp.add(seg);
-						segmentsGroups.put(seg.label, lsp);
+						segmentsGroups.put(seg.labelMask, lsp);
 					} else lsp.add(seg);
-					lsp = segmentsGroups.get(seg.contCurves);
+					lsp = segmentsGroups.get(seg.contMask);
 					if(lsp == null) {
 						lsp = new LinkedList<Segment>();
 						lsp.add(seg);
-						segmentsGroups.put(seg.contCurves, lsp);
+						segmentsGroups.put(seg.contMask, lsp);
 					} else lsp.add(seg);
 				}
 			}
 			
-			List<Zone> zoneList = toZones(segmentsGroups);
-			
-			for(Zone zone : zoneList) {
-				boolean sub = zone.outlines.isEmpty();
-				for(Iterator<List<Segment>> it1 = (sub ? zone.intlines : zone.outlines).iterator(); it1.hasNext();) {
-					List<Segment> segments = it1.next();
-					Polygon outline = new Polygon();
-					int lastPoint = 0;
-					for(Iterator<Segment> it2 = segments.iterator(); it2.hasNext();) {
-						SegmentWithPolygon seg = (SegmentWithPolygon)it2.next();
-						if(outline.npoints != 0 && lastPoint == seg.p2) {
-							outline.addPoint(seg.x2, seg.y2);
-							int dir = seg.poly.npoints - 1;
-							int startIndex = (seg.endIndex + dir) % seg.poly.npoints;
-							int endIndex = (seg.startIndex + dir) % seg.poly.npoints;
-							if(startIndex == endIndex) {
-								double x = seg.poly.xpoints[startIndex], y = seg.poly.ypoints[startIndex];
-								if(Point2D.distance(seg.x1, seg.y1, x, y) > Point2D.distance(seg.x2, seg.y2, x, y)) {
-									outline.addPoint(seg.poly.xpoints[startIndex], seg.poly.ypoints[startIndex]);
-									startIndex = (startIndex + dir) % seg.poly.npoints;
-								}
-							}
-							for(int i = startIndex; i != endIndex; i = (i + dir) % seg.poly.npoints) {
-								outline.addPoint(seg.poly.xpoints[i], seg.poly.ypoints[i]);
-							}
-							lastPoint = seg.p1;
-						} else {
-							outline.addPoint(seg.x1, seg.y1);
-							int startIndex = seg.startIndex;
-							if(startIndex == seg.endIndex) {
-								double x = seg.poly.xpoints[startIndex], y = seg.poly.ypoints[startIndex];
-								if(Point2D.distance(seg.x1, seg.y1, x, y) < Point2D.distance(seg.x2, seg.y2, x, y)) {
-									outline.addPoint(seg.poly.xpoints[startIndex], seg.poly.ypoints[startIndex]);
-									startIndex = (startIndex + 1) % seg.poly.npoints;
-								}
-							}
-							for(int i = startIndex; i != seg.endIndex; i = (i + 1) % seg.poly.npoints) {
-								outline.addPoint(seg.poly.xpoints[i], seg.poly.ypoints[i]);
-							}
-							lastPoint = seg.p2;
-						}
-					}
-					if(segments.size() == 1) {
-						SegmentWithPolygon seg = (SegmentWithPolygon)segments.get(0);
-						outline.addPoint(seg.x2, seg.y2);
-					}
-					if(sub) {
-						if(zone.area == null) zone.area = new AreaWL(new Rectangle(Short.MAX_VALUE, Short.MAX_VALUE));
-						zone.area.subtract(new Area(outline));
-						zone.area.intPolys.add(outline);
-					} else {
-						if(zone.area == null) zone.area = new AreaWL(outline);
-						else zone.area.add(new Area(outline));
-						zone.area.outPolys.add(outline);
-						if(!it1.hasNext()) {
-							it1 = zone.intlines.iterator();
-							sub = true;
-						}
-					}
+			// the zones whose segments are not changed since the previous computation are reused
+			ArrayList<Zone> zoneList = new ArrayList<Zone>(segmentsGroups.size());
+			HashMap<BitSet, List<Segment>> groups = new HashMap<BitSet, List<Segment>>();
+			for(Iterator<Entry<BitSet, LinkedList<Segment>>> it = segmentsGroups.entrySet().iterator(); it.hasNext();) {
+				Entry<BitSet, LinkedList<Segment>> e = it.next();
+				BitSet label = e.getKey();
+				List<Segment> group = new ArrayList<Segment>(e.getValue());
+				groups.put(label, group);
+				Zone prev = zonesCache.get(label);
+				if(prev != null && group.equals(zonesGroups.get(label))) {
+					zoneList.add(prev);
+					it.remove();
+				} else {
+					for(Segment seg : group) seg.removeZone(label);
 				}
 			}
+			
+			List<Zone> newZones;
+			try {
+				newZones = toZones(segmentsGroups);
+			} catch(RuntimeException e) {
+				// the segments of the cached zones may be changed
+				zonesCache.clear();
+				zonesGroups.clear();
+				for(IncidentPointsPolygon curve : curves.values()) curve.segments = null;
+				throw e;
+			}
+			
+			zoneList.addAll(newZones);
+			Collections.sort(zoneList, ZONE_LABEL_ORDER);
+			zonesCache.clear();
+			for(Zone zone : zoneList) zonesCache.put(zone.mask, zone);
+			zonesGroups = groups;
 			zones = Collections.unmodifiableList(zoneList);
 		}
 		return zones;
 	}
+
+	/**
+	 * Rebuilds the segments of a curve. A segment equal to one of the
+	 * previous segments of the curve is replaced by it, so that the zones of
+	 * the unchanged segments can be reused.
+	 *
+	 * @param maxLbl
+	 *            the point label of a curve without incident points
+	 * @return the point label for the next curve without incident points
+	 */
+	private int updateSegments(char cL, IncidentPointsPolygon cIPP, int maxLbl) {
+		HashMap<SegmentKey, SegmentWithPolygon> prevSegments = new HashMap<SegmentKey, SegmentWithPolygon>();
+		if(cIPP.segments != null) {
+			for(SegmentWithPolygon seg : cIPP.segments) {
+				SegmentKey key = new SegmentKey(seg);
+				if(!prevSegments.containsKey(key)) prevSegments.put(key, seg);
+			}
+		}
+		ArrayList<SegmentWithPolygon> segments = new ArrayList<SegmentWithPolygon>(Math.max(1, cIPP.incidentPointRefs.size()));
+		Iterator<Entry<IncidentPointRef, Integer>> it = cIPP.incidentPointRefs.entrySet().iterator();
+		for(Entry<IncidentPointRef, Integer> dummy = new AbstractMap.SimpleImmutableEntry<IncidentPointRef, Integer>(null, null),
+				first = it.hasNext() ? it.next() : dummy, pre = first, cur; first != null; pre = cur) {
+			SegmentWithPolygon seg;
+			if(first == dummy) {
+				first = null;
+				cur = null;
+				seg = new SegmentWithPolygon(maxLbl, maxLbl, cL, CurveMasks.of(cIPP.firstPointContCurves), cIPP, 0, new Point2D.Double(cIPP.xpoints[0], cIPP.ypoints[0]), cIPP.npoints - 1, new Point2D.Double(cIPP.xpoints[cIPP.npoints - 1], cIPP.ypoints[cIPP.npoints - 1]));
+				maxLbl++;
+			} else {
+				if(it.hasNext()) cur = it.next();
+				else { cur = first; first = null; }
+				Integer preP = pre.getValue();
+				IncidentPointRef preIPR = pre.getKey();
+				Integer curP = cur.getValue();
+				IncidentPointRef curIPR = cur.getKey();
+				seg = new SegmentWithPolygon(preP, curP,
+						cL, preIPR.folContCurves, cIPP,
+						(preIPR.cRef + 1) % cIPP.npoints,
+						incidentPoints.get(preP),
+						(curIPR.cRef + 1) % cIPP.npoints,
+						incidentPoints.get(curP));
+			}
+			// reuse the equal segment of the previous computation (each one once)
+			SegmentWithPolygon prev = prevSegments.remove(new SegmentKey(seg));
+			segments.add(prev != null ? prev : seg);
+		}
+		cIPP.segments = segments;
+		cIPP.segmentsStale = false;
+		return maxLbl;
+	}
 	
 	public static List<Zone> computeZones(Collection<? extends Collection<Segment>> segments) {
-		HashMap<String, LinkedList<Segment>> segmentsGroups = new HashMap<String, LinkedList<Segment>>();
+		HashMap<BitSet, LinkedList<Segment>> segmentsGroups = new HashMap<BitSet, LinkedList<Segment>>();
 		for(Collection<Segment> cSegments : segments) {
 			for(Segment seg : cSegments) {
-				LinkedList<Segment> lsp = segmentsGroups.get(seg.label);
+				LinkedList<Segment> lsp = segmentsGroups.get(seg.labelMask);
 				if(lsp == null) {
 					lsp = new LinkedList<Segment>();
 					lsp.add(seg);
-					segmentsGroups.put(seg.label, lsp);
+					segmentsGroups.put(seg.labelMask, lsp);
 				} else lsp.add(seg);
-				lsp = segmentsGroups.get(seg.contCurves);
+				lsp = segmentsGroups.get(seg.contMask);
 				if(lsp == null) {
 					lsp = new LinkedList<Segment>();
 					lsp.add(seg);
-					segmentsGroups.put(seg.contCurves, lsp);
+					segmentsGroups.put(seg.contMask, lsp);
 				} else lsp.add(seg);
 			}
 		}
 		return toZones(segmentsGroups);
 	}
 	
-	private static List<Zone> toZones(Map<String, LinkedList<Segment>> segmentsGroups) {
+	private static List<Zone> toZones(Map<BitSet, LinkedList<Segment>> segmentsGroups) {
 		ArrayList<Zone> zones = new ArrayList<Zone>(segmentsGroups.size());
-		for(Entry<String, LinkedList<Segment>> e : segmentsGroups.entrySet()) {
-			String label = e.getKey();
-			int labelLen = label.length();
+		for(Entry<BitSet, LinkedList<Segment>> e : segmentsGroups.entrySet()) {
+			BitSet label = e.getKey();
 			LinkedList<Segment> group = e.getValue();
+			Segment[] groupSegs = group.toArray(new Segment[group.size()]);
+			// the group segments (indexes in group order) by end point
+			HashMap<Integer, ArrayList<Integer>> pointSegs = new HashMap<Integer, ArrayList<Integer>>();
+			for(int i = 0; i < groupSegs.length; i++) {
+				addPointSegment(pointSegs, groupSegs[i].p1, i);
+				if(groupSegs[i].p2 != groupSegs[i].p1) addPointSegment(pointSegs, groupSegs[i].p2, i);
+			}
+			boolean[] used = new boolean[groupSegs.length];
+			int firstUnused = 0;
 			List<List<Segment>> outlines = new ArrayList<List<Segment>>();
 			List<List<Segment>> intlines = new ArrayList<List<Segment>>();
 			Zone zone = new Zone(label, Collections.unmodifiableList(outlines), Collections.unmodifiableList(intlines));
 			List<Segment> segments = new ArrayList<Segment>();
 			boolean outline = false;
 			int lastPoint = 0;
-			while(!group.isEmpty()) {
+			for(int remaining = groupSegs.length; remaining > 0; remaining--) {
 				if(segments.isEmpty()) {
-					Segment first = group.removeFirst();
-					if(first.label.length() == labelLen) outline = true;
+					while(used[firstUnused]) firstUnused++;
+					used[firstUnused] = true;
+					Segment first = groupSegs[firstUnused];
+					if(first.labelMask.equals(label)) outline = true;
 					segments.add(first);
 					lastPoint = first.p2; 
 				} else {
-					boolean notFound = true;
-					for(Iterator<Segment> it = group.iterator(); it.hasNext();) {
-						Segment seg = it.next();
-						if(lastPoint == seg.p1) {
-							if(seg.label.length() == labelLen) outline = true;
-							segments.add(seg);
-							lastPoint = seg.p2;
-							it.remove();
-							notFound = false;
-							break;
-						} else if(lastPoint == seg.p2) {
-							if(seg.label.length() == labelLen) outline = true;
-							segments.add(seg);
-							lastPoint = seg.p1;
-							it.remove();
-							notFound = false;
-							break;
+					// the first remaining segment (in group order) with an end in lastPoint
+					Segment seg = null;
+					ArrayList<Integer> candidates = pointSegs.get(lastPoint);
+					if(candidates != null) {
+						for(int i = 0, size = candidates.size(); i < size; i++) {
+							int c = candidates.get(i);
+							if(!used[c]) {
+								used[c] = true;
+								seg = groupSegs[c];
+								break;
+							}
 						}
 					}
-					if(notFound) throw new RuntimeException("getZones: infinite loop.");
+					if(seg == null) throw new RuntimeException("getZones: infinite loop.");
+					if(seg.labelMask.equals(label)) outline = true;
+					segments.add(seg);
+					lastPoint = lastPoint == seg.p1 ? seg.p2 : seg.p1;
 				}
 				if(lastPoint == segments.get(0).p1) {
 					if(outline) {
@@ -692,16 +1260,74 @@ public class EulerCode {
 			if(!segments.isEmpty()) throw new RuntimeException("getZones: missed segments.");
 			zones.add(zone);
 		}
-		Collections.sort(zones, new Comparator<Zone>(){
-			@Override
-			public int compare(Zone o1, Zone o2) {
-				return o1.label.compareTo(o2.label);
-			}
-		});
+		Collections.sort(zones, ZONE_LABEL_ORDER);
 		return zones;
 	}
+
+	private static void addPointSegment(HashMap<Integer, ArrayList<Integer>> pointSegs, int point, int segIndex) {
+		ArrayList<Integer> segs = pointSegs.get(point);
+		if(segs == null) {
+			segs = new ArrayList<Integer>(2);
+			pointSegs.put(point, segs);
+		}
+		segs.add(segIndex);
+	}
+	
+	/**
+	 * Returns the polygon of a closed chain of segments (of an outline or
+	 * intline of a zone computed by {@link #getZones()}).
+	 */
+	private static Polygon chainToPolygon(List<Segment> segments) {
+		Polygon outline = new Polygon();
+		int lastPoint = 0;
+		for(Iterator<Segment> it = segments.iterator(); it.hasNext();) {
+			SegmentWithPolygon seg = (SegmentWithPolygon)it.next();
+			if(outline.npoints != 0 && lastPoint == seg.p2) {
+				outline.addPoint(seg.x2, seg.y2);
+				int dir = seg.poly.npoints - 1;
+				int startIndex = (seg.endIndex + dir) % seg.poly.npoints;
+				int endIndex = (seg.startIndex + dir) % seg.poly.npoints;
+				if(startIndex == endIndex) {
+					double x = seg.poly.xpoints[startIndex], y = seg.poly.ypoints[startIndex];
+					if(Point2D.distanceSq(seg.x1, seg.y1, x, y) > Point2D.distanceSq(seg.x2, seg.y2, x, y)) {
+						outline.addPoint(seg.poly.xpoints[startIndex], seg.poly.ypoints[startIndex]);
+						startIndex = (startIndex + dir) % seg.poly.npoints;
+					}
+				}
+				for(int i = startIndex; i != endIndex; i = (i + dir) % seg.poly.npoints) {
+					outline.addPoint(seg.poly.xpoints[i], seg.poly.ypoints[i]);
+				}
+				lastPoint = seg.p1;
+			} else {
+				outline.addPoint(seg.x1, seg.y1);
+				int startIndex = seg.startIndex;
+				if(startIndex == seg.endIndex) {
+					double x = seg.poly.xpoints[startIndex], y = seg.poly.ypoints[startIndex];
+					if(Point2D.distanceSq(seg.x1, seg.y1, x, y) < Point2D.distanceSq(seg.x2, seg.y2, x, y)) {
+						outline.addPoint(seg.poly.xpoints[startIndex], seg.poly.ypoints[startIndex]);
+						startIndex = (startIndex + 1) % seg.poly.npoints;
+					}
+				}
+				for(int i = startIndex; i != seg.endIndex; i = (i + 1) % seg.poly.npoints) {
+					outline.addPoint(seg.poly.xpoints[i], seg.poly.ypoints[i]);
+				}
+				lastPoint = seg.p2;
+			}
+		}
+		if(segments.size() == 1) {
+			SegmentWithPolygon seg = (SegmentWithPolygon)segments.get(0);
+			outline.addPoint(seg.x2, seg.y2);
+		}
+		return outline;
+	}
 	
-	public String getCode(boolean infix, boolean closedCircle, boolean html) {
+	public synchronized String getCode(boolean infix, boolean closedCircle, boolean html) {
+		int index = CODE + (infix ? 4 : 0) + (closedCircle ? 2 : 0) + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeCode(infix, closedCircle, html));
+	}
+
+	private String computeCode(boolean infix, boolean closedCircle, boolean html) {
 		if(curves.isEmpty()) return null;
 		StringBuffer out = new StringBuffer();
 		if(html) out.append("<html>\n<body>\n");
@@ -733,7 +1359,7 @@ public class EulerCode {
 						if(ipr.folContCurves.isEmpty()) {
 							out.append(html ? "&empty;" : "0");
 						} else {
-							for(Character inc : ipr.folContCurves) out.append(inc);
+							out.append(CurveMasks.toLabel(ipr.folContCurves));
 						}
 						out.append(html ? "</sub>" : " ");
 					}
@@ -751,7 +1377,7 @@ public class EulerCode {
 						if(pre.getKey().folContCurves.isEmpty()) {
 							cont.append(html ? "&empty;" : "0");
 						} else {
-							for(Character inc : pre.getKey().folContCurves) cont.append(inc);
+							cont.append(CurveMasks.toLabel(pre.getKey().folContCurves));
 						}
 						cont.append(html ? "</sub>" : " ");
 						pre = cur;
@@ -760,7 +1386,7 @@ public class EulerCode {
 					if(cur.getKey().folContCurves.isEmpty()) {
 						start.append(html ? "&empty;" : "0");
 					} else {
-						for(Character inc : cur.getKey().folContCurves) start.append(inc);
+						start.append(CurveMasks.toLabel(cur.getKey().folContCurves));
 					}
 					start.append(html ? "</sub>" : " ");
 					if(closedCircle) {
@@ -790,7 +1416,13 @@ public class EulerCode {
 	/**
 	 * An alternative code (unused)
 	 */
-	public String getCodeAlt(boolean html) {
+	public synchronized String getCodeAlt(boolean html) {
+		int index = CODE_ALT + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeCodeAlt(html));
+	}
+
+	private String computeCodeAlt(boolean html) {
 		if(curves.isEmpty()) return null;
 		
 		class Pair {
@@ -815,7 +1447,7 @@ public class EulerCode {
 			} else {
 				for(Entry<IncidentPointRef, Integer> ep : ipp.incidentPointRefs.entrySet()) {
 					Integer p = ep.getValue();
-					for(Character c : ep.getKey().folContCurves) curvesPoints.get(c).contained.add(p);
+					for(Character c : ep.getKey().getFolContCurves()) curvesPoints.get(c).contained.add(p);
 				}	
 			}
 		}
@@ -903,7 +1535,31 @@ public class EulerCode {
 		return bcCs.get(0);
 	}
 	
-	public EulerCodeRBC getEulerCodeRBC() {
+	/**
+	 * Returns the locator of the curves and of the zones containing a point,
+	 * memoized until the next modification. The returned locator is not
+	 * updated by the later modifications. If the zones cannot be computed
+	 * the locator finds only the curves.
+	 */
+	public synchronized ZoneLocator getZoneLocator() {
+		Object locator = derived(ZONE_LOCATOR);
+		if(locator != NOT_COMPUTED) return (ZoneLocator) locator;
+		List<Zone> zones;
+		try {
+			zones = getZones();
+		} catch(RuntimeException re) {
+			zones = Collections.emptyList();
+		}
+		return derived(ZONE_LOCATOR, new ZoneLocator(curves, zones));
+	}
+
+	public synchronized EulerCodeRBC getEulerCodeRBC() {
+		int index = EULER_CODE_RBC;
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (EulerCodeRBC) code : derived(index, computeEulerCodeRBC());
+	}
+
+	private EulerCodeRBC computeEulerCodeRBC() {
 		// groups the curves that share an intersection point
 		UnionFind<Character> cgrp = new UnionFind<Character>(curves.keySet());
 		for (IncidentPoint ip : incidentPoints.values()) {
@@ -958,7 +1614,7 @@ public class EulerCode {
 			nAllCrv++;
 		}
 
-		getZones();
+		ZoneLocator locator = getZoneLocator();
 
 		// for each curve group search the region in which it is located
 		SegmentCode[][] withins = new SegmentCode[divGcRBCs.length][];
@@ -968,22 +1624,41 @@ public class EulerCode {
 			Polygon fc = curves.get(curCrvLbs[0]);
 
 			// search the region with the longest label that contains the
-			// current curves
+			// current curves: the zone of the other curves that contain them
+			// (the curves of the group do not cross the other ones)
 			Zone cZone = null;
 			List<Segment> cOutline = null;
-			zoneFor: for (Zone zone : zones) {
+			BitSet mask = locator.getMaskAt(fc.xpoints[0], fc.ypoints[0]);
+			for (int j = 0; j < curCrvLbs.length; j++)
+				mask.clear(CurveMasks.bit(curCrvLbs[j]));
+			Zone mZone = locator.getZone(mask);
+			if (mZone != null) {
+				if (mZone.label.isEmpty())
+					cZone = mZone;
+				else
+					for (int j = 0; j < mZone.getOutPolys().size(); j++) {
+						if (mZone.getOutPolys().get(j).contains(
+								fc.xpoints[0], fc.ypoints[0])) {
+							cZone = mZone;
+							cOutline = mZone.outlines.get(j);
+							break;
+						}
+					}
+			}
+			// otherwise scans all the zones (getZones throws if they cannot be computed)
+			if (cZone == null) zoneFor: for (Zone zone : getZones()) {
 				// if the zone is associated with one of the current curves skip
 				// to the next zone
 				for (int j = 0; j < curCrvLbs.length; j++)
-					if (zone.label.contains(String.valueOf(curCrvLbs[j])))
+					if (zone.containsCurve(curCrvLbs[j]))
 						continue zoneFor;
 
 				if (cZone == null || cZone.label.length() < zone.label.length()) {
 					if (zone.label.isEmpty())
 						cZone = zone; // everything is contained in the ext zone
 					else
-						for (int j = 0; j < zone.area.outPolys.size(); j++) {
-							if (zone.area.outPolys.get(j).contains(
+						for (int j = 0; j < zone.getOutPolys().size(); j++) {
+							if (zone.getOutPolys().get(j).contains(
 									fc.xpoints[0], fc.ypoints[0])) {
 								cZone = zone;
 								cOutline = zone.outlines.get(j);
@@ -1000,7 +1675,7 @@ public class EulerCode {
 			Rectangle bBound = null;
 			for (int j = 0; j < cZone.intlines.size(); j++) {
 				List<Segment> intLine = cZone.intlines.get(j);
-				Rectangle intBound = cZone.area.intPolys.get(j).getBounds();
+				Rectangle intBound = cZone.getIntPolys().get(j).getBounds();
 				if (bBound == null || !bBound.contains(intBound)) {
 					for (Segment seg : intLine) {
 						for (int k = 0; k < curCrvLbs.length; k++) {
@@ -1023,7 +1698,13 @@ public class EulerCode {
 		return new EulerCodeRBC(divGcRBCs, withins, outers);
 	}
 	
-	public String getKnotCode(boolean closedCircle, boolean html) {
+	public synchronized String getKnotCode(boolean closedCircle, boolean html) {
+		int index = KNOT_CODE + (closedCircle ? 2 : 0) + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeKnotCode(closedCircle, html));
+	}
+
+	private String computeKnotCode(boolean closedCircle, boolean html) {
 		if (curves.isEmpty())
 			return null;
 		GaussCodeRBC gaussCodeRBC = getGaussCodeRBC();
@@ -1050,7 +1731,13 @@ public class EulerCode {
 						"$1<sub>$2</sub>") + "\n</body>\n</html>" : code);
 	}
 	
-	public String getGaussCode(boolean closedCircle, boolean html) {
+	public synchronized String getGaussCode(boolean closedCircle, boolean html) {
+		int index = GAUSS_CODE + (closedCircle ? 2 : 0) + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeGaussCode(closedCircle, html));
+	}
+
+	private String computeGaussCode(boolean closedCircle, boolean html) {
 		if (curves.isEmpty())
 			return null;
 		GaussCodeRBC gaussCodeRBC = getGaussCodeRBC();
@@ -1083,12 +1770,18 @@ public class EulerCode {
 				+ "\n</body>\n</html>" : code);
 	}
 
-	public String getEulerCode(boolean closedCircle, boolean html) {
+	public synchronized String getEulerCode(boolean closedCircle, boolean html) {
+		int index = EULER_CODE + (closedCircle ? 2 : 0) + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeEulerCode(closedCircle, html));
+	}
+
+	private String computeEulerCode(boolean closedCircle, boolean html) {
 		if (curves.isEmpty())
 			return null;
 		String code = getEulerCodeRBC().getEulerCodeRBCString();
 		if (closedCircle)
-			code = code.replaceAll("(\\n\\w:)( \\d+[+-])(.*)", "$1$2$3$2");
+			code = code.replaceAll("(\\n[^\\s:]:)( \\d+[+-])(.*)", "$1$2$3$2");
 		return html ? "<html>\n<body>\n"
 				+ code.replace("\n", "<br/>\n")
 						.replace("within: 0", "within: &empty;")
@@ -1123,8 +1816,8 @@ public class EulerCode {
 					ipp.firstPointContCurves);
 			crvOthSet.add(c);
 			for (IncidentPointRef ipr : ipp.incidentPointRefs.keySet()) {
-				crvIntSet.retainAll(ipr.folContCurves);
-				crvOthSet.addAll(ipr.folContCurves);
+				crvIntSet.retainAll(ipr.getFolContCurves());
+				crvOthSet.addAll(ipr.getFolContCurves());
 			}
 			crvOthSet.removeAll(crvIntSet);
 
@@ -1238,7 +1931,7 @@ public class EulerCode {
 							List<Segment> sl = zone.intlines.get(i);							 
 							if (cCurves.contains(sl.get(0).curve)) {
 								extZones.add(new AbstractMap.SimpleImmutableEntry<List<Segment>, Polygon>(
-										sl, zone.area.intPolys.get(i)));
+										sl, zone.getIntPolys().get(i)));
 							}
 						}
 						break;
@@ -1357,7 +2050,13 @@ public class EulerCode {
 				+ "\n</body>\n</html>" : code);
 	}
 	
-	public String getZonesCode(boolean infix, boolean closedCircle, boolean html) {
+	public synchronized String getZonesCode(boolean infix, boolean closedCircle, boolean html) {
+		int index = ZONES_CODE + (infix ? 4 : 0) + (closedCircle ? 2 : 0) + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeZonesCode(infix, closedCircle, html));
+	}
+
+	private String computeZonesCode(boolean infix, boolean closedCircle, boolean html) {
 		if(zones == null) getZones();
 		StringBuffer out = new StringBuffer();
 		if(html) out.append("<html>\n<body>\n");
@@ -1405,7 +2104,7 @@ public class EulerCode {
 		return out.toString().replace("-", "");
 	}
 	
-	public String getGaussZonesCodeUsingStaticCodeMethod(boolean html,Symbol[][] gaussCode,char [] curveLabels) {
+	public synchronized String getGaussZonesCodeUsingStaticCodeMethod(boolean html,Symbol[][] gaussCode,char [] curveLabels) {
 		
 		StringBuilder out = new StringBuilder();
 		Map<String, String> signedCodeLabels = new HashMap<String, String>();
@@ -1485,7 +2184,13 @@ public class EulerCode {
 			return out.toString();
 	}
 
-	public String getGaussZonesCode(boolean html) {
+	public synchronized String getGaussZonesCode(boolean html) {
+		int index = GAUSS_ZONES_CODE + (html ? 1 : 0);
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (String) code : derived(index, computeGaussZonesCode(html));
+	}
+
+	private String computeGaussZonesCode(boolean html) {
 		if (curves.isEmpty())
 			return null;
 		GaussCodeRBC gaussCodeRBC = getGaussCodeRBC();
@@ -1564,7 +2269,7 @@ public class EulerCode {
 			}
 		} else {
 			List<List<List<String>>> zones = ZonesSet.computeZonesSet(
-					gaussCode, rbc, bcCs.get(0),curvLabels);
+					gaussCodeRBC.getRegionGraph(), bcCs.get(0), curvLabels);
 			TreeMap<String, CharSequence> map = new TreeMap<String, CharSequence>();
 			for (int k = 0; k < zoneCodes.length; k++) {
 				TreeSet<Character> zoneCurves = new TreeSet<Character>();
@@ -1701,7 +2406,13 @@ public class EulerCode {
 		}
  		return out.toString();
 	}
-	public GaussCodeRBC getGaussCodeRBC() {
+	public synchronized GaussCodeRBC getGaussCodeRBC() {
+		int index = GAUSS_CODE_RBC;
+		Object code = derived(index);
+		return code != NOT_COMPUTED ? (GaussCodeRBC) code : derived(index, computeGaussCodeRBC());
+	}
+
+	private GaussCodeRBC computeGaussCodeRBC() {
 		int maxLbl = unusedIncidentPointLabels.getLast();
 		char[] curvLabels = new char[curves.size()];
 		Symbol[][] ogp = new Symbol[curves.size()][];
@@ -1766,12 +2477,10 @@ public class EulerCode {
 					y1 -= ip.y;
 					px -= ip.x;
 					py -= ip.y;
-					double pi2 = 2 * Math.PI;
-					double aRot = pi2 - Math.atan2(y0, x0);
-					double a1 = (Math.atan2(y1, x1) + aRot) % pi2;
-					double ap = (Math.atan2(py, px) + aRot) % pi2;
+					// compare the angles of p and 1 from 0
+					int cmp = GeomUtils.compareAngles(x0, y0, px, py, x1, y1);
 					ogp[i][j++] = new USymbol(String.valueOf(Math.abs(pid)),
-							ap < a1 ? '-' : (ap == a1 ? '@' : '+'), ipr.under);
+							cmp < 0 ? '-' : (cmp == 0 ? '@' : '+'), ipr.under);
 				}
 			}
 			i++;
@@ -1783,8 +2492,14 @@ public class EulerCode {
 	 * Problems with mixed clockwise/counterclockwise curves and self
 	 * intersecting curves (if conversionFromCode = true)
 	 */
-	public GaussCodeRBC getGaussCodeRBC(boolean conversionFromCode) {
+	public synchronized GaussCodeRBC getGaussCodeRBC(boolean conversionFromCode) {
 		if(!conversionFromCode) return getGaussCodeRBC();
+		Object code = derived(GAUSS_CODE_RBC_FROM_CODE);
+		return code != NOT_COMPUTED ? (GaussCodeRBC) code
+				: derived(GAUSS_CODE_RBC_FROM_CODE, computeGaussCodeRBCFromCode());
+	}
+
+	private GaussCodeRBC computeGaussCodeRBCFromCode() {
 		int maxLbl = unusedIncidentPointLabels.getLast();
 		char[] curvLabels = new char[curves.size()];
 		Symbol[][] ogp = new Symbol[curves.size()][];
@@ -1804,30 +2519,30 @@ public class EulerCode {
 				Entry<IncidentPointRef, Integer> pre = it.next();
 				Entry<IncidentPointRef, Integer> cur = pre;
 				Integer stVal = cur.getValue();
-				int stSize = cur.getKey().folContCurves.size();
+				int stSize = cur.getKey().folContCurves.cardinality();
 				int j = 1;
 				while (it.hasNext()) {
 					cur = it.next();
 					if (cur.getValue() < 0)
 						ogp[i][j++] = new Symbol(Integer.toString(-cur
 								.getValue()),
-								pre.getKey().folContCurves.size() > cur
-										.getKey().folContCurves.size() ? '-'
+								pre.getKey().folContCurves.cardinality() > cur
+										.getKey().folContCurves.cardinality() ? '-'
 										: '+');
 					else
 						ogp[i][j++] = new Symbol(cur.getValue().toString(),
-								pre.getKey().folContCurves.size() > cur
-										.getKey().folContCurves.size() ? '+'
+								pre.getKey().folContCurves.cardinality() > cur
+										.getKey().folContCurves.cardinality() ? '+'
 										: '-');
 					pre = cur;
 				}
 				if (stVal < 0)
 					ogp[i][0] = new Symbol(Integer.toString(-stVal),
-							cur.getKey().folContCurves.size() > stSize ? '-'
+							cur.getKey().folContCurves.cardinality() > stSize ? '-'
 									: '+');
 				else
 					ogp[i][0] = new Symbol(stVal.toString(),
-							cur.getKey().folContCurves.size() > stSize ? '+'
+							cur.getKey().folContCurves.cardinality() > stSize ? '+'
 									: '-');
 			}
 			i++;
@@ -1837,8 +2552,9 @@ public class EulerCode {
 
 	public static class IncidentPoint extends Point2D.Double {
 		private static final long serialVersionUID = 6722035294677566285L;
-		private final LinkedHashSet<Character> incidentCurves = new LinkedHashSet<Character>();
-		private final Set<Character> incidentCurvesUnm = Collections.unmodifiableSet(incidentCurves);
+		private final CurveSet incidentCurves = new CurveSet();
+		// state of the point in the last snapshot (see Snapshot)
+		private transient Snapshot.PointState snapshotState = null;
 		public IncidentPoint() {
 			super();
 		}
@@ -1846,17 +2562,29 @@ public class EulerCode {
 			super(x, y);
 		}
 		public Set<Character> getIncidentCurves() {
-			return incidentCurvesUnm;
+			return Collections.unmodifiableSet(incidentCurves);
 		}
 	}
 	
 	public static class IncidentPointsPolygon extends Polygon {
 		private static final long serialVersionUID = -6097022565565494853L;
+		private static final int SLAB_INDEX_MIN_POINTS = 16;
 		private final LinkedHashSet<Character> firstPointContCurves = new LinkedHashSet<Character>();
 		private final Set<Character> firstPointContCurvesUnmSet = Collections.unmodifiableSet(firstPointContCurves);
 		private final TreeBidiMap<IncidentPointRef, Integer> incidentPointRefs = new TreeBidiMap<IncidentPointRef, Integer>();
 		private final Set<Entry<IncidentPointRef, Integer>> incidentPointRefsUnmSet = Collections.unmodifiableSet(incidentPointRefs.entrySet());
 		private final Map<Integer, IncidentPointRef> incidentPointRefsInvUmn = Collections.unmodifiableMap(incidentPointRefs.inverseBidiMap());
+		// cumulative edge lengths for meanPoint and index for contains (built when needed,
+		// volatile since the threads that read a frozen EulerCode build them without locks)
+		private transient volatile double[] arcLengths = null;
+		private transient volatile SlabIndex slabIndex = null;
+		// immutable copy of the points shared by the snapshots (built when needed)
+		private transient volatile Polygon frozen = null;
+		// the EulerCode of the curve (set when it gets its first incident point ref)
+		private transient EulerCode owner = null;
+		// segments of the last zones computation, to be rebuilt if stale
+		private transient List<SegmentWithPolygon> segments = null;
+		private transient boolean segmentsStale = true;
 		public IncidentPointsPolygon() {
 			super();
 		}
@@ -1877,15 +2605,61 @@ public class EulerCode {
 		public Set<Character> getFirstPointContCurves() {
 			return firstPointContCurvesUnmSet;
 		}
+		@Override
+		public void invalidate() {
+			super.invalidate();
+			this.arcLengths = null;
+			this.slabIndex = null;
+			this.frozen = null;
+			this.segmentsStale = true;
+		}
+		@Override
+		public void translate(int deltaX, int deltaY) {
+			super.translate(deltaX, deltaY);
+			this.slabIndex = null;
+			this.frozen = null;
+			this.segmentsStale = true;
+		}
+		/**
+		 * Same as {@link Polygon#contains(double, double)}, but for the curves
+		 * with many points only the edges near y are tested (see {@link SlabIndex}).
+		 */
+		@Override
+		public boolean contains(double x, double y) {
+			if(npoints < SLAB_INDEX_MIN_POINTS) return super.contains(x, y);
+			SlabIndex si = slabIndex;
+			if(si == null || si.npoints != npoints) slabIndex = si = new SlabIndex(this);
+			return si.contains(x, y);
+		}
+		/**
+		 * Returns a copy of the points that is never modified.
+		 */
+		Polygon frozen() {
+			Polygon f = frozen;
+			if(f == null || f.npoints != npoints) frozen = f = new Polygon(xpoints, ypoints, npoints);
+			return f;
+		}
+		/**
+		 * Returns the mean point over the curve between two incident points.
+		 */
+		Point2D.Double meanPoint(IncidentPointRef start, IncidentPointRef end) {
+			double[] al = arcLengths;
+			if(al == null || al.length != npoints + 1) arcLengths = al = GeomUtils.arcLengths(this);
+			return GeomUtils.meanPoint(this, al, start.cRef, start.dis, end.cRef, end.dis);
+		}
 	}
 	
 	public static class IncidentPointRef implements Comparable<IncidentPointRef> {
 		private final int cRef;
 		private final double dis;
-		private final LinkedHashSet<Character> folContCurves = new LinkedHashSet<Character>();
-		private final Set<Character> folContCurvesUnm = Collections.unmodifiableSet(folContCurves);
+		private final BitSet folContCurves = new BitSet();
+		// view of folContCurves (built when needed)
+		private Set<Character> folContCurvesUnm = null;
 		private boolean under = false;
-		private Point2D.Double suggestedLabelPoint = null;
+		// suggested label point (NaN if not yet computed)
+		private double slpX = java.lang.Double.NaN, slpY = java.lang.Double.NaN;
+		// the curve of the ref (its EulerCode is notified of the under changes)
+		IncidentPointsPolygon curve = null;
 		public IncidentPointRef(int cRef, double dis) {
 			this.cRef = cRef;
 			this.dis = dis;
@@ -1897,18 +2671,19 @@ public class EulerCode {
 			if(this.cRef > o.cRef) return 1;
 			int c = Double.compare(this.dis, o.dis);
 			if(c != 0) return c;
-			if(this.folContCurves.equals(o.folContCurves)
-					&& (this.suggestedLabelPoint == o.suggestedLabelPoint || (this.suggestedLabelPoint != null
-							&& this.suggestedLabelPoint.equals(o.suggestedLabelPoint))))
+			boolean slp = this.hasSuggestedLabelPoint(), oSlp = o.hasSuggestedLabelPoint();
+			// the suggested label points are compared as Point2D.Double objects
+			boolean slpEquals = slp && oSlp && this.slpX == o.slpX && this.slpY == o.slpY;
+			if(this.folContCurves.equals(o.folContCurves) && (slp == oSlp && (!slp || slpEquals)))
 				return 0;
-			if(this.suggestedLabelPoint != null) {
-				if(o.suggestedLabelPoint != null) {
-					if(!this.suggestedLabelPoint.equals(o.suggestedLabelPoint))
-						return this.suggestedLabelPoint.hashCode() < o.suggestedLabelPoint.hashCode() ? -1 : 1;
+			if(slp) {
+				if(oSlp) {
+					if(!slpEquals)
+						return pointHashCode(this.slpX, this.slpY) < pointHashCode(o.slpX, o.slpY) ? -1 : 1;
 				} else {
 					return 1;
 				}
-			} else if(o.suggestedLabelPoint != null) {
+			} else if(oSlp) {
 					return -1;
 			}
 			return this.under != o.under ? (this.under ? 1 : -1) : this
@@ -1921,17 +2696,45 @@ public class EulerCode {
 			return dis;
 		}
 		public Set<Character> getFolContCurves() {
+			if(folContCurvesUnm == null) folContCurvesUnm = CurveMasks.asSet(folContCurves);
 			return folContCurvesUnm;
 		}
 		public boolean isUnder() {
 			return under;
 		}
 		public void setUnder(boolean under) {
-			this.under = under;
+			EulerCode owner = curve == null ? null : curve.owner;
+			if(owner == null) {
+				this.under = under;
+				return;
+			}
+			// as the other mutators, so that a getter does not memoize a code of the old flag
+			synchronized(owner) {
+				if(under != this.under) {
+					owner.checkNotFrozen();
+					owner.modCount++;
+				}
+				this.under = under;
+			}
 		}
 		public Point2D.Double getSuggestedLabelPoint() {
-			if(this.suggestedLabelPoint == null) return null;
-			else return new Point2D.Double(suggestedLabelPoint.x, suggestedLabelPoint.y);
+			if(!hasSuggestedLabelPoint()) return null;
+			else return new Point2D.Double(slpX, slpY);
+		}
+		boolean hasSuggestedLabelPoint() {
+			return !java.lang.Double.isNaN(slpX);
+		}
+		void setSuggestedLabelPoint(Point2D.Double p) {
+			this.slpX = p.x;
+			this.slpY = p.y;
+		}
+		/**
+		 * Same as {@link Point2D#hashCode()}.
+		 */
+		private static int pointHashCode(double x, double y) {
+			long bits = java.lang.Double.doubleToLongBits(x);
+			bits ^= java.lang.Double.doubleToLongBits(y) * 31;
+			return (((int) bits) ^ ((int) (bits >> 32)));
 		}
 	}
 	
@@ -1941,49 +2744,64 @@ public class EulerCode {
 		public final char curve;
 		public final String contCurves;
 		public final String label;
+		// curve masks of contCurves and label
+		final BitSet contMask, labelMask;
 		private Entry<Zone, Integer> zone1 = null, zone2 = null;
 		public Segment(int p1, int p2, char curve, String contCurves) {
-			this.p1 = p1;
-			this.p2 = p2;
-			this.curve = curve;
-			TreeSet<Character> sorted = new TreeSet<Character>();
-			int contCurvesLength = contCurves.length();
-			for(int i = 0; i < contCurvesLength; i++) sorted.add(contCurves.charAt(i));
-			if(sorted.size() != contCurvesLength) throw new IllegalArgumentException("duplicate in contCurves");
-			StringBuffer sortedBF = new StringBuffer();
-			for(Character c : sorted) sortedBF.append(c);
-			this.contCurves = sortedBF.toString();
-			if(!sorted.add(curve)) throw new IllegalArgumentException("curve presents in contCurves");
-			sortedBF.setLength(0);
-			for(Character c : sorted) sortedBF.append(c);
-			this.label = sortedBF.toString();
+			this(p1, p2, curve, CurveMasks.of(contCurves));
 		}
 		public Segment(int p1, int p2, char curve, Collection<Character> contCurves) {
+			this(p1, p2, curve, CurveMasks.of(contCurves));
+		} 
+		/**
+		 * @param contCurves
+		 *            the mask of the curves that contain the segment (see
+		 *            {@link #getContCurvesMask()})
+		 */
+		public Segment(int p1, int p2, char curve, BitSet contCurves) {
 			this.p1 = p1;
 			this.p2 = p2;
 			this.curve = curve;
-			TreeSet<Character> sorted = new TreeSet<Character>(contCurves);
-			if(sorted.size() != contCurves.size()) throw new IllegalArgumentException("duplicate in contCurves");
-			StringBuffer sortedBF = new StringBuffer();
-			for(Character c : sorted) sortedBF.append(c);
-			this.contCurves = sortedBF.toString();
-			if(!sorted.add(curve)) throw new IllegalArgumentException("curve presents in contCurves");
-			sortedBF.setLength(0);
-			for(Character c : sorted) sortedBF.append(c);
-			this.label = sortedBF.toString();
-		} 
+			if(contCurves == null) throw new IllegalArgumentException("duplicate in contCurves");
+			if(contCurves.get(CurveMasks.bit(curve))) throw new IllegalArgumentException("curve presents in contCurves");
+			this.contMask = (BitSet) contCurves.clone();
+			this.contCurves = CurveMasks.toLabel(contMask);
+			this.labelMask = (BitSet) contMask.clone();
+			this.labelMask.set(CurveMasks.bit(curve));
+			this.label = CurveMasks.toLabel(labelMask);
+		}
+		/**
+		 * Returns the curves that contain the segment as a mask: the bit of a
+		 * curve is its identifier (see
+		 * {@link it.unisa.di.cluelab.euler.code.gausscode.CurveIds#id(char)}),
+		 * or {@link it.unisa.di.cluelab.euler.code.gausscode.CurveIds#MAX_CURVES}
+		 * plus the label for the labels without identifier.
+		 */
+		public BitSet getContCurvesMask() {
+			return (BitSet) contMask.clone();
+		}
+		/**
+		 * Returns the mask of {@link #label}.
+		 */
+		public BitSet getLabelMask() {
+			return (BitSet) labelMask.clone();
+		}
 		public Entry<Zone, Integer> getFirstZone() {
 			return zone1;
 		}
 		public Entry<Zone, Integer> getSecondZone() {
 			return zone2;
 		}
-		private void addZone(String zLabel, Entry<Zone, Integer> zone) {
+		private void removeZone(BitSet zMask) {
+			if(contMask.equals(zMask)) zone1 = null;
+			else if(labelMask.equals(zMask)) zone2 = null;
+		}
+		private void addZone(BitSet zMask, Entry<Zone, Integer> zone) {
 			if(zone == null) throw new IllegalArgumentException("null zone");
-			if(contCurves.equals(zLabel)) {
+			if(contMask.equals(zMask)) {
 				if(zone1 != null) throw new IllegalStateException("first zone already added");
 				zone1 = zone;
-			} else if(label.equals(zLabel)) {
+			} else if(labelMask.equals(zMask)) {
 				if(zone2 != null) throw new IllegalStateException("second zone already added");
 				zone2 = zone;
 			} else throw new IllegalArgumentException("illegal label");
@@ -1994,15 +2812,75 @@ public class EulerCode {
 		public final String label;
 		public final List<List<Segment>> outlines;
 		public final List<List<Segment>> intlines;
-		private AreaWL area;
-		private Zone(String label, List<List<Segment>> outlines, List<List<Segment>> intlines) {
-			this.label = label;
+		// curve mask of label
+		private final BitSet mask;
+		// geometry of the zone, computed on first access
+		private List<Polygon> outPolys = null, intPolys = null;
+		private AreaWL area = null;
+		private Zone(BitSet mask, List<List<Segment>> outlines, List<List<Segment>> intlines) {
+			this.label = CurveMasks.toLabel(mask);
+			this.mask = mask;
 			this.outlines = outlines;
 			this.intlines = intlines;
-			this.area = null;
 		}
-		public AreaWL getArea() {
+		/**
+		 * Returns the area of the zone, computed on first access. Returns null
+		 * if the segments have no geometry (zones of
+		 * {@link EulerCode#computeZones(Collection)}).
+		 */
+		public synchronized AreaWL getArea() {
+			if(area == null && hasGeometry()) {
+				List<Polygon> outPolys = getOutPolys(), intPolys = getIntPolys();
+				AreaWL area;
+				if(!outPolys.isEmpty()) {
+					area = new AreaWL(outPolys.get(0));
+					for(int i = 1; i < outPolys.size(); i++) area.add(new Area(outPolys.get(i)));
+				} else if(!intPolys.isEmpty()) {
+					area = new AreaWL(new Rectangle(Short.MAX_VALUE, Short.MAX_VALUE));
+				} else return null;
+				for(Polygon intPoly : intPolys) area.subtract(new Area(intPoly));
+				area.outPolys.addAll(outPolys);
+				area.intPolys.addAll(intPolys);
+				this.area = area;
+			}
 			return area;
 		}
+		/**
+		 * Returns the polygons of the outlines, built directly from the segment
+		 * chains without computing the area. Returns null if the segments have
+		 * no geometry.
+		 */
+		public synchronized List<Polygon> getOutPolys() {
+			if(outPolys == null && hasGeometry()) outPolys = chainsToPolygons(outlines);
+			return outPolys;
+		}
+		/**
+		 * Returns the polygons of the intlines, built directly from the segment
+		 * chains without computing the area. Returns null if the segments have
+		 * no geometry.
+		 */
+		public synchronized List<Polygon> getIntPolys() {
+			if(intPolys == null && hasGeometry()) intPolys = chainsToPolygons(intlines);
+			return intPolys;
+		}
+		private boolean hasGeometry() {
+			List<List<Segment>> lines = outlines.isEmpty() ? intlines : outlines;
+			return !lines.isEmpty() && lines.get(0).get(0) instanceof SegmentWithPolygon;
+		}
+		private static List<Polygon> chainsToPolygons(List<List<Segment>> chains) {
+			ArrayList<Polygon> polys = new ArrayList<Polygon>(chains.size());
+			for(List<Segment> chain : chains) polys.add(chainToPolygon(chain));
+			return Collections.unmodifiableList(polys);
+		}
+		/**
+		 * Returns the curves of the zone as a mask (see
+		 * {@link Segment#getContCurvesMask()}).
+		 */
+		public BitSet getMask() {
+			return (BitSet) mask.clone();
+		}
+		public boolean containsCurve(char curve) {
+			return mask.get(CurveMasks.bit(curve));
+		}
 	}
 }
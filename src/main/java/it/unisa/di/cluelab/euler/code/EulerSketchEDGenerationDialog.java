@@ -12,6 +12,7 @@ import it.unisa.di.cluelab.euler.code.zoneGeneration.DisconnectedEDs;
 import it.unisa.di.cluelab.euler.code.zoneGeneration.EDDatabase;
 import it.unisa.di.cluelab.euler.code.zoneGeneration.EDData;
 import it.unisa.di.cluelab.euler.code.zoneGeneration.ZonesInputDialog;
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
 import it.unisa.di.cluelab.euler.code.gausscode.EulerCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.GaussCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.Symbol;
@@ -380,7 +381,7 @@ public class EulerSketchEDGenerationDialog extends JDialog {
 						Symbol[][] gaussCode = new Symbol[rows.length][];
 						char[] curveLabels = new char[rows.length];
 						for (int i = 0; i < rows.length; i++) {
-							curveLabels[i] = (char) ('A' + i);
+							curveLabels[i] = CurveIds.label(i);
 							String[] points = rows[i].split(" ");
 							gaussCode[i] = new Symbol[points.length];
 							for (int j = 0; j < points.length; j++) {
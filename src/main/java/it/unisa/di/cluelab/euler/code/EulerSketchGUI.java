@@ -128,6 +128,8 @@ public class EulerSketchGUI extends JPanel {
 				"showOnlyOutlines", String.valueOf(opt.isShowOnlyOutlines()))));
 		opt.setShowCurveLabels(Boolean.parseBoolean(properties.getProperty(
 				"showCurveLabels", String.valueOf(opt.isShowCurveLabels()))));
+		opt.setLivePreview(Boolean.parseBoolean(properties.getProperty(
+				"livePreview", String.valueOf(opt.isLivePreview()))));
 		opt.setUnderGapLen(Integer.parseInt(properties.getProperty(
 				"underGapLen", String.valueOf(opt.getUnderGapLen()))));
 		opt.setReleasedPressedDelay(Integer.parseInt(properties.getProperty(
@@ -205,7 +207,7 @@ public class EulerSketchGUI extends JPanel {
 		ChangeListener leftChange = new ChangeListener() {
 			@Override
 			public void stateChanged(ChangeEvent e) {
-				EulerCode ec = inputPanel.getEulerCode();
+				EulerCode ec = inputPanel.getShownEulerCode();
 				try {
 					boolean isGauss = chckbxGaussLeft.isSelected();
 					boolean isEuler = chckbxEulerLeft.isSelected(); 					
@@ -343,7 +345,7 @@ public class EulerSketchGUI extends JPanel {
 		ChangeListener rightChange = new ChangeListener() {
 			@Override
 			public void stateChanged(ChangeEvent e) {
-				EulerCode ec = inputPanel.getEulerCode();
+				EulerCode ec = inputPanel.getShownEulerCode();
 				try {
 					boolean isGauss = chckbxGaussRight.isSelected();
 					boolean isEuler = chckbxEulerRight.isSelected(); 					
@@ -530,6 +532,35 @@ public class EulerSketchGUI extends JPanel {
 		});
 		buttonsPanel.add(btnClear);
 
+		final JButton btnUndo = new JButton(new ImageIcon(
+				EulerSketchGUI.class.getResource("/images/sc_undo.png")));
+		btnUndo.setToolTipText("Undo");
+		btnUndo.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				inputPanel.undo();
+			}
+		});
+		btnUndo.setEnabled(false);
+		buttonsPanel.add(btnUndo);
+
+		final JButton btnRedo = new JButton(new ImageIcon(
+				EulerSketchGUI.class.getResource("/images/sc_redo.png")));
+		btnRedo.setToolTipText("Redo");
+		btnRedo.addActionListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				inputPanel.redo();
+			}
+		});
+		btnRedo.setEnabled(false);
+		buttonsPanel.add(btnRedo);
+
+		inputPanel.addChangeListener(new ChangeListener() {
+			public void stateChanged(ChangeEvent e) {
+				btnUndo.setEnabled(inputPanel.canUndo());
+				btnRedo.setEnabled(inputPanel.canRedo());
+			}
+		});
+
 		JSeparator separator_1 = new JSeparator();
 		buttonsPanel.add(separator_1);
 
@@ -882,6 +913,8 @@ public class EulerSketchGUI extends JPanel {
 				String.valueOf(opt.isShowOnlyOutlines()));
 		properties.setProperty("showCurveLabels",
 				String.valueOf(opt.isShowCurveLabels()));
+		properties.setProperty("livePreview",
+				String.valueOf(opt.isLivePreview()));
 		properties.setProperty("underGapLen",
 				String.valueOf(opt.getUnderGapLen()));
 		properties.setProperty("releasedPressedDelay",
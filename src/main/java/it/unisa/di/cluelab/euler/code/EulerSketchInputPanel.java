@@ -22,13 +22,17 @@ import java.awt.event.ActionEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import javax.swing.JPanel;
+import javax.swing.SwingWorker;
 import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -54,6 +58,7 @@ public class EulerSketchInputPanel extends JPanel {
 		private boolean delCurvWrIntGauss = true;
 		private boolean showOnlyOutlines = false;
 		private boolean showCurveLabels = true;
+		private boolean livePreview = false;
 		private int underGapLen = 0;
 		private int releasedPressedDelay = 0;
 		private Object antialias = RenderingHints.VALUE_ANTIALIAS_ON;
@@ -127,6 +132,7 @@ public class EulerSketchInputPanel extends JPanel {
 			this.delCurvWrIntGauss = options.isDelCurvWrIntGauss();
 			this.showOnlyOutlines = options.isShowOnlyOutlines();
 			this.showCurveLabels = options.isShowCurveLabels();
+			this.livePreview = options.isLivePreview();
 			this.underGapLen = options.getUnderGapLen();
 			this.setReleasedPressedDelay(options.getReleasedPressedDelay());
 			this.setAntialias(options.isAntialias());
@@ -199,6 +205,18 @@ public class EulerSketchInputPanel extends JPanel {
 			this.showCurveLabels = showCurveLabels;
 		}
 
+		public boolean isLivePreview() {
+			return livePreview;
+		}
+
+		/**
+		 * If true the zones and the codes are updated in background while a
+		 * curve is moved (see {@link EulerSketchInputPanel#getShownEulerCode()}).
+		 */
+		public void setLivePreview(boolean livePreview) {
+			this.livePreview = livePreview;
+		}
+
 		public int getUnderGapLen() {
 			return underGapLen;
 		}
@@ -341,6 +359,7 @@ public class EulerSketchInputPanel extends JPanel {
 	public static final int DRAW_INPUT_MODE = 0;
 	public static final int ERASE_INPUT_MODE = 1;
 	public static final int MOVE_INPUT_MODE = 2;
+	public static final int MAX_UNDO = 100;
 
 	private final Options options;
 	private EulerCode eulerCode;
@@ -350,6 +369,11 @@ public class EulerSketchInputPanel extends JPanel {
 	private Point moverMin;
 	private Point moverCur;
 	private Entry<Character, IncidentPointsPolygon> movedObject;
+	private DragPreview dragPreview;
+	private EulerCode previewEulerCode;
+	// diagrams before the last edits and after the undone ones
+	private final LinkedList<EulerCode.Snapshot> undoList = new LinkedList<EulerCode.Snapshot>();
+	private final LinkedList<EulerCode.Snapshot> redoList = new LinkedList<EulerCode.Snapshot>();
 	private int inputMode;
 	private boolean changedGraphics;
 	private BufferedImage paintBuffer = null;
@@ -392,6 +416,7 @@ public class EulerSketchInputPanel extends JPanel {
 						}
 					}
 					if (bestD <= POINT_CLICK_THRESHOLD) {
+						tip.addUndo(tip.eulerCode.snapshot());
 						Map<Character, IncidentPointsPolygon> curves = eulerCode
 								.getCurves();
 						Integer pn = best.getKey();
@@ -431,14 +456,17 @@ public class EulerSketchInputPanel extends JPanel {
 							case EulerSketchInputPanel.MOVE_INPUT_MODE:
 								double ex = e.getX() / tip.scale;
 								double ey = e.getY() / tip.scale;
-								for(Entry<Character, IncidentPointsPolygon> ec : tip.eulerCode.getCurves().entrySet()) {
-									if(ec.getValue().contains(ex, ey)) tip.movedObject = ec;
-								}
+								Character top = tip.eulerCode.getZoneLocator().getTopCurveAt(ex, ey);
+								if(top != null) tip.movedObject = new AbstractMap.SimpleImmutableEntry<Character, IncidentPointsPolygon>(top, tip.eulerCode.getCurves().get(top));
 								if(tip.movedObject != null) {
 									tip.moverStart = new Point(Math.max(0, Math.round(e.getX() / tip.scale)), Math.max(0, Math.round(e.getY() / tip.scale)));
 									Rectangle bound = tip.movedObject.getValue().getBounds();
 									tip.moverMin = new Point(tip.moverStart.x - bound.x, tip.moverStart.y - bound.y);
 									tip.moverCur = moverStart;
+									if(tip.options.livePreview) {
+										tip.dragPreview = new DragPreview(tip, tip.eulerCode, tip.movedObject.getKey());
+										tip.dragPreview.start();
+									}
 									tip.repaint();
 								}
 						}
@@ -455,41 +483,24 @@ public class EulerSketchInputPanel extends JPanel {
 									Polygon remInt = tip.options.selfIntersect ? GeomUtils.makeClockwise(GeomUtils.removeMinArea(tip.curStroke, tip.options.curveMinArea), tip.options.curveMinArea) : GeomUtils.removeIntersections(tip.curStroke, tip.options.convexCurves, tip.options.curveMinArea);
 									tip.curStroke = null;
 									if(remInt != null) {
+										EulerCode.Snapshot before = tip.eulerCode.snapshot();
 										Character cl = tip.eulerCode.addCurve(remInt);
-										if(options.delCurvWrIntGauss) {
-											for(int i = 1; i <= 9; i++) {
-												boolean err;
-												try {
-													String gc = tip.eulerCode.getGaussCode(false, false);
-													err = gc.contains("#") || gc.contains("@");
-													if(!err) 
-														err = tip.eulerCode.getZones().isEmpty();
-												} catch(Exception e) {
-													err = true;
-												}
-												if(err) {
-													tip.eulerCode.removeCurve(cl, options.redoOnRemove);
-													if(i != 9) {
-														remInt.translate((i + 1) % 3 == 0 ? -2 : 1, i % 3 == 0 ? i - 4 : 0);
-														cl = tip.eulerCode.addCurve(remInt);
-													}
-												} else
-													break;
-											}
-										}
+										if(options.delCurvWrIntGauss && !CurvePlacement.isValid(tip.eulerCode)) {
+											tip.eulerCode.removeCurve(cl, options.redoOnRemove);
+											tip.placeCurve(before, remInt);
+										} else
+											tip.addUndo(before);
 										tip.repaint();
 										tip.updatesPreferredSizeAndNotifiesChangeListeners();
 									} else tip.lightRepaint();
 									break;
 								case EulerSketchInputPanel.ERASE_INPUT_MODE:
 									tip.eraserPos = null;
-									Character curve = null;
 									double erx = ev.getX() / tip.scale;
 									double ery = ev.getY() / tip.scale;
-									for(Entry<Character, IncidentPointsPolygon> ec : tip.eulerCode.getCurves().entrySet()) {
-										if(ec.getValue().contains(erx, ery)) curve = ec.getKey();
-									}
+									Character curve = tip.eulerCode.getZoneLocator().getTopCurveAt(erx, ery);
 									if(curve != null) {
+										tip.addUndo(tip.eulerCode.snapshot());
 										tip.eulerCode.removeCurve(curve, options.isRedoOnRemove());
 										tip.repaint();
 										tip.updatesPreferredSizeAndNotifiesChangeListeners();
@@ -499,27 +510,17 @@ public class EulerSketchInputPanel extends JPanel {
 									break;
 								case EulerSketchInputPanel.MOVE_INPUT_MODE:
 									if(tip.movedObject != null) {
+										tip.stopDragPreview();
 										Character oldCurveLabel = tip.movedObject.getKey();
-										Polygon oldCurve = tip.movedObject.getValue();
-										tip.eulerCode.removeCurve(oldCurveLabel, options.redoOnRemove);
-										Polygon newCurve = new Polygon(oldCurve.xpoints, oldCurve.ypoints, oldCurve.npoints);
-										newCurve.translate(tip.moverCur.x - tip.moverStart.x, tip.moverCur.y - tip.moverStart.y);
-										tip.eulerCode.addCurve(oldCurveLabel, newCurve);
-										if(options.delCurvWrIntGauss) {
-											boolean err;
-											try {
-												String gc = tip.eulerCode.getGaussCode(false, false);
-												err = gc.contains("#") || gc.contains("@");
-												if(!err) 
-													err = tip.eulerCode.getZones().isEmpty();
-											} catch(Exception e) {
-												err = true;
-											}
-											if(err) {
-												tip.eulerCode.removeCurve(oldCurveLabel, options.redoOnRemove);
-												tip.eulerCode.addCurve(oldCurveLabel, oldCurve);
-											}
+										int dx = tip.moverCur.x - tip.moverStart.x, dy = tip.moverCur.y - tip.moverStart.y;
+										EulerCode.Snapshot before = tip.eulerCode.snapshot();
+										tip.eulerCode.translateCurve(oldCurveLabel, dx, dy);
+										boolean moved = true;
+										if(options.delCurvWrIntGauss && !CurvePlacement.isValid(tip.eulerCode)) {
+											tip.eulerCode.translateCurve(oldCurveLabel, -dx, -dy);
+											moved = false;
 										}
+										if(moved && (dx != 0 || dy != 0)) tip.addUndo(before);
 										tip.moverStart = null;
 										tip.moverMin = null;
 										tip.moverCur = null;
@@ -554,6 +555,8 @@ public class EulerSketchInputPanel extends JPanel {
 						case EulerSketchInputPanel.MOVE_INPUT_MODE:
 							if(tip.movedObject != null) {
 								tip.moverCur = new Point(Math.max(tip.moverMin.x, Math.round(e.getX() / tip.scale)), Math.max(tip.moverMin.y, Math.round(e.getY() / tip.scale)));
+								if(tip.dragPreview != null)
+									tip.dragPreview.moveTo(tip.moverCur.x - tip.moverStart.x, tip.moverCur.y - tip.moverStart.y);
 							}
 					}
 					tip.lightRepaint();
@@ -601,6 +604,27 @@ public class EulerSketchInputPanel extends JPanel {
 	private void lightRepaint() {
 		super.repaint();
 	}
+
+	/**
+	 * Shows a preview computed by the current drag preview worker.
+	 */
+	void showDragPreview(DragPreview source, EulerCode preview) {
+		if(source != dragPreview) return;
+		this.previewEulerCode = preview;
+		this.repaint();
+		ChangeEvent e = new ChangeEvent(this);
+		for(ChangeListener l : listenerList.getListeners(ChangeListener.class)) {
+			l.stateChanged(e);
+		}
+	}
+
+	private void stopDragPreview() {
+		if(dragPreview != null) {
+			dragPreview.finish();
+			dragPreview = null;
+		}
+		previewEulerCode = null;
+	}
 	
 	@Override
 	public void repaint() {
@@ -623,8 +647,11 @@ public class EulerSketchInputPanel extends JPanel {
 			bfg.clearRect(0, 0, paintBuffer.getWidth(), paintBuffer.getHeight());
 			bfg.scale(scale, scale);
 
-			paintEC(bfg, eulerCode, options, movedObject == null ? null
-					: movedObject.getKey());
+			if(previewEulerCode != null)
+				paintEC(bfg, previewEulerCode, options, null);
+			else
+				paintEC(bfg, eulerCode, options, movedObject == null ? null
+						: movedObject.getKey());
 
 			bfg.setTransform(orAT);
 			bfg.dispose();
@@ -643,11 +670,9 @@ public class EulerSketchInputPanel extends JPanel {
 		}
 		// draw a gray overlay for the ready to delete object
 		if(eraserPos != null) {
-			IncidentPointsPolygon curve = null;
-			for(IncidentPointsPolygon ec : eulerCode.getCurves().values()) {
-				if(ec.contains(eraserPos)) curve = ec;
-			}
-			if(curve != null) {
+			Character top = eulerCode.getZoneLocator().getTopCurveAt(eraserPos.x, eraserPos.y);
+			if(top != null) {
+				IncidentPointsPolygon curve = eulerCode.getCurves().get(top);
 				g.setColor(options.eraseColor);
 				g.fillPolygon(curve.xpoints, curve.ypoints, curve.npoints);
 			}
@@ -905,6 +930,7 @@ public class EulerSketchInputPanel extends JPanel {
 		this.moverStart = null;
 		this.moverMin = null;
 		this.movedObject = null;
+		this.stopDragPreview();
 	}
 	
 	public float getScale() {
@@ -922,13 +948,109 @@ public class EulerSketchInputPanel extends JPanel {
 		return eulerCode;
 	}
 
+	/**
+	 * Returns the EulerCode shown in the panel: the live preview while a curve
+	 * is moved (if enabled), {@link #getEulerCode()} otherwise. The preview
+	 * must be used only on the event dispatch thread and must not be stored
+	 * or modified.
+	 */
+	public EulerCode getShownEulerCode() {
+		return previewEulerCode != null ? previewEulerCode : eulerCode;
+	}
+
+	/**
+	 * Shows another diagram (e.g. a loaded or generated one). The replaced
+	 * diagram, if not empty, is restored by {@link #undo()}.
+	 */
 	public void setEulerCode(EulerCode eulerCode) {
 		if(eulerCode == null) throw new NullPointerException("Null eulerCode.");
+		this.stopDragPreview();
+		if(eulerCode != this.eulerCode && !this.eulerCode.getCurves().isEmpty())
+			addUndo(this.eulerCode.snapshot());
 		this.eulerCode = eulerCode;
 		this.repaint();
 		this.updatesPreferredSizeAndNotifiesChangeListeners();
 	}
 
+	/**
+	 * Searches (off the event dispatch thread) an offset for a new curve that
+	 * gives a wrong diagram, then adds the translated curve if the diagram
+	 * has not been changed in the meantime (see {@link CurvePlacement}).
+	 *
+	 * @param before
+	 *            the diagram without the new curve
+	 */
+	private void placeCurve(final EulerCode.Snapshot before, final Polygon curve) {
+		final EulerCode target = this.eulerCode;
+		final int modCount = target.getModCount();
+		final boolean sweepLine = target.isSweepLine();
+		new SwingWorker<int[], Void>() {
+			@Override
+			protected int[] doInBackground() {
+				return CurvePlacement.findOffset(before, sweepLine, curve);
+			}
+			@Override
+			protected void done() {
+				int[] offset;
+				try {
+					offset = get();
+				} catch(InterruptedException | ExecutionException e) {
+					return;
+				}
+				if(offset == null || eulerCode != target || target.getModCount() != modCount) return;
+				curve.translate(offset[0], offset[1]);
+				target.addCurve(curve);
+				addUndo(before);
+				repaint();
+				updatesPreferredSizeAndNotifiesChangeListeners();
+			}
+		}.execute();
+	}
+
+	/**
+	 * Records the diagram before an edit: it is restored by {@link #undo()}.
+	 * The redo history is discarded.
+	 */
+	private void addUndo(EulerCode.Snapshot before) {
+		undoList.addLast(before);
+		if(undoList.size() > MAX_UNDO) undoList.removeFirst();
+		redoList.clear();
+	}
+
+	public boolean canUndo() {
+		return !undoList.isEmpty();
+	}
+
+	public boolean canRedo() {
+		return !redoList.isEmpty();
+	}
+
+	/**
+	 * Restores the diagram before the last edit made in the panel. If the
+	 * restored diagram has not been modified since it was replaced, the same
+	 * EulerCode object is shown again (see {@link EulerCode.Snapshot}).
+	 */
+	public void undo() {
+		if(undoList.isEmpty()) return;
+		this.stopDragPreview();
+		redoList.addLast(eulerCode.snapshot());
+		this.eulerCode = undoList.removeLast().toEulerCode();
+		this.repaint();
+		this.updatesPreferredSizeAndNotifiesChangeListeners();
+	}
+
+	/**
+	 * Restores the diagram before the last {@link #undo()}.
+	 */
+	public void redo() {
+		if(redoList.isEmpty()) return;
+		this.stopDragPreview();
+		undoList.addLast(eulerCode.snapshot());
+		this.eulerCode = redoList.removeLast().toEulerCode();
+		this.repaint();
+		this.updatesPreferredSizeAndNotifiesChangeListeners();
+	}
+
 	public Options getOptions() {
 		return new Options(options);
 	}
@@ -944,6 +1066,8 @@ public class EulerSketchInputPanel extends JPanel {
 
 	public void clear() {
 		this.curStroke = null;
+		this.stopDragPreview();
+		if(!this.eulerCode.getCurves().isEmpty()) addUndo(this.eulerCode.snapshot());
 		this.eulerCode.clear();
 		this.repaint();
 		this.updatesPreferredSizeAndNotifiesChangeListeners();
@@ -63,6 +63,8 @@ public class EulerSketchOptionPanel extends JPanel {
 	private JSeparator separator_9;
 	private JCheckBox chckbxShowCurveLabels;
 	private JSeparator separator_10;
+	private JCheckBox chckbxLivePreview;
+	private JSeparator separator_11;
 	private JPanel panelUnder;
 	private JComboBox<Integer> cbxUnder;
 
@@ -138,6 +140,13 @@ public class EulerSketchOptionPanel extends JPanel {
 		chckbxShowCurveLabels.setSelected(options.isShowCurveLabels());
 		add(chckbxShowCurveLabels);
 		
+		separator_11 = new JSeparator();
+		add(separator_11);
+		
+		chckbxLivePreview = new JCheckBox("Update zones and codes while moving curves");
+		chckbxLivePreview.setSelected(options.isLivePreview());
+		add(chckbxLivePreview);
+		
 		separator = new JSeparator();
 		add(separator);
 		
@@ -250,6 +259,7 @@ public class EulerSketchOptionPanel extends JPanel {
 		newOptions.setDelCurvWrIntGauss(chckbxDelCurvWrIntGauss.isSelected());
 		newOptions.setShowOnlyOutlines(chckbxShowOnlyOutlines.isSelected());
 		newOptions.setShowCurveLabels(chckbxShowCurveLabels.isSelected());
+		newOptions.setLivePreview(chckbxLivePreview.isSelected());
 		newOptions.setConvexCurves(chckbxMakeNewDrawn.isSelected());
 		newOptions.setAntialias(chckbxAntialias.isSelected());
 		Object selUnder = cbxUnder.getSelectedItem();
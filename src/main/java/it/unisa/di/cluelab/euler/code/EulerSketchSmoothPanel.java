@@ -59,7 +59,7 @@ public class EulerSketchSmoothPanel extends JPanel {
 		tglbtnRun.setToolTipText("Run/Stop");
 		add(tglbtnRun);
 
-		final ArrayList<EulerCode> undoList = new ArrayList<EulerCode>();
+		final ArrayList<EulerCode.Snapshot> undoList = new ArrayList<EulerCode.Snapshot>();
 		final JButton btnUndo = new JButton(
 				new ImageIcon(
 						EulerSketchSmoothPanel.class
@@ -67,7 +67,7 @@ public class EulerSketchSmoothPanel extends JPanel {
 		btnUndo.setToolTipText("Undo");
 		btnUndo.addActionListener(new ActionListener() {
 			public void actionPerformed(ActionEvent arg0) {
-				inputPanel.setEulerCode(undoList.remove(undoList.size() - 1));
+				inputPanel.setEulerCode(undoList.remove(undoList.size() - 1).toEulerCode());
 				btnUndo.setEnabled(!undoList.isEmpty());
 			}
 		});
@@ -168,7 +168,7 @@ public class EulerSketchSmoothPanel extends JPanel {
 						inputPanel.setEnabled(false);
 					btnUndo.setEnabled(false);
 
-					undoList.add(ec);
+					undoList.add(ec.snapshot());
 
 					Rectangle r = null;
 					for (IncidentPointsPolygon p : curves.values()) {
@@ -62,22 +62,99 @@ public class GeomUtils {
      */
 	public static Point2D.Double getIntersection(double x1, double y1,
 			double x2, double y2, double x3, double y3, double x4, double y4) {
+		double[] out = new double[2];
+		if (getIntersection(x1, y1, x2, y2, x3, y3, x4, y4, out))
+			return new Point2D.Double(out[0], out[1]);
+		else
+			return null;
+	}
+
+	/**
+	 * Computes the intersection point of two segment without allocations.
+	 * @param out the array in which the intersection point (x, y) is stored, if it exists
+	 * @return true if the intersection exists
+	 * @see #getIntersection(double, double, double, double, double, double, double, double)
+	 */
+	public static boolean getIntersection(double x1, double y1,
+			double x2, double y2, double x3, double y3, double x4, double y4, double[] out) {
 		final double dx1 = x1 - x2;
 		final double dy1 = y1 - y2;
 		final double dx2 = x3 - x4;
 		final double dy2 = y3 - y4;
 		final double denom = dx1 * dy2 - dy1 * dx2;
 		if (denom == 0.)
-			return null;
+			return false;
 
 		final double ddx = (x2 - x4);
 		final double ddy = (y2 - y4);
 		double ua = (dx2 * ddy - dy2 * ddx) / denom;
 		double ub = (dx1 * ddy - dy1 * ddx) / denom;
-		if (ua >= 0.0f && ua <= 1.0f && ub >= 0.0f && ub <= 1.0f)
-			return new Point2D.Double((x2 + ua * dx1), (y2 + ua * dy1));
-		else
-			return null;
+		if (ua >= 0.0f && ua <= 1.0f && ub >= 0.0f && ub <= 1.0f) {
+			out[0] = x2 + ua * dx1;
+			out[1] = y2 + ua * dy1;
+			return true;
+		} else
+			return false;
+	}
+
+	/**
+	 * Computes the intersection point of the edge i of a polygon (from the
+	 * point i to the point i + 1) and the edge k of another polygon without
+	 * allocations.
+	 * @param out the array in which the intersection point (x, y) is stored, if it exists
+	 * @return true if the intersection exists
+	 */
+	public static boolean getEdgesIntersection(Polygon p, int i, Polygon q, int k, double[] out) {
+		final int i1 = (i + 1) % p.npoints;
+		final int k1 = (k + 1) % q.npoints;
+		return getIntersection(p.xpoints[i], p.ypoints[i], p.xpoints[i1], p.ypoints[i1],
+				q.xpoints[k], q.ypoints[k], q.xpoints[k1], q.ypoints[k1], out);
+	}
+
+	/**
+	 * Compares the angles, measured counterclockwise from the vector (x0, y0)
+	 * in [0, 2&pi;), of the vectors (x1, y1) and (x2, y2). Only the signs of
+	 * cross and dot products are used (no trigonometric functions), except
+	 * when two of the vectors are almost collinear: then the angles are
+	 * computed with {@link Math#atan2(double, double)}, so that the result is
+	 * always the same as comparing the atan2 angles.
+	 * @return a negative integer, zero, or a positive integer as the first
+	 * angle is less than, equal to, or greater than the second
+	 */
+	public static int compareAngles(double x0, double y0, double x1, double y1, double x2, double y2) {
+		double sq0 = x0 * x0 + y0 * y0, sq1 = x1 * x1 + y1 * y1, sq2 = x2 * x2 + y2 * y2;
+		double cross1 = x0 * y1 - y0 * x1, cross2 = x0 * y2 - y0 * x2, cross = x1 * y2 - y1 * x2;
+		if (cross1 * cross1 <= COLLINEAR_EPS_SQ * sq0 * sq1 || cross2 * cross2 <= COLLINEAR_EPS_SQ * sq0 * sq2
+				|| cross * cross <= COLLINEAR_EPS_SQ * sq1 * sq2)
+			return compareAtan2Angles(x0, y0, x1, y1, x2, y2);
+		int h1 = halfPlane(x0, y0, x1, y1);
+		int h2 = halfPlane(x0, y0, x2, y2);
+		if (h1 != h2)
+			return h1 - h2;
+		return cross > 0 ? -1 : (cross < 0 ? 1 : 0);
+	}
+
+	// squared sine of the angle under which the vectors are almost collinear
+	// (far above the rounding error of the atan2 angles)
+	private static final double COLLINEAR_EPS_SQ = 1e-18;
+
+	/**
+	 * The atan2 version of {@link #compareAngles(double, double, double, double, double, double)}.
+	 */
+	private static int compareAtan2Angles(double x0, double y0, double x1, double y1, double x2, double y2) {
+		double pi2 = 2 * Math.PI;
+		double aRot = pi2 - Math.atan2(y0, x0);
+		double a1 = (Math.atan2(y1, x1) + aRot) % pi2;
+		double a2 = (Math.atan2(y2, x2) + aRot) % pi2;
+		return a1 < a2 ? -1 : (a1 == a2 ? 0 : 1);
+	}
+
+	/**
+	 * Returns 0 if the angle of (x, y) from (x0, y0) is in [0, &pi;), 1 otherwise.
+	 */
+	private static int halfPlane(double x0, double y0, double x, double y) {
+		double cross = x0 * y - y0 * x;
+		return cross > 0 || (cross == 0 && x0 * x + y0 * y >= 0) ? 0 : 1;
 	}
     
 	/**
@@ -148,6 +225,72 @@ public class GeomUtils {
 		final int afterLast = (endIdx + 1) % poly.npoints;
 		return pointOverSegment(poly.xpoints[endIdx], poly.ypoints[endIdx], poly.xpoints[afterLast], poly.ypoints[afterLast], mean - parLen);
 	}
+
+	/**
+	 * Returns the cumulative edge lengths of a polygon.
+	 * @param poly the polygon
+	 * @return an array of npoints + 1 elements, the element i is the length of the
+	 *         boundary from the point 0 to the point i (the last is the perimeter)
+	 */
+	public static double[] arcLengths(Polygon poly) {
+		final int n = poly.npoints;
+		double[] arc = new double[n + 1];
+		for(int i = 0; i < n; i++) {
+			int ni = (i + 1) % n;
+			int dx = poly.xpoints[ni] - poly.xpoints[i];
+			int dy = poly.ypoints[ni] - poly.ypoints[i];
+			arc[i + 1] = arc[i] + Math.sqrt(dx*dx + dy*dy);
+		}
+		return arc;
+	}
+
+	/**
+	 * Returns the mean point over two point on a polygon, like
+	 * {@link #meanPoint(Polygon, int, double, int, double)}, but the boundary is
+	 * not walked: the mean point is searched in the cumulative edge lengths.
+	 * @param poly the polygon
+	 * @param arcLengths the cumulative edge lengths of poly (see {@link #arcLengths(Polygon)})
+	 * @param startIdx the index of the point before the start point
+	 * @param startDis the distance between the startIdx point and the start point 
+	 * @param endIdx the index of the point before the end point
+	 * @param endDis the distance between the endIdx point and the end point 
+	 * @return the mean point
+	 */
+	public static Point2D.Double meanPoint(Polygon poly, double[] arcLengths, int startIdx, double startDis, int endIdx, double endDis) {
+		final int n = poly.npoints;
+		// if the start and last point are over the same segment and start is before last
+		if(startIdx == endIdx && startDis <= endDis) return pointOverSegment(
+				poly.xpoints[startIdx], poly.ypoints[startIdx],
+				poly.xpoints[(startIdx + 1) % n], poly.ypoints[(startIdx + 1) % n],
+				Math.min(startDis, endDis) + (0.5 * Math.abs(endDis - startDis)));
+
+		// the length of the boundary from the startIdx point to the endIdx point
+		final double perimeter = arcLengths[n];
+		double walked = arcLengths[endIdx] - arcLengths[startIdx];
+		if(endIdx <= startIdx) walked += perimeter;
+		// the distance of the mean point
+		final double mean = startDis + (0.5 * (endDis - startDis + walked));
+		// if the mean point is after the last point
+		if(mean > walked) {
+			final int afterLast = (endIdx + 1) % n;
+			return pointOverSegment(poly.xpoints[endIdx], poly.ypoints[endIdx], poly.xpoints[afterLast], poly.ypoints[afterLast], mean - walked);
+		}
+		double pos = arcLengths[startIdx] + mean;
+		if(pos > perimeter) pos -= perimeter;
+		// the first edge whose end is at pos or after it
+		int lo = 0, hi = n - 1;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(arcLengths[mid + 1] < pos) lo = mid + 1;
+			else hi = mid;
+		}
+		final int ni = (lo + 1) % n;
+		final double segLen = arcLengths[lo + 1] - arcLengths[lo];
+		if(segLen == 0.) return new Point2D.Double(poly.xpoints[lo], poly.ypoints[lo]);
+		final double d = (pos - arcLengths[lo]) / segLen;
+		return new Point2D.Double(poly.xpoints[lo] + d*(poly.xpoints[ni] - poly.xpoints[lo]),
+				poly.ypoints[lo] + d*(poly.ypoints[ni] - poly.ypoints[lo]));
+	}
 	
 	/**
 	 * Returns a polygon (clockwise) without self intersections that is similar to the input polygon.
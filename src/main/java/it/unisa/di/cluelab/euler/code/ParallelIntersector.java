@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the crossing edges of a set of polygons testing the edge pairs of
+ * every pair of polygons, as {@link EulerCode#addCurve(Polygon)} does, but
+ * with the polygon pairs distributed on a fork/join pool. The reported edge
+ * pairs are exactly the ones for which
+ * {@link GeomUtils#getIntersection(double, double, double, double, double, double, double, double)}
+ * finds an intersection.
+ *
+ * @author Mattia De Rosa
+ */
+class ParallelIntersector {
+	/**
+	 * Number of edge pairs under which a task is not split.
+	 */
+	private static final long SEQUENTIAL_THRESHOLD = 1 << 16;
+	private static final int MAX_INDEX = (1 << 21) - 1;
+	// shared with the other background computations (see CurvePlacement)
+	static final ForkJoinPool POOL = new ForkJoinPool();
+
+	private static class PairsTask extends RecursiveAction {
+		private static final long serialVersionUID = -4047316826289309211L;
+		private final Polygon[] polys;
+		private final int[][] pairs;
+		private final long[] work;
+		private final int[][] result;
+		private final int lo, hi;
+
+		PairsTask(Polygon[] polys, int[][] pairs, long[] work, int[][] result, int lo, int hi) {
+			this.polys = polys;
+			this.pairs = pairs;
+			this.work = work;
+			this.result = result;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > 1 && work[hi] - work[lo] > SEQUENTIAL_THRESHOLD) {
+				// split on the half of the work
+				long half = (work[lo] + work[hi]) / 2;
+				int mid = Arrays.binarySearch(work, lo + 1, hi, half);
+				if (mid < 0)
+					mid = -mid - 1;
+				if (mid >= hi)
+					mid = hi - 1;
+				invokeAll(new PairsTask(polys, pairs, work, result, lo, mid),
+						new PairsTask(polys, pairs, work, result, mid, hi));
+			} else {
+				for (int p = lo; p < hi; p++) {
+					int j = pairs[p][0], c = pairs[p][1];
+					result[p] = crossings(polys[j], c < 0 ? polys[j] : polys[c], c < 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This class is not instantiable.
+	 */
+	private ParallelIntersector() {
+	}
+
+	/**
+	 * Finds the crossing edges of every polygon with itself and with the
+	 * preceding polygons. The result has the same format of
+	 * {@link SweepLineIntersector#findCrossings(Polygon[], int)} with
+	 * <code>first == 0</code>.
+	 *
+	 * @return the crossings of each polygon, or null if a polygon has too many
+	 *         points
+	 */
+	static int[][] findCrossings(Polygon[] polys) {
+		Rectangle[] bounds = new Rectangle[polys.length];
+		for (int j = 0; j < polys.length; j++) {
+			if (polys[j].npoints > MAX_INDEX)
+				return null;
+			bounds[j] = polys[j].getBounds();
+		}
+		// the polygon pairs whose bounds intersect (c == -1 for the self
+		// intersections) and the cumulative number of their edge pairs
+		ArrayList<int[]> pairList = new ArrayList<int[]>();
+		for (int j = 0; j < polys.length; j++) {
+			for (int c = -1; c < j; c++) {
+				if (c < 0 || overlap(bounds[j], bounds[c]))
+					pairList.add(new int[] { j, c });
+			}
+		}
+		int[][] pairs = pairList.toArray(new int[pairList.size()][]);
+		long[] work = new long[pairs.length + 1];
+		for (int p = 0; p < pairs.length; p++) {
+			int j = pairs[p][0], c = pairs[p][1];
+			work[p + 1] = work[p] + (long) polys[j].npoints * polys[c < 0 ? j : c].npoints;
+		}
+		int[][] pairCrossings = new int[pairs.length][];
+		PairsTask task = new PairsTask(polys, pairs, work, pairCrossings, 0, pairs.length);
+		if (work[pairs.length] > SEQUENTIAL_THRESHOLD)
+			POOL.invoke(task);
+		else
+			task.compute();
+
+		// merge the pairs of each polygon in the order (i, c, k)
+		int[] counts = new int[polys.length];
+		for (int p = 0; p < pairs.length; p++)
+			counts[pairs[p][0]] += pairCrossings[p].length / 2;
+		long[][] keys = new long[polys.length][];
+		for (int j = 0; j < polys.length; j++)
+			keys[j] = new long[counts[j]];
+		Arrays.fill(counts, 0);
+		for (int p = 0; p < pairs.length; p++) {
+			int j = pairs[p][0];
+			long c = pairs[p][1] + 1;
+			int[] cr = pairCrossings[p];
+			for (int h = 0; h < cr.length; h += 2)
+				keys[j][counts[j]++] = ((long) cr[h] << 42) | (c << 21) | cr[h + 1];
+		}
+		int[][] result = new int[polys.length][];
+		for (int j = 0; j < polys.length; j++) {
+			long[] k = keys[j];
+			Arrays.sort(k);
+			int[] r = new int[k.length * 3];
+			for (int h = 0; h < k.length; h++) {
+				r[h * 3] = (int) (k[h] >>> 42);
+				r[h * 3 + 1] = (int) ((k[h] >>> 21) & MAX_INDEX) - 1;
+				r[h * 3 + 2] = (int) (k[h] & MAX_INDEX);
+			}
+			result[j] = r;
+		}
+		return result;
+	}
+
+	private static boolean overlap(Rectangle a, Rectangle b) {
+		return a.x <= b.x + b.width && b.x <= a.x + a.width
+				&& a.y <= b.y + b.height && b.y <= a.y + a.height;
+	}
+
+	/**
+	 * Returns the pairs (i, k) of the crossing edges of pl and cc, sorted by i
+	 * and then by k.
+	 */
+	private static int[] crossings(Polygon pl, Polygon cc, boolean self) {
+		int[] out = new int[16];
+		int size = 0;
+		double[] intp = new double[2];
+		int n = pl.npoints, m = cc.npoints;
+		for (int i = 0; i < n; i++) {
+			int x1 = pl.xpoints[i], y1 = pl.ypoints[i];
+			int x2 = pl.xpoints[(i + 1) % n], y2 = pl.ypoints[(i + 1) % n];
+			int minX = Math.min(x1, x2), maxX = Math.max(x1, x2);
+			int minY = Math.min(y1, y2), maxY = Math.max(y1, y2);
+			for (int k = 0; k < m; k++) {
+				if (self && (i == k || (i + 1) % n == k || (i - 1 + n) % n == k))
+					continue;
+				int x3 = cc.xpoints[k], y3 = cc.ypoints[k];
+				int x4 = cc.xpoints[(k + 1) % m], y4 = cc.ypoints[(k + 1) % m];
+				// edges with disjoint bounds cannot intersect
+				if (Math.max(x3, x4) < minX || Math.min(x3, x4) > maxX
+						|| Math.max(y3, y4) < minY || Math.min(y3, y4) > maxY)
+					continue;
+				if (GeomUtils.getIntersection(x1, y1, x2, y2, x3, y3, x4, y4, intp)) {
+					if (size == out.length)
+						out = Arrays.copyOf(out, size * 2);
+					out[size++] = i;
+					out[size++] = k;
+				}
+			}
+		}
+		return Arrays.copyOf(out, size);
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.geom.Point2D;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+/**
+ * Uniform grid of labelled points. The search of the points near a position
+ * visits only the cells around it, so it takes O(1) expected time when the
+ * search distance is comparable with the cell size. Like a
+ * {@link java.util.LinkedHashMap} the points keep their insertion order,
+ * which is used to break the ties.
+ *
+ * @author Mattia De Rosa
+ */
+class PointGrid<V> {
+	private static class GridPoint<V> extends AbstractMap.SimpleImmutableEntry<Integer, V> {
+		private static final long serialVersionUID = 2924186245347052873L;
+		final double x, y;
+		final long cell, order;
+
+		GridPoint(Integer key, V value, double x, double y, long cell, long order) {
+			super(key, value);
+			this.x = x;
+			this.y = y;
+			this.cell = cell;
+			this.order = order;
+		}
+	}
+
+	private final double cellSize;
+	private final HashMap<Long, ArrayList<GridPoint<V>>> cells = new HashMap<Long, ArrayList<GridPoint<V>>>();
+	private final HashMap<Integer, GridPoint<V>> points = new HashMap<Integer, GridPoint<V>>();
+	private long nextOrder = 0;
+
+	PointGrid(double cellSize) {
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * Adds a point. If the key is already present the point is replaced, but
+	 * it keeps its original insertion order.
+	 */
+	void put(Integer key, double x, double y, V value) {
+		GridPoint<V> old = remove(key);
+		long cell = cell(cellIndex(x), cellIndex(y));
+		GridPoint<V> gp = new GridPoint<V>(key, value, x, y, cell,
+				old == null ? nextOrder++ : old.order);
+		ArrayList<GridPoint<V>> list = cells.get(cell);
+		if (list == null) {
+			list = new ArrayList<GridPoint<V>>(2);
+			cells.put(cell, list);
+		}
+		list.add(gp);
+		points.put(key, gp);
+	}
+
+	private GridPoint<V> remove(Integer key) {
+		GridPoint<V> gp = points.remove(key);
+		if (gp != null) {
+			ArrayList<GridPoint<V>> list = cells.get(gp.cell);
+			list.remove(gp);
+			if (list.isEmpty())
+				cells.remove(gp.cell);
+		}
+		return gp;
+	}
+
+	/**
+	 * Removes the point with the given key.
+	 *
+	 * @return the value of the removed point, or null if there was no point
+	 *         with the given key
+	 */
+	V removeKey(Integer key) {
+		GridPoint<V> gp = remove(key);
+		return gp == null ? null : gp.getValue();
+	}
+
+	void clear() {
+		cells.clear();
+		points.clear();
+		nextOrder = 0;
+	}
+
+	boolean isEmpty() {
+		return points.isEmpty();
+	}
+
+	/**
+	 * Returns the nearest point whose distance from (x, y) is less than
+	 * maxDist. Among points at the same distance the first inserted is
+	 * returned.
+	 */
+	Entry<Integer, V> nearest(double x, double y, double maxDist) {
+		return search(x, y, maxDist, true);
+	}
+
+	/**
+	 * Returns the first inserted point whose distance from (x, y) is less
+	 * than maxDist.
+	 */
+	Entry<Integer, V> first(double x, double y, double maxDist) {
+		return search(x, y, maxDist, false);
+	}
+
+	private Entry<Integer, V> search(double x, double y, double maxDist,
+			boolean nearest) {
+		GridPoint<V> best = null;
+		double maxDistSq = maxDist * maxDist;
+		double bestDist = maxDistSq;
+		long r = (long) Math.ceil(maxDist / cellSize);
+		long ix = cellIndex(x), iy = cellIndex(y);
+		for (long cx = ix - r; cx <= ix + r; cx++) {
+			for (long cy = iy - r; cy <= iy + r; cy++) {
+				ArrayList<GridPoint<V>> list = cells.get(cell(cx, cy));
+				if (list == null)
+					continue;
+				for (GridPoint<V> gp : list) {
+					double dist = Point2D.distanceSq(x, y, gp.x, gp.y);
+					if (nearest ? dist < bestDist
+							|| (best != null && dist == bestDist && gp.order < best.order)
+							: dist < maxDistSq && (best == null || gp.order < best.order)) {
+						best = gp;
+						bestDist = dist;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	private long cellIndex(double v) {
+		return (long) Math.floor(v / cellSize);
+	}
+
+	private static long cell(long cx, long cy) {
+		return (cx << 32) ^ (cy & 0xffffffffL);
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+
+/**
+ * Horizontal slab decomposition of a polygon for the point in polygon test.
+ * The bounding box is divided in slabs of equal height and every slab lists
+ * the non horizontal edges that cross it, so a query tests only the edges of
+ * one slab. The edges are tested as {@link Polygon#contains(double, double)}
+ * does, so the result is exactly the same. The index is a snapshot of the
+ * polygon points: it must be rebuilt if they change.
+ *
+ * @author Mattia De Rosa
+ */
+class SlabIndex {
+	private final int[] xpoints, ypoints;
+	final int npoints;
+	private final int minX, minY, maxX, maxY;
+	private final int slabHeight;
+	// edges of the slab s: slabEdges[slabStart[s]] ... slabEdges[slabStart[s + 1] - 1]
+	// (the edge i goes from the point i - 1 to the point i)
+	private final int[] slabStart, slabEdges;
+
+	SlabIndex(Polygon poly) {
+		this.npoints = poly.npoints;
+		this.xpoints = poly.xpoints.clone();
+		this.ypoints = poly.ypoints.clone();
+		int x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+		for (int i = 0; i < npoints; i++) {
+			x0 = Math.min(x0, xpoints[i]);
+			x1 = Math.max(x1, xpoints[i]);
+			y0 = Math.min(y0, ypoints[i]);
+			y1 = Math.max(y1, ypoints[i]);
+		}
+		this.minX = x0;
+		this.minY = y0;
+		this.maxX = x1;
+		this.maxY = y1;
+		// about one slab per point
+		long height = (long) y1 - y0;
+		this.slabHeight = (int) Math.max(1, (height + npoints - 1) / Math.max(1, npoints));
+		int slabs = (int) Math.max(1, (height + slabHeight - 1) / slabHeight);
+		this.slabStart = new int[slabs + 1];
+		// count the edges of every slab, then fill them
+		for (int i = 0, last = npoints - 1; i < npoints; last = i, i++) {
+			if (ypoints[last] != ypoints[i]) {
+				for (int s = firstSlab(last, i), end = lastSlab(last, i); s <= end; s++)
+					slabStart[s + 1]++;
+			}
+		}
+		for (int s = 0; s < slabs; s++)
+			slabStart[s + 1] += slabStart[s];
+		this.slabEdges = new int[slabStart[slabs]];
+		int[] next = slabStart.clone();
+		for (int i = 0, last = npoints - 1; i < npoints; last = i, i++) {
+			if (ypoints[last] != ypoints[i]) {
+				for (int s = firstSlab(last, i), end = lastSlab(last, i); s <= end; s++)
+					slabEdges[next[s]++] = i;
+			}
+		}
+	}
+
+	// the edge (a, b) matches the y in [min(ya, yb), max(ya, yb))
+	private int firstSlab(int a, int b) {
+		return slab(Math.min(ypoints[a], ypoints[b]));
+	}
+
+	private int lastSlab(int a, int b) {
+		return slab(Math.max(ypoints[a], ypoints[b]) - 1);
+	}
+
+	private int slab(int y) {
+		return (int) (((long) y - minY) / slabHeight);
+	}
+
+	/**
+	 * Returns true if the point is inside the polygon, like
+	 * {@link Polygon#contains(double, double)}.
+	 */
+	boolean contains(double x, double y) {
+		if (npoints <= 2 || !(x >= minX && y >= minY && x < maxX && y < maxY))
+			return false;
+		int s = Math.min((int) ((y - minY) / slabHeight), slabStart.length - 2);
+		int hits = 0;
+		for (int e = slabStart[s], end = slabStart[s + 1]; e < end; e++) {
+			int i = slabEdges[e];
+			int last = i == 0 ? npoints - 1 : i - 1;
+			int curx = xpoints[i], cury = ypoints[i];
+			int lastx = xpoints[last], lasty = ypoints[last];
+			int leftx;
+			if (curx < lastx) {
+				if (x >= lastx)
+					continue;
+				leftx = curx;
+			} else {
+				if (x >= curx)
+					continue;
+				leftx = lastx;
+			}
+			double test1, test2;
+			if (cury < lasty) {
+				if (y < cury || y >= lasty)
+					continue;
+				if (x < leftx) {
+					hits++;
+					continue;
+				}
+				test1 = x - curx;
+				test2 = y - cury;
+			} else {
+				if (y < lasty || y >= cury)
+					continue;
+				if (x < leftx) {
+					hits++;
+					continue;
+				}
+				test1 = x - lastx;
+				test2 = y - lasty;
+			}
+			if (test1 < (test2 / (lasty - cury) * (lastx - curx)))
+				hits++;
+		}
+		return (hits & 1) != 0;
+	}
+}
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Bentley-Ottmann sweep line that finds the crossing edges of a set of
+ * polygons in O((n + k) log n). All the predicates are evaluated with exact
+ * integer arithmetic, so the reported edge pairs are exactly the ones for
+ * which {@link GeomUtils#getIntersection} returns a point (non parallel edges
+ * that touch or cross). The coordinates of the intersection points are kept
+ * as longs, which bounds the coordinates range to {@link #MAX_RANGE}; the
+ * products that do not fit in a long are compared exactly with
+ * {@link #compareProducts(long, long, long, long)}.
+ *
+ * @author Mattia De Rosa
+ */
+class SweepLineIntersector {
+	/**
+	 * Maximum coordinates range for which the intersection points fit in
+	 * longs: with a range r the denominators are below 2r^2 and the
+	 * numerators below r * 2r^2 = 2^61.
+	 */
+	static final int MAX_RANGE = 1 << 20;
+	private static final int MAX_INDEX = (1 << 21) - 1;
+
+	private static class Edge {
+		final int ax, ay, bx, by, curve, index, id;
+		final boolean probe;
+
+		Edge(int ax, int ay, int bx, int by, int curve, int index, int id) {
+			// a is the lexicographically (x, y) smaller end point
+			if (ax > bx || (ax == bx && ay > by)) {
+				this.ax = bx;
+				this.ay = by;
+				this.bx = ax;
+				this.by = ay;
+			} else {
+				this.ax = ax;
+				this.ay = ay;
+				this.bx = bx;
+				this.by = by;
+			}
+			this.curve = curve;
+			this.index = index;
+			this.id = id;
+			this.probe = false;
+		}
+
+		Edge(boolean low) {
+			this.ax = this.ay = this.bx = this.by = this.curve = this.index = 0;
+			this.id = low ? -1 : Integer.MAX_VALUE;
+			this.probe = true;
+		}
+	}
+
+	/**
+	 * Point with rational coordinates (x / d, y / d), d > 0.
+	 */
+	private static class Pt {
+		final long x, y, d;
+
+		Pt(long x, long y, long d) {
+			this.x = x;
+			this.y = y;
+			this.d = d;
+		}
+	}
+
+	private static final Comparator<Pt> PT_ORDER = new Comparator<Pt>() {
+		@Override
+		public int compare(Pt p, Pt q) {
+			int c = compareRational(p.x, p.d, q.x, q.d);
+			return c != 0 ? c : compareRational(p.y, p.d, q.y, q.d);
+		}
+	};
+
+	private final TreeMap<Pt, List<Edge>> events = new TreeMap<Pt, List<Edge>>(PT_ORDER);
+	private final TreeSet<Edge> status;
+	private final Edge lowProbe = new Edge(true), highProbe = new Edge(false);
+	private final int first;
+	private final List<long[]> found;
+	private final int[] counts;
+	private Pt event;
+	private boolean after;
+
+	private SweepLineIntersector(int nPolys, int first) {
+		this.first = first;
+		this.found = new ArrayList<long[]>(nPolys - first);
+		for (int i = first; i < nPolys; i++)
+			this.found.add(new long[16]);
+		this.counts = new int[nPolys - first];
+		this.status = new TreeSet<Edge>(new Comparator<Edge>() {
+			@Override
+			public int compare(Edge a, Edge b) {
+				return compareEdges(a, b);
+			}
+		});
+	}
+
+	/**
+	 * Finds the crossing edges of the polygons <code>polys[first..]</code>
+	 * with themselves and with the preceding polygons. For each polygon
+	 * <code>polys[j]</code> (<code>j >= first</code>) the result contains an
+	 * array of triples <code>(i, c, k)</code>: edge <code>i</code> of
+	 * <code>polys[j]</code> crosses edge <code>k</code> of
+	 * <code>polys[c]</code> (<code>c &lt; j</code>), or edge <code>k</code>
+	 * of itself if <code>c == -1</code> (both the ordered pairs are reported,
+	 * adjacent edges are excluded). The triples are sorted by
+	 * <code>i</code>, then by <code>c</code> and then by <code>k</code>,
+	 * that is the order in which {@link EulerCode} examines the edge pairs.
+	 *
+	 * @param polys
+	 *            the polygons (edge i goes from point i to point i + 1)
+	 * @param first
+	 *            index of the first polygon whose crossings are requested
+	 * @return the crossings of each requested polygon, or null if the
+	 *         coordinates range is wider than {@link #MAX_RANGE} (or a
+	 *         polygon has more than 2^21 - 1 points)
+	 */
+	static int[][] findCrossings(Polygon[] polys, int first) {
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+		long maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+		for (Polygon p : polys) {
+			if (p.npoints > MAX_INDEX)
+				return null;
+			for (int i = 0; i < p.npoints; i++) {
+				minX = Math.min(minX, p.xpoints[i]);
+				minY = Math.min(minY, p.ypoints[i]);
+				maxX = Math.max(maxX, p.xpoints[i]);
+				maxY = Math.max(maxY, p.ypoints[i]);
+			}
+		}
+		if (maxX - minX > MAX_RANGE || maxY - minY > MAX_RANGE)
+			return null;
+
+		SweepLineIntersector sl = new SweepLineIntersector(polys.length, first);
+		int id = 0;
+		for (int c = 0; c < polys.length; c++) {
+			Polygon p = polys[c];
+			for (int i = 0; i < p.npoints; i++) {
+				int j = (i + 1) % p.npoints;
+				int x0 = p.xpoints[i] - minX, y0 = p.ypoints[i] - minY;
+				int x1 = p.xpoints[j] - minX, y1 = p.ypoints[j] - minY;
+				if (x0 != x1 || y0 != y1)
+					sl.addEdge(new Edge(x0, y0, x1, y1, c, i, id++));
+			}
+		}
+		sl.sweep(polys);
+
+		int[][] crossings = new int[polys.length - first][];
+		for (int j = 0; j < crossings.length; j++) {
+			long[] keys = Arrays.copyOf(sl.found.get(j), sl.counts[j]);
+			Arrays.sort(keys);
+			int[] cr = new int[keys.length * 3];
+			for (int h = 0; h < keys.length; h++) {
+				cr[h * 3] = (int) (keys[h] >>> 42);
+				cr[h * 3 + 1] = (int) ((keys[h] >>> 21) & MAX_INDEX) - 1;
+				cr[h * 3 + 2] = (int) (keys[h] & MAX_INDEX);
+			}
+			crossings[j] = cr;
+		}
+		return crossings;
+	}
+
+	private void addEdge(Edge e) {
+		Pt a = new Pt(e.ax, e.ay, 1);
+		List<Edge> upper = events.get(a);
+		if (upper == null) {
+			upper = new ArrayList<Edge>(2);
+			events.put(a, upper);
+		}
+		upper.add(e);
+		Pt b = new Pt(e.bx, e.by, 1);
+		if (!events.containsKey(b))
+			events.put(b, new ArrayList<Edge>(2));
+	}
+
+	private void sweep(Polygon[] polys) {
+		ArrayList<Edge> through = new ArrayList<Edge>();
+		for (Entry<Pt, List<Edge>> ev = events.pollFirstEntry(); ev != null; ev = events
+				.pollFirstEntry()) {
+			event = ev.getKey();
+			List<Edge> upper = ev.getValue();
+			// edges that end at or contain the event point (contiguous in the
+			// status, ordered as just before the event point)
+			after = false;
+			through.clear();
+			for (Edge e = status.ceiling(lowProbe); e != null
+					&& orientation(e, event) == 0; e = status.higher(e))
+				through.add(e);
+			int nLower = through.size();
+			through.addAll(upper);
+			for (int i = 0; i < through.size(); i++) {
+				Edge e1 = through.get(i);
+				for (int j = i + 1; j < through.size(); j++)
+					report(e1, through.get(j), polys);
+			}
+
+			for (int i = 0; i < nLower; i++)
+				status.remove(through.get(i));
+			// reinsert the edges that continue after the event point (ordered
+			// as just after the event point)
+			after = true;
+			Edge lowest = null, highest = null;
+			for (Edge e : through) {
+				if (!isEnd(e, event)) {
+					status.add(e);
+					if (lowest == null || compareEdges(e, lowest) < 0)
+						lowest = e;
+					if (highest == null || compareEdges(e, highest) > 0)
+						highest = e;
+				}
+			}
+			if (lowest == null) {
+				Edge below = status.lower(lowProbe);
+				Edge above = status.higher(highProbe);
+				if (below != null && above != null)
+					findEvent(below, above);
+			} else {
+				Edge below = status.lower(lowest);
+				if (below != null)
+					findEvent(below, lowest);
+				Edge above = status.higher(highest);
+				if (above != null)
+					findEvent(highest, above);
+			}
+		}
+	}
+
+	private void report(Edge e1, Edge e2, Polygon[] polys) {
+		if (e1.curve < first && e2.curve < first)
+			return;
+		// parallel edges have no intersection point
+		if ((long) (e1.bx - e1.ax) * (e2.by - e2.ay) == (long) (e1.by - e1.ay)
+				* (e2.bx - e2.ax))
+			return;
+		if (e1.curve == e2.curve) {
+			int n = polys[e1.curve].npoints;
+			int d = Math.abs(e1.index - e2.index);
+			if (d <= 1 || d == n - 1)
+				return;
+			add(e1.curve, e1.index, -1, e2.index);
+			add(e1.curve, e2.index, -1, e1.index);
+		} else if (e1.curve > e2.curve) {
+			add(e1.curve, e1.index, e2.curve, e2.index);
+		} else {
+			add(e2.curve, e2.index, e1.curve, e1.index);
+		}
+	}
+
+	private void add(int curve, int i, int c, int k) {
+		int j = curve - first;
+		long[] keys = found.get(j);
+		if (counts[j] == keys.length) {
+			keys = Arrays.copyOf(keys, keys.length * 2);
+			found.set(j, keys);
+		}
+		keys[counts[j]++] = ((long) i << 42) | ((long) (c + 1) << 21) | k;
+	}
+
+	private void findEvent(Edge e1, Edge e2) {
+		long rx = e1.bx - e1.ax, ry = e1.by - e1.ay;
+		long sx = e2.bx - e2.ax, sy = e2.by - e2.ay;
+		long den = rx * sy - ry * sx;
+		if (den == 0)
+			return;
+		long qx = e2.ax - e1.ax, qy = e2.ay - e1.ay;
+		long t = qx * sy - qy * sx;
+		long u = qx * ry - qy * rx;
+		if (den < 0) {
+			den = -den;
+			t = -t;
+			u = -u;
+		}
+		if (t < 0 || t > den || u < 0 || u > den)
+			return;
+		Pt p = new Pt(e1.ax * den + t * rx, e1.ay * den + t * ry, den);
+		if (PT_ORDER.compare(p, event) > 0 && !events.containsKey(p))
+			events.put(p, new ArrayList<Edge>(0));
+	}
+
+	/**
+	 * Orders the edges of the status along the sweep line, just before (or
+	 * after) the current event point. At least one of the compared edges
+	 * must pass through the event point (or be a probe).
+	 */
+	private int compareEdges(Edge a, Edge b) {
+		if (a == b)
+			return 0;
+		if (a.probe) {
+			int o = orientation(b, event);
+			return o != 0 ? o : (a == lowProbe ? -1 : 1);
+		}
+		if (b.probe)
+			return -compareEdges(b, a);
+		int oa = orientation(a, event);
+		int ob = orientation(b, event);
+		if (oa == 0 && ob == 0) {
+			int s = compareSlopes(a, b);
+			if (s != 0)
+				return after ? s : -s;
+			return a.id < b.id ? -1 : 1;
+		}
+		if (oa == 0)
+			return ob;
+		if (ob == 0)
+			return -oa;
+		throw new IllegalStateException("SweepLineIntersector: unordered edges.");
+	}
+
+	private static int compareSlopes(Edge a, Edge b) {
+		long adx = a.bx - a.ax, bdx = b.bx - b.ax;
+		if (adx == 0)
+			return bdx == 0 ? 0 : 1;
+		if (bdx == 0)
+			return -1;
+		return Long.signum((a.by - a.ay) * bdx - (b.by - b.ay) * adx);
+	}
+
+	/**
+	 * @return 1 if p is above (on the left of) the edge, -1 if it is below,
+	 *         0 if it is on the edge line
+	 */
+	private static int orientation(Edge e, Pt p) {
+		return compareProducts(e.bx - e.ax, p.y - e.ay * p.d, e.by - e.ay, p.x - e.ax * p.d);
+	}
+
+	private static boolean isEnd(Edge e, Pt p) {
+		return p.x == e.bx * p.d && p.y == e.by * p.d;
+	}
+
+	/**
+	 * Compares n1 / d1 and n2 / d2 (n1, n2 >= 0, d1, d2 > 0) without
+	 * overflow.
+	 */
+	private static int compareRational(long n1, long d1, long n2, long d2) {
+		long q1 = n1 / d1, q2 = n2 / d2;
+		if (q1 != q2)
+			return q1 < q2 ? -1 : 1;
+		return compareProducts(n1 % d1, d2, n2 % d2, d1);
+	}
+
+	/**
+	 * Returns the sign of a * b - c * d, computed exactly also when the
+	 * products do not fit in a long.
+	 */
+	static int compareProducts(long a, long b, long c, long d) {
+		// |a * b| < 2^(128 - nlz(|a|) - nlz(|b|)), so both products are below 2^62
+		if (Long.numberOfLeadingZeros(Math.abs(a)) + Long.numberOfLeadingZeros(Math.abs(b)) >= 66
+				&& Long.numberOfLeadingZeros(Math.abs(c)) + Long.numberOfLeadingZeros(Math.abs(d)) >= 66)
+			return Long.signum(a * b - c * d);
+		return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+				.compareTo(BigInteger.valueOf(c).multiply(BigInteger.valueOf(d)));
+	}
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+
+/**
+ * Locates the curves and the zone of a diagram that contain a point. The
+ * bounding box of the curves is divided in a uniform grid of cells and every
+ * cell lists the curves whose bounding box overlaps it, so a query tests only
+ * the few curves of one cell (each one with a {@link SlabIndex}) and then
+ * finds the zone by its curve mask. The containment is the one of
+ * {@link Polygon#contains(double, double)}. The locator is an immutable copy
+ * of the diagram taken by {@link EulerCode#getZoneLocator()}: it does not see
+ * the later modifications and can be shared by threads.
+ *
+ * @author Mattia De Rosa
+ */
+public class ZoneLocator {
+	private final char[] labels;
+	private final SlabIndex[] indexes;
+	private final Map<BitSet, Zone> zonesByMask;
+	// grid of cells over [minX, minX + cols * cellWidth) x [minY, minY + rows * cellHeight)
+	private final int minX, minY, cellWidth, cellHeight, cols, rows;
+	// curves (indexes of labels) of the cell c: cellCurves[c], in the order of the curves
+	private final int[][] cellCurves;
+
+	ZoneLocator(Map<Character, ? extends Polygon> curves, List<Zone> zones) {
+		int n = curves.size();
+		this.labels = new char[n];
+		this.indexes = new SlabIndex[n];
+		Rectangle[] bounds = new Rectangle[n];
+		Rectangle all = null;
+		int i = 0;
+		for (Entry<Character, ? extends Polygon> e : curves.entrySet()) {
+			labels[i] = e.getKey();
+			indexes[i] = new SlabIndex(e.getValue());
+			bounds[i] = e.getValue().getBounds();
+			all = all == null ? new Rectangle(bounds[i]) : all.union(bounds[i]);
+			i++;
+		}
+		this.zonesByMask = new HashMap<BitSet, Zone>(zones.size() * 2);
+		for (Zone zone : zones)
+			zonesByMask.put(zone.getMask(), zone);
+		if (all == null)
+			all = new Rectangle();
+		// about four cells per curve
+		int side = Math.max(1, (int) Math.ceil(Math.sqrt(4.0 * n)));
+		this.minX = all.x;
+		this.minY = all.y;
+		this.cellWidth = Math.max(1, (all.width + side) / side);
+		this.cellHeight = Math.max(1, (all.height + side) / side);
+		this.cols = all.width / cellWidth + 1;
+		this.rows = all.height / cellHeight + 1;
+		ArrayList<ArrayList<Integer>> cells = new ArrayList<ArrayList<Integer>>(cols * rows);
+		for (int c = 0; c < cols * rows; c++)
+			cells.add(new ArrayList<Integer>(2));
+		for (i = 0; i < n; i++) {
+			Rectangle b = bounds[i];
+			int c0 = (b.x - minX) / cellWidth, c1 = (b.x + b.width - minX) / cellWidth;
+			int r0 = (b.y - minY) / cellHeight, r1 = (b.y + b.height - minY) / cellHeight;
+			for (int r = r0; r <= r1; r++)
+				for (int c = c0; c <= c1; c++)
+					cells.get(r * cols + c).add(i);
+		}
+		this.cellCurves = new int[cells.size()][];
+		for (int c = 0; c < cellCurves.length; c++) {
+			ArrayList<Integer> cell = cells.get(c);
+			cellCurves[c] = new int[cell.size()];
+			for (int k = 0; k < cellCurves[c].length; k++)
+				cellCurves[c][k] = cell.get(k);
+		}
+	}
+
+	// the curves of the cell of (x, y), or null if it is outside the grid
+	private int[] cell(double x, double y) {
+		if (!(x >= minX && y >= minY))
+			return null;
+		double c = (x - minX) / cellWidth, r = (y - minY) / cellHeight;
+		return c < cols && r < rows ? cellCurves[(int) r * cols + (int) c] : null;
+	}
+
+	/**
+	 * Returns the labels of the curves that contain the point, in the order
+	 * of {@link EulerCode#getCurves()} (so the last one is the curve drawn
+	 * on top).
+	 */
+	public List<Character> getCurvesAt(double x, double y) {
+		int[] cell = cell(x, y);
+		if (cell == null)
+			return Collections.emptyList();
+		List<Character> found = new ArrayList<Character>(2);
+		for (int i : cell) {
+			if (indexes[i].contains(x, y))
+				found.add(labels[i]);
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the label of the last curve (in the order of
+	 * {@link EulerCode#getCurves()}) that contains the point, or null if no
+	 * curve contains it.
+	 */
+	public Character getTopCurveAt(double x, double y) {
+		int[] cell = cell(x, y);
+		if (cell != null) {
+			for (int k = cell.length - 1; k >= 0; k--) {
+				if (indexes[cell[k]].contains(x, y))
+					return labels[cell[k]];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the mask (see {@link Zone#getMask()}) of the curves that
+	 * contain the point.
+	 */
+	public BitSet getMaskAt(double x, double y) {
+		BitSet mask = new BitSet();
+		int[] cell = cell(x, y);
+		if (cell != null) {
+			for (int i : cell) {
+				if (indexes[i].contains(x, y))
+					mask.set(CurveMasks.bit(labels[i]));
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the zone that contains the point (the zone with empty label if
+	 * the point is outside every curve), or null if there is no zone with the
+	 * curves that contain the point (e.g. for a point on the border of a
+	 * curve).
+	 */
+	public Zone getZoneAt(double x, double y) {
+		return getZone(getMaskAt(x, y));
+	}
+
+	/**
+	 * Returns the zone with the given mask, or null if there is none.
+	 */
+	public Zone getZone(BitSet mask) {
+		return zonesByMask.get(mask);
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.Arrays;
+
+/**
+ * Mapping between the integer identifiers of the curves (0, 1, 2, ...) and
+ * their char labels. The labels are the letters of the Basic Multilingual
+ * Plane in ascending order ('A' to 'Z', 'a' to 'z', then the other
+ * alphabets), so the first 26 curves have the usual labels and tens of
+ * thousands of curves have distinct labels that are never confused with the
+ * separators of the textual codes.
+ *
+ * @author Mattia De Rosa
+ */
+public final class CurveIds {
+	private static final char[] LABELS;
+	static {
+		char[] labels = new char[Character.MAX_VALUE];
+		int n = 0;
+		for (char c = 'A'; c < Character.MAX_VALUE; c++) {
+			if (Character.isLetter(c) && !Character.isSurrogate(c))
+				labels[n++] = c;
+		}
+		LABELS = Arrays.copyOf(labels, n);
+	}
+
+	/**
+	 * The number of distinct curve labels.
+	 */
+	public static final int MAX_CURVES = LABELS.length;
+
+	/**
+	 * This class is not instantiable.
+	 */
+	private CurveIds() {
+	}
+
+	/**
+	 * Returns the label of the curve with the given identifier.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if id is negative or not less than {@link #MAX_CURVES}
+	 */
+	public static char label(int id) {
+		if (id < 0 || id >= LABELS.length)
+			throw new IllegalArgumentException("Invalid curve id: " + id + ".");
+		return LABELS[id];
+	}
+
+	/**
+	 * Returns the identifier of the curve with the given label, or -1 if the
+	 * label is not one of the labels of {@link #label(int)}.
+	 */
+	public static int id(char label) {
+		// the first 52 labels
+		if (label >= 'A' && label <= 'Z')
+			return label - 'A';
+		if (label >= 'a' && label <= 'z')
+			return label - 'a' + 26;
+		int i = Arrays.binarySearch(LABELS, label);
+		return i < 0 ? -1 : i;
+	}
+
+	/**
+	 * Returns the first label greater than the given char (that need not be
+	 * a label).
+	 *
+	 * @throws IllegalStateException
+	 *             if there is no greater label
+	 */
+	public static char next(char c) {
+		int i = Arrays.binarySearch(LABELS, c);
+		i = i < 0 ? -i - 1 : i + 1;
+		if (i >= LABELS.length)
+			throw new IllegalStateException("No curve label after " + c + ".");
+		return LABELS[i];
+	}
+
+	/**
+	 * Returns the labels of the curves with identifiers 0 to n - 1.
+	 */
+	public static char[] labels(int n) {
+		if (n < 0 || n > LABELS.length)
+			throw new IllegalArgumentException("Invalid number of curves: " + n + ".");
+		return Arrays.copyOf(LABELS, n);
+	}
+}
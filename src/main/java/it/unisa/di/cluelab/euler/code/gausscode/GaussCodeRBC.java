@@ -10,6 +10,7 @@ package it.unisa.di.cluelab.euler.code.gausscode;
 import java.io.Serializable;
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -20,7 +21,10 @@ public class GaussCodeRBC implements Serializable {
 
 	private char[] curveLabels;
 	private Symbol[][] gaussCode;
-	private List<SegmentCode[]> regionBoundaryCode;
+	// computed on first access (see getRegionBoundaryCode), reset only by invalidate
+	private volatile List<SegmentCode[]> regionBoundaryCode;
+	// built from the region boundary code on first access, reset by invalidate
+	private transient volatile RegionGraph regionGraph;
 
 	public GaussCodeRBC(char[] curveLabels, Symbol[][] gaussCode) {
 		if ((curveLabels == null ? -1 : curveLabels.length) != (gaussCode == null ? -1
@@ -86,24 +90,69 @@ public class GaussCodeRBC implements Serializable {
 		return gaussCode;
 	}
 
+	/**
+	 * Creates a GaussCodeRBC with an already computed region boundary code,
+	 * returned by {@link #getRegionBoundaryCode()} without checking it.
+	 */
 	protected GaussCodeRBC(char[] curveLabels, Symbol[][] gaussCode,
 			List<SegmentCode[]> regionBoundaryCode) {
 		this(curveLabels, gaussCode);
-		this.regionBoundaryCode = regionBoundaryCode;
+		this.regionBoundaryCode = regionBoundaryCode == null ? null
+				: Collections.unmodifiableList(regionBoundaryCode);
 	}
 
+	/**
+	 * Returns the region boundary code, computed (and checked) on first
+	 * access and then shared by all the callers (also by different threads)
+	 * until {@link #invalidate()} is called. The returned list is
+	 * unmodifiable.
+	 *
+	 * @throws IllegalStateException
+	 *             if the Gauss code is incorrect or non-planar
+	 */
 	public List<SegmentCode[]> getRegionBoundaryCode() {
 		if (gaussCode == null)
 			return null;
-		if (regionBoundaryCode == null)
-			if (!Misc.checkInput(gaussCode))
-				throw new IllegalStateException(
-						"GaussCodeRBC: incorrect input.");
-		if (!Planarity.CheckPlanarity(gaussCode))
-			throw new IllegalStateException("GaussCodeRBC: non-planar word.");
-		regionBoundaryCode = RegionCode.computeRegionBoundaryCode(gaussCode);
+		List<SegmentCode[]> rbc = regionBoundaryCode;
+		if (rbc == null) {
+			synchronized (this) {
+				rbc = regionBoundaryCode;
+				if (rbc == null) {
+					if (!Misc.checkInput(gaussCode))
+						throw new IllegalStateException(
+								"GaussCodeRBC: incorrect input.");
+					rbc = RegionCode.computeRegionBoundaryCode(gaussCode);
+					if (!Planarity.CheckPlanarity(gaussCode, rbc.size()))
+						throw new IllegalStateException(
+								"GaussCodeRBC: non-planar word.");
+					regionBoundaryCode = rbc = Collections.unmodifiableList(rbc);
+				}
+			}
+		}
+		return rbc;
+	}
 
-		return regionBoundaryCode;
+	/**
+	 * Returns the dual graph of the regions of
+	 * {@link #getRegionBoundaryCode()}, built on first access and then shared
+	 * as the region boundary code.
+	 *
+	 * @throws IllegalStateException
+	 *             if the Gauss code is incorrect or non-planar
+	 */
+	public RegionGraph getRegionGraph() {
+		RegionGraph graph = regionGraph;
+		if (graph == null) {
+			List<SegmentCode[]> rbc = getRegionBoundaryCode();
+			if (rbc == null)
+				return null;
+			synchronized (this) {
+				graph = regionGraph;
+				if (graph == null)
+					regionGraph = graph = new RegionGraph(gaussCode, rbc);
+			}
+		}
+		return graph;
 	}
 
 	public String getGaussCodeString() {
@@ -167,6 +216,7 @@ public class GaussCodeRBC implements Serializable {
 	 */
 	public void invalidate() {
 		regionBoundaryCode = null;
+		regionGraph = null;
 	}
 
 	@Override
@@ -14,8 +14,19 @@ import java.util.*;
 public class Orientation 
 {  
 	   
+	   /**
+	    * @deprecated builds a new RegionGraph of R on every call; build the
+	    *             graph once per R (or use GaussCodeRBC.getRegionGraph())
+	    *             and call computeOrientation(ogp, outerFace, graph).
+	    */
+	   @Deprecated
 	   public static ArrayList<String> computeOrientation(Symbol [][] ogp, SegmentCode [] outerFace, 
 	            ArrayList <SegmentCode []>  R)
+	    {
+	        return computeOrientation(ogp, outerFace, new RegionGraph(R));
+	    }
+	   public static ArrayList<String> computeOrientation(Symbol [][] ogp, SegmentCode [] outerFace, 
+	            RegionGraph graph)
 	    {
 	        ArrayList <String>  CW= new ArrayList <String>();
 	        ArrayList <String>  AC= new ArrayList <String>();
@@ -44,7 +55,7 @@ public class Orientation
 	                    r=SegmentCode.inverse(rgb[j]);
 	                    if(!Misc.isIn(r,M))
 	                    {
-	                        SegmentCode []rgb2=RegionCode.getRegionCode(r,R);
+	                        SegmentCode []rgb2=graph.getRegionCode(r);
 	                        currentRegions2.add(rgb2);
 	                    }
 	                }
@@ -72,8 +83,23 @@ public class Orientation
  	            }
  	        }
  	    }
+ 	   /**
+ 	    * @deprecated builds a new RegionGraph of R on every call; build the
+ 	    *             graph once per R and call the RegionGraph overload.
+ 	    */
+ 	   @Deprecated
  	   public static ArrayList <Node> rank(Node node, ArrayList <SegmentCode>  S, SegmentCode []  outerFace,
  	            ArrayList <SegmentCode []>  R,ArrayList <SegmentCode []>  M,ArrayList <Node> list ) 
+ 	    {
+ 	        return rank(node, S, outerFace, new RegionGraph(R), M, list);
+ 	    }
+ 	   /**
+ 	    * Ranks the regions from the one of the segment of node to the outer
+ 	    * face. To get the clockwise status of all the segments, use
+ 	    * ZonesSet.computeClockwiseSegments, which searches the regions once.
+ 	    */
+ 	   public static ArrayList <Node> rank(Node node, ArrayList <SegmentCode>  S, SegmentCode []  outerFace,
+ 	            RegionGraph graph,ArrayList <SegmentCode []>  M,ArrayList <Node> list ) 
  	    {           
  	        int count=node.count;
  	        SegmentCode s=node.segment;         
@@ -84,7 +110,7 @@ public class Orientation
  	            { 
  	               Node parent= new Node(s,count);
  	               list.add(parent);
- 	                SegmentCode []  r= RegionCode.getRegionCode(s,R);
+ 	                SegmentCode []  r= graph.getRegionCode(s);
  	                M.add(r);               
  	                for(SegmentCode s1: r)
  	                {
@@ -98,7 +124,7 @@ public class Orientation
  	                             child=new Node(s2,count);                             
  	                        }
  	                        list.add(child);
- 	                        rank(child,S,outerFace,R,M,list);
+ 	                        rank(child,S,outerFace,graph,M,list);
  	                    }
  	                }
  	            }
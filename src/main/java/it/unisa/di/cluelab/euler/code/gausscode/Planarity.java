@@ -14,7 +14,14 @@ public class Planarity
 {
     public static Boolean CheckPlanarity(Symbol [][]  word)
     {
-        int faces=RegionCode.computeRegionBoundaryCode(word).size();
+        return CheckPlanarity(word, RegionCode.computeRegionBoundaryCode(word).size());
+    }
+    /**
+     * Same as {@link #CheckPlanarity(Symbol[][])}, with the number of faces
+     * of an already computed region boundary code.
+     */
+    public static Boolean CheckPlanarity(Symbol [][]  word, int faces)
+    {
         int edges = getNoOfPoints(word);
         int vertices =edges/2;
         int Euler_Characteristics=vertices -edges+faces;
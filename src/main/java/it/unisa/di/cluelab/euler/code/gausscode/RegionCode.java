@@ -36,20 +36,64 @@ public class RegionCode
         				
         	}
         }
-        ArrayList <SegmentCode> m= new ArrayList<SegmentCode>();
         ArrayList <SegmentCode> S= computeSegmentsCode(ogp);
-        for(SegmentCode s:S )
+        int n=S.size();
+        // the segments as symbol codes: the segment k goes from[k] -> to[k],
+        // with direction '+' if k is even and '-' if k is odd (see computeSegmentsCode)
+        SymbolTable table= new SymbolTable();
+        int[][] words=table.encode(ogp);
+        int[] from= new int[n], to= new int[n];
+        for(int i=0,k=0;i<words.length;i++)
         {
-            if(!Misc.isIn(s, m))
+            int[] w=words[i];
+            for(int j=0;j<w.length;j++,k+=2)
+            {
+                from[k]=from[k+1]=w[j];
+                to[k]=to[k+1]=w[j==w.length-1 ? 0 : j+1];
+            }
+        }
+        // firstFrom[d][c]: first segment with direction d and first symbol c (the + ones are
+        // those found by getNextSegment), nextFrom[k]: next segment with the same direction and first symbol
+        int codes=2*table.size();
+        int[][] firstFrom= new int[2][codes];
+        Arrays.fill(firstFrom[0], -1);
+        Arrays.fill(firstFrom[1], -1);
+        int[] nextFrom= new int[n];
+        // secondMinus[c]: first - segment with second symbol c (found by getNextSegment)
+        int[] secondMinus= new int[codes];
+        Arrays.fill(secondMinus, -1);
+        // id of each segment: the index of the first segment equal to it (as Misc.isIn compares them)
+        int[] id= new int[n];
+        for(int k=0;k<n;k++)
+        {
+            int d=k&1;
+            nextFrom[k]=-1;
+            id[k]=k;
+            if(firstFrom[d][from[k]]<0) firstFrom[d][from[k]]=k;
+            else
+            {
+                int j=firstFrom[d][from[k]];
+                while(to[j]!=to[k] && nextFrom[j]>=0) j=nextFrom[j];
+                if(to[j]==to[k]) id[k]=id[j];
+                else nextFrom[j]=k;
+            }
+            if(d==1 && secondMinus[to[k]]<0) secondMinus[to[k]]=k;
+        }
+        int[] firstPlus=firstFrom[0];
+        BitSet m= new BitSet(n);
+        for(int i=0;i<n;i++)
+        {
+            if(!m.get(id[i]))
             {
                 ArrayList <SegmentCode> r= new ArrayList<SegmentCode>();
-                r.add(s);m.add(s);
-                SegmentCode s2 =traverse(s,S);
-                while(!Misc.isEqual(s, s2))
+                r.add(S.get(i));m.set(id[i]);
+                int j=next(i,S,from,to,firstPlus,secondMinus);
+                while(from[j]!=from[i] || to[j]!=to[i])
                 {
-                    r.add(s2);
-                    m.add(s2);
-                    s2 =traverse(s2,S);
+                    if(r.size()>n) throw new IllegalArgumentException("Unclosed region.");
+                    r.add(S.get(j));
+                    m.set(id[j]);
+                    j=next(j,S,from,to,firstPlus,secondMinus);
                 }
                 
                 R.add(Misc.toArray(r));
@@ -57,6 +101,26 @@ public class RegionCode
         }
         return R;
     }
+    /**
+     * Same as {@link #traverse(SegmentCode, ArrayList)}, for the segment k of
+     * the symbol codes of computeRegionBoundaryCode.
+     */
+    private static int next(int k, ArrayList <SegmentCode> S, int[] from, int[] to, int[] firstPlus, int[] secondMinus)
+    {
+        int next;
+        if((k&1)==0)
+        {
+            int l=to[k];
+            next= SymbolTable.sign(l)=='+' ? secondMinus[SymbolTable.flip(l)] : firstPlus[SymbolTable.flip(l)];
+        }
+        else
+        {
+            int l=from[k];
+            next= SymbolTable.sign(l)=='+' ? firstPlus[SymbolTable.flip(l)] : secondMinus[SymbolTable.flip(l)];
+        }
+        if(next<0) throw new IllegalArgumentException("No segment after "+S.get(k).getSegmentCode()+".");
+        return next;
+    }
     public static SegmentCode traverse(SegmentCode s,ArrayList <SegmentCode> S)
     {
         SegmentCode s2;
@@ -153,6 +217,15 @@ public class RegionCode
         }
         return region;
     }
+    
+    /**
+     * As getRegionCode(s, ar), with the regions of the graph, without
+     * scanning them.
+     */
+    public static SegmentCode[] getRegionCode(SegmentCode s,RegionGraph graph)
+    {
+        return graph.getRegionCode(s);
+    }
 
 	public static String regionCodeString(SegmentCode[] scs) {
 		if (scs.length == 0)
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Dual graph of the regions of a region boundary code: the region of a
+ * segment, the regions adjacent to a region (the ones on the other side of
+ * its segments) and the curve of a segment, each one found in constant time
+ * instead of scanning the regions. The region of a segment is the first one
+ * that contains it (as {@link RegionCode#getRegionCode(SegmentCode, ArrayList)})
+ * and its curve is the first word with its symbols (as
+ * {@link SegmentCode#identifyCurveLabels(SegmentCode, Symbol[][])}); the
+ * symbols are compared by label and sign. The graph is immutable, so the one
+ * of {@link GaussCodeRBC#getRegionGraph()} is shared by the algorithms and by
+ * threads.
+ *
+ * @author Mattia De Rosa
+ */
+public final class RegionGraph {
+	private final Symbol[][] gaussCode;
+	private final List<SegmentCode[]> regions;
+	private final SymbolTable table = new SymbolTable();
+	private final HashMap<Long, Integer> regionOf = new HashMap<Long, Integer>();
+	private final HashMap<Long, Integer> regionFrom = new HashMap<Long, Integer>();
+	private final HashMap<Long, Integer> curveOf = new HashMap<Long, Integer>();
+	// across[k][i]: the region on the other side of the segment i of the region k, or -1
+	private final int[][] across;
+
+	/**
+	 * Creates the graph of the regions without a Gauss code (so
+	 * {@link #curveOf(SegmentCode)} always returns -1).
+	 */
+	public RegionGraph(List<SegmentCode[]> regions) {
+		this(null, regions);
+	}
+
+	/**
+	 * Creates the graph of the regions of the Gauss code.
+	 *
+	 * @param gaussCode
+	 *            the Gauss code, or null
+	 * @param regions
+	 *            the region boundary code (not copied, it must not be
+	 *            modified later)
+	 */
+	public RegionGraph(Symbol[][] gaussCode, List<SegmentCode[]> regions) {
+		this.gaussCode = gaussCode;
+		this.regions = Collections.unmodifiableList(regions);
+		if (gaussCode != null) {
+			for (int i = 0; i < gaussCode.length; i++) {
+				Symbol[] w = gaussCode[i];
+				for (int j = 0; j < w.length; j++) {
+					Long key = pair(intern(w[j]), intern(w[j == w.length - 1 ? 0 : j + 1]));
+					if (!curveOf.containsKey(key))
+						curveOf.put(key, i);
+				}
+			}
+		}
+		long[][] keys = new long[regions.size()][];
+		for (int k = 0; k < keys.length; k++) {
+			SegmentCode[] r = regions.get(k);
+			keys[k] = new long[r.length];
+			for (int i = 0; i < r.length; i++) {
+				int first = intern(r[i].getFirstSymbol());
+				long dir = direction(r[i].getDirection());
+				long key = keys[k][i] = pair(first, intern(r[i].getSecondSymbol())) << 1 | dir;
+				if (!regionOf.containsKey(key))
+					regionOf.put(key, k);
+				key = (long) first << 1 | dir;
+				if (!regionFrom.containsKey(key))
+					regionFrom.put(key, k);
+			}
+		}
+		this.across = new int[keys.length][];
+		for (int k = 0; k < keys.length; k++) {
+			across[k] = new int[keys[k].length];
+			for (int i = 0; i < keys[k].length; i++)
+				across[k][i] = find(regionOf, keys[k][i] ^ 1);
+		}
+	}
+
+	// the symbols as (label id, sign) ints, any sign other than + and - as the same one
+	private int intern(Symbol s) {
+		return table.intern(s.getLabel()) * 3 + sign(s.getSign());
+	}
+
+	// as intern, or -1 if the label is not in the table (the table is not modified)
+	private int symbol(Symbol s) {
+		int id = table.id(s.getLabel());
+		return id < 0 ? -1 : id * 3 + sign(s.getSign());
+	}
+
+	private static int sign(char sign) {
+		return sign == '+' ? 0 : sign == '-' ? 1 : 2;
+	}
+
+	private static long direction(char direction) {
+		return direction == '+' ? 0 : 1;
+	}
+
+	private static long pair(int p, int q) {
+		return (long) p << 31 | q;
+	}
+
+	private static int find(HashMap<Long, Integer> map, long key) {
+		Integer k = map.get(key);
+		return k == null ? -1 : k;
+	}
+
+	/**
+	 * Returns the Gauss code, or null if the graph has none.
+	 */
+	public Symbol[][] getGaussCode() {
+		return gaussCode;
+	}
+
+	/**
+	 * Returns the regions (unmodifiable).
+	 */
+	public List<SegmentCode[]> getRegions() {
+		return regions;
+	}
+
+	/**
+	 * Returns the number of regions.
+	 */
+	public int size() {
+		return regions.size();
+	}
+
+	/**
+	 * Returns the segments of the region with the given index.
+	 */
+	public SegmentCode[] getRegion(int region) {
+		return regions.get(region);
+	}
+
+	/**
+	 * Returns the index of the region of the segment, or -1 if no region
+	 * contains it.
+	 */
+	public int regionOf(SegmentCode s) {
+		int p = symbol(s.getFirstSymbol()), q = symbol(s.getSecondSymbol());
+		if (p < 0 || q < 0)
+			return -1;
+		return find(regionOf, pair(p, q) << 1 | direction(s.getDirection()));
+	}
+
+	/**
+	 * Returns the region of the segment, or an empty array if no region
+	 * contains it (as {@link RegionCode#getRegionCode(SegmentCode, ArrayList)}).
+	 */
+	public SegmentCode[] getRegionCode(SegmentCode s) {
+		int k = regionOf(s);
+		return k < 0 ? new SegmentCode[0] : regions.get(k);
+	}
+
+	/**
+	 * Returns the index of the first region with a segment that starts with
+	 * the given symbol and has the given direction (whatever its second
+	 * symbol), or -1 if there is none.
+	 */
+	public int regionFrom(Symbol first, char direction) {
+		int p = symbol(first);
+		return p < 0 ? -1 : find(regionFrom, (long) p << 1 | direction(direction));
+	}
+
+	/**
+	 * Returns the index of the curve (the word of the Gauss code) of the
+	 * segment, or -1 if it is not a segment of the Gauss code.
+	 */
+	public int curveOf(SegmentCode s) {
+		int p = symbol(s.getFirstSymbol()), q = symbol(s.getSecondSymbol());
+		return p < 0 || q < 0 ? -1 : find(curveOf, pair(p, q));
+	}
+
+	/**
+	 * Returns the index of the region on the other side of the segment with
+	 * the given index of the region (the region of its
+	 * {@link SegmentCode#inverse(SegmentCode) inverse}), or -1 if there is
+	 * none.
+	 */
+	public int neighbour(int region, int segment) {
+		return across[region][segment];
+	}
+
+	/**
+	 * Returns the indexes of the regions adjacent to the region, each one
+	 * once, in the order of its segments.
+	 */
+	public int[] getNeighbours(int region) {
+		int[] a = across[region];
+		int[] nbs = new int[a.length];
+		BitSet seen = new BitSet(regions.size());
+		int n = 0;
+		for (int nb : a) {
+			if (nb >= 0 && !seen.get(nb)) {
+				seen.set(nb);
+				nbs[n++] = nb;
+			}
+		}
+		return Arrays.copyOf(nbs, n);
+	}
+}
@@ -81,10 +81,7 @@ public class SegmentCode implements Serializable
         return t;
     } public static String identifyCurveLabels(SegmentCode s, Symbol [][] ogp)
     {
-        char [] curveLabels = new char[ogp.length];
-        char ch='A';
-        for(int i=0;i<curveLabels.length;i++)
-        	curveLabels[i]=ch++;
+        char [] curveLabels = CurveIds.labels(ogp.length);
         
     	String t="";
         for(int i=0;i<ogp.length;i++)
@@ -117,10 +114,7 @@ public class SegmentCode implements Serializable
     public static String identifyCurveLabels(SegmentCode s, Symbol [][] ogp,char [] curveLabels)
     {
        if(curveLabels ==null){
-    	   curveLabels= new char[ogp.length];
-        char ch='A';
-        for(int i=0;i<ogp.length;i++)
-        	curveLabels[i]=ch++;}
+    	   curveLabels= CurveIds.labels(ogp.length);}
         
     	String t="";
         for(int i=0;i<ogp.length;i++)
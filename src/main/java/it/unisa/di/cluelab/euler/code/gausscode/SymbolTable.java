@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Interned representation of the symbols of a Gauss code. Every label gets a
+ * dense id (0, 1, 2, ... in order of interning) and a symbol is encoded as
+ * the int <code>id * 2</code> for the sign '+' and <code>id * 2 + 1</code>
+ * for the sign '-', so the opposite symbol is <code>code ^ 1</code> and the
+ * codes index arrays of size <code>2 * size()</code>. The words of a Gauss
+ * code become <code>int[]</code> words ({@link #encode(Symbol[][])}) that the
+ * algorithms compare without strings, and {@link #symbol(int)} returns one
+ * shared (flyweight) Symbol per code. Only the label and the sign are
+ * encoded (the under flag of a {@link USymbol} is not). Not thread-safe.
+ *
+ * @author Mattia De Rosa
+ */
+public final class SymbolTable {
+	private final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+	private final ArrayList<String> labels = new ArrayList<String>();
+	// flyweights by code (null if not yet requested)
+	private Symbol[] symbols = new Symbol[0];
+
+	public SymbolTable() {
+	}
+
+	/**
+	 * Creates a table with the labels of the Gauss code, in order of first
+	 * occurrence.
+	 */
+	public SymbolTable(Symbol[][] gaussCode) {
+		encode(gaussCode);
+	}
+
+	/**
+	 * Returns the number of labels.
+	 */
+	public int size() {
+		return labels.size();
+	}
+
+	/**
+	 * Returns the id of the label, adding it if it is not in the table.
+	 */
+	public int intern(String label) {
+		Integer id = ids.get(label);
+		if (id == null) {
+			if (label == null)
+				throw new NullPointerException("Null label.");
+			id = labels.size();
+			ids.put(label, id);
+			labels.add(label);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the id of the label, or -1 if it is not in the table.
+	 */
+	public int id(String label) {
+		Integer id = ids.get(label);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Returns the label with the given id.
+	 */
+	public String label(int id) {
+		return labels.get(id);
+	}
+
+	/**
+	 * Returns the code of the symbol, interning its label.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the sign is not '+' or '-'
+	 */
+	public int code(Symbol symbol) {
+		return code(intern(symbol.getLabel()), symbol.getSign());
+	}
+
+	/**
+	 * Returns the code of the symbol with the given label id and sign.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the sign is not '+' or '-'
+	 */
+	public static int code(int id, char sign) {
+		if (sign != '+' && sign != '-')
+			throw new IllegalArgumentException("Wrong sign: '" + sign + "'.");
+		return id << 1 | (sign == '-' ? 1 : 0);
+	}
+
+	/**
+	 * Returns the label id of the code.
+	 */
+	public static int id(int code) {
+		return code >>> 1;
+	}
+
+	/**
+	 * Returns the sign of the code.
+	 */
+	public static char sign(int code) {
+		return (code & 1) == 0 ? '+' : '-';
+	}
+
+	/**
+	 * Returns the code of the symbol with the same label and the opposite
+	 * sign.
+	 */
+	public static int flip(int code) {
+		return code ^ 1;
+	}
+
+	/**
+	 * Returns the shared Symbol of the code.
+	 */
+	public Symbol symbol(int code) {
+		if (code >= symbols.length)
+			symbols = Arrays.copyOf(symbols, Math.max(code + 1, 2 * size()));
+		Symbol s = symbols[code];
+		if (s == null)
+			symbols[code] = s = new Symbol(label(id(code)), sign(code));
+		return s;
+	}
+
+	/**
+	 * Returns the codes of the symbols of the word, interning their labels.
+	 */
+	public int[] encode(Symbol[] word) {
+		int[] codes = new int[word.length];
+		for (int i = 0; i < word.length; i++)
+			codes[i] = code(word[i]);
+		return codes;
+	}
+
+	/**
+	 * Returns the codes of the words of the Gauss code, interning their
+	 * labels.
+	 */
+	public int[][] encode(Symbol[][] gaussCode) {
+		int[][] codes = new int[gaussCode.length][];
+		for (int i = 0; i < gaussCode.length; i++)
+			codes[i] = encode(gaussCode[i]);
+		return codes;
+	}
+
+	/**
+	 * Returns the shared Symbols of the codes.
+	 */
+	public Symbol[] decode(int[] word) {
+		Symbol[] syms = new Symbol[word.length];
+		for (int i = 0; i < word.length; i++)
+			syms[i] = symbol(word[i]);
+		return syms;
+	}
+}
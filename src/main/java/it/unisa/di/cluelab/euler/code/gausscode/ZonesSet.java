@@ -44,50 +44,22 @@ public class ZonesSet
     }
 	 public static List <List <List <String>>> computeZonesSet(Symbol[][] ogp, Collection <SegmentCode[]> rbc, SegmentCode [] r)
 	    {
-	        ArrayList <SegmentCode[]> R = rbc instanceof ArrayList ? (ArrayList <SegmentCode[]>) rbc : new ArrayList<SegmentCode[]>(rbc);
-	        ArrayList <List <List <String>>> zones = new ArrayList <List <List <String>>>();
-	        ArrayList <SegmentCode>  CW= new ArrayList<SegmentCode>();
-	        ArrayList <SegmentCode []>  M= new ArrayList<>();
-	        for(int i=0;i<ogp.length;i++)
-	        {
-	            Symbol [] w =ogp[i];
-				ArrayList <SegmentCode> S = computeSegmentsCode(w);         
-				for(SegmentCode s:S)
-				{
-					 M= new ArrayList<>();
-					Node node= new Node(s,0);
-					ArrayList <Node> list= new ArrayList <Node>();
-					Orientation.rank(node,S,r,R,M,list);
-					int count =0;
-					for(Node n:list)
-					{
-						if(Orientation.isIn(n.segment,r)) 
-						{
-							count=n.count;
-							break;
-						}
-					}
-					 if(count%2==0) CW.add(s);                    
-				}
-			} 
-			for(int i=0;i<R.size();i++)
-	        {
-	            ArrayList <String> X =new ArrayList <String>();
-	            ArrayList <String> Y =new ArrayList <String>();
-	              M= new ArrayList <SegmentCode []>();
-	            ArrayList <SegmentCode []>  rgb= new ArrayList <SegmentCode []>();
-	            rgb.add(R.get(i));
-	            breadthFirstSearch(ogp,rgb,R,M,X,Y,CW,null);
-	           zones.add(Arrays.asList((List<String>)X, (List<String>)Y));
-	        }
-	        return zones;
+	        return computeZonesSet(ogp, CurveIds.labels(ogp.length), computeContainment(ogp, rbc, r));
 	    }
 	 public static List <List <List <String>>> computeZonesSet(Symbol[][] ogp, Collection <SegmentCode[]> rbc, SegmentCode [] r, char [] curveLabels)
 	    {
-	        ArrayList <SegmentCode[]> R = rbc instanceof ArrayList ? (ArrayList <SegmentCode[]>) rbc : new ArrayList<SegmentCode[]>(rbc);
+	        if(ogp==null) return null;
+	        return computeZonesSet(new RegionGraph(ogp, rbc instanceof List ? (List <SegmentCode[]>) rbc : new ArrayList<SegmentCode[]>(rbc)), r, curveLabels);
+	    }
+	 /**
+	  * As computeZonesSet(ogp, rbc, r, curveLabels), with the Gauss code and
+	  * the regions of the graph (e.g. the shared one of
+	  * GaussCodeRBC.getRegionGraph()).
+	  */
+	 public static List <List <List <String>>> computeZonesSet(RegionGraph graph, SegmentCode [] r, char [] curveLabels)
+	    {
+	        Symbol[][] ogp = graph.getGaussCode();
 	        ArrayList <List <List <String>>> zones = new ArrayList <List <List <String>>>();
-	        ArrayList <SegmentCode>  CW= new ArrayList<SegmentCode>();
-	        ArrayList <SegmentCode []>  M= new ArrayList<>();
 	        if(ogp==null) return null;
 	        if(ogp.length==1)
 	        {
@@ -104,109 +76,129 @@ public class ZonesSet
 	        		 return zones;
 	        	}
 	        }
-	        for(int i=0;i<ogp.length;i++)
+	        if(curveLabels==null) curveLabels= CurveIds.labels(ogp.length);
+	        return computeZonesSet(ogp, curveLabels, computeContainment(graph, r));
+	    }
+ public static  Map <List<String>, List<List<String>>> computeTreeZoneSet(Symbol[][] ogp, Collection <SegmentCode[]> rbc, SegmentCode [] r)
+	    {
+	        RegionGraph graph = new RegionGraph(ogp, rbc instanceof List ? (List <SegmentCode[]>) rbc : new ArrayList<SegmentCode[]>(rbc));
+	        Map <List<String>, List<List<String>>> dualGraph = new HashMap<List<String>, List<List<String>>>();
+	        List <List <List <String>>> zones = computeZonesSet(ogp, CurveIds.labels(ogp.length), computeContainment(graph, r));
+	        for(int i=0;i<graph.size();i++)
 	        {
-	            Symbol [] w =ogp[i];
-				ArrayList <SegmentCode> S = computeSegmentsCode(w);         
-				for(SegmentCode s:S)
-				{
-					 M= new ArrayList<>();
-					Node node= new Node(s,0);
-					ArrayList <Node> list= new ArrayList <Node>();
-					Orientation.rank(node,S,r,R,M,list);
-					int count =0;
-					for(Node n:list)
-					{
-						if(Orientation.isIn(n.segment,r)) 
-						{
-							count=n.count;
-							break;
-						}
-					}
-					 if(count%2==0) CW.add(s);                    
-				}
-			} 
-			for(int i=0;i<R.size();i++)
+	            // the zones of the adjacent regions, each region once
+	            List <List<String>>  value= new ArrayList <List<String>>();
+	            for(int nb : graph.getNeighbours(i))
+	                value.add(new ArrayList<String>(zones.get(nb).get(0)));
+	            dualGraph.put(zones.get(i).get(0), value);
+	        }
+	        return dualGraph;
+	    }
+	 
+	    /**
+	     * Returns the zones (the labels of the containing curves and of the
+	     * other curves, in the order of the words) of the regions, from the
+	     * containment computed by computeContainment.
+	     */
+	    private static List <List <List <String>>> computeZonesSet(Symbol[][] ogp, char [] curveLabels, BitSet[] inside)
+	    {
+	        ArrayList <List <List <String>>> zones = new ArrayList <List <List <String>>>(inside.length);
+	        for(BitSet in : inside)
 	        {
 	            ArrayList <String> X =new ArrayList <String>();
 	            ArrayList <String> Y =new ArrayList <String>();
-	              M= new ArrayList <SegmentCode []>();
-	            ArrayList <SegmentCode []>  rgb= new ArrayList <SegmentCode []>();
-	            rgb.add(R.get(i));
-	            breadthFirstSearch(ogp,rgb,R,M,X,Y,CW,curveLabels);
-	           zones.add(Arrays.asList((List<String>)X, (List<String>)Y));
+	            for(int c=0;c<ogp.length;c++)
+	            {
+	                if(in.get(c)) X.add(""+curveLabels[c]);
+	                else Y.add(""+curveLabels[c]);
+	            }
+	            zones.add(Arrays.asList((List<String>)X, (List<String>)Y));
 	        }
 	        return zones;
 	    }
-	 public static  Map <List<String>, List<List<String>>> computeTreeZoneSet(Symbol[][] ogp, Collection <SegmentCode[]> rbc, SegmentCode [] r)
+	 
+	    /**
+	     * Returns, for each region of R, the curves (indexes of the words of ogp)
+	     * that contain it. The containment is computed with a single breadth
+	     * first search of the region dual graph from the outer face r: going
+	     * through a segment to the adjacent region toggles the containment of the
+	     * curve of the segment. The regions not reachable from r are contained
+	     * by no curve.
+	     */
+	    static BitSet[] computeContainment(Symbol[][] ogp, Collection <SegmentCode[]> R, SegmentCode [] r)
 	    {
-	        ArrayList <SegmentCode[]> R = rbc instanceof ArrayList ? (ArrayList <SegmentCode[]>) rbc : new ArrayList<SegmentCode[]>(rbc);
-	        //ArrayList <List <List <String>>> zones = new ArrayList <List <List <String>>>();
-	        Map <List<String>, List<List<String>>> dualGraph = new HashMap<List<String>, List<List<String>>>();
-	        ArrayList <SegmentCode>  CW= new ArrayList<SegmentCode>();
-	        ArrayList <SegmentCode []>  M= new ArrayList<>();
-	        for(int i=0;i<ogp.length;i++)
+	        return computeContainment(new RegionGraph(ogp, R instanceof List ? (List <SegmentCode[]>) R : new ArrayList<SegmentCode[]>(R)), r);
+	    }
+	    static BitSet[] computeContainment(RegionGraph graph, SegmentCode [] r)
+	    {
+	        int curves = graph.getGaussCode().length;
+	        BitSet[] inside = new BitSet[graph.size()];
+	        ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+	        for(SegmentCode s : r)
 	        {
-	            Symbol [] w =ogp[i];
-				ArrayList <SegmentCode> S = computeSegmentsCode(w);         
-				for(SegmentCode s:S)
-				{
-					 M= new ArrayList<>();
-					Node node= new Node(s,0);
-					ArrayList <Node> list= new ArrayList <Node>();
-					Orientation.rank(node,S,r,R,M,list);
-					int count =0;
-					for(Node n:list)
-					{
-						if(Orientation.isIn(n.segment,r)) 
-						{
-							count=n.count;
-							break;
-						}
-					}
-					 if(count%2==0) CW.add(s);                    
-				}
-			} 
-			for(int i=0;i<R.size();i++)
+	            int k = graph.regionOf(s);
+	            if(k>=0 && inside[k]==null)
+	            {
+	                inside[k] = new BitSet(curves);
+	                queue.add(k);
+	            }
+	        }
+	        while(!queue.isEmpty())
 	        {
-	            ArrayList <String> X =new ArrayList <String>();
-	            ArrayList <String> Y =new ArrayList <String>();
-	              M= new ArrayList <SegmentCode []>();
-	            ArrayList <SegmentCode []>  rgb= new ArrayList <SegmentCode []>();
-	            rgb.add(R.get(i));
-	            breadthFirstSearch(ogp,rgb,R,M,X,Y,CW,null);
-	            List <SegmentCode[]>  cr= new ArrayList <SegmentCode[]>();
-	            List <List<String>>  value= new ArrayList <List<String>>();
-	            for(int j=0; j<R.get(i).length;j++)
-                {
-	            	
-	            	SegmentCode sr=SegmentCode.inverse(R.get(i)[j]);
-                    if(!belongsTo(sr,cr))
-                    {
-                    	ArrayList <String>X2 =new ArrayList <String>();
-        	            ArrayList <String> Y2 =new ArrayList <String>();
-        	            ArrayList <SegmentCode []>   M2= new ArrayList <SegmentCode []>();
-                        ArrayList<SegmentCode []>rgb2= new ArrayList < SegmentCode []>();
-                        SegmentCode[] currentRegion=RegionCode.getRegionCode(sr,R);
-                        rgb2.add(currentRegion);
-                        cr.add(currentRegion);
-                        breadthFirstSearch(ogp,rgb2,R,M2,X2,Y2,CW,null);
-                        value.add(new ArrayList<String>(X2));
-                    }
-                }
-	            dualGraph.put(X, value);
+	            int q = queue.poll();
+	            SegmentCode [] rgb = graph.getRegion(q);
+	            for(int i=0;i<rgb.length;i++)
+	            {
+	                int nb = graph.neighbour(q, i);
+	                if(nb>=0 && inside[nb]==null)
+	                {
+	                    inside[nb] = (BitSet) inside[q].clone();
+	                    int c = graph.curveOf(rgb[i]);
+	                    if(c>=0) inside[nb].flip(c);
+	                    queue.add(nb);
+	                }
+	            }
 	        }
-	        return dualGraph;
+	        for(int k=0;k<inside.length;k++)
+	            if(inside[k]==null) inside[k] = new BitSet(0);
+	        return inside;
 	    }
-	    private static boolean belongsTo(SegmentCode s, List<SegmentCode[]> list) {
-	    	for(SegmentCode [] r:list)
-	    		for(SegmentCode t: r)
-	    			if(s.getSegmentCode().equals(t.getSegmentCode())) return true;
-	    		
-		return false;
-	}
+	    /**
+	     * Returns the segments (of computeSegmentsCode(w) for each word w, in
+	     * this order) that are clockwise with respect to the outer face r: the
+	     * ones whose region is not contained by their curve. The status of
+	     * every segment is read from the containment of the single breadth
+	     * first search of computeContainment, instead of a rank search per
+	     * segment (Orientation.rank).
+	     */
+	    public static ArrayList <SegmentCode> computeClockwiseSegments(RegionGraph graph, SegmentCode [] r)
+	    {
+	        Symbol[][] ogp = graph.getGaussCode();
+	        BitSet[] inside = computeContainment(graph, r);
+	        ArrayList <SegmentCode> CW = new ArrayList<SegmentCode>();
+	        for(int i=0;i<ogp.length;i++)
+	        {
+	            for(SegmentCode s : computeSegmentsCode(ogp[i]))
+	            {
+	                int k = graph.regionOf(s);
+	                if(k<0 || !inside[k].get(i)) CW.add(s);
+	            }
+	        }
+	        return CW;
+	    }
+		/**
+		 * @deprecated builds a new RegionGraph of R on every call; build the
+		 *             graph once per R (or use GaussCodeRBC.getRegionGraph())
+		 *             and call the RegionGraph overload.
+		 */
+		@Deprecated
 		public static void breadthFirstSearch(Symbol[][] ogp, ArrayList <SegmentCode []> currentRegions, ArrayList <SegmentCode []>  R, ArrayList <SegmentCode []>  M,
 	        ArrayList <String>  X, ArrayList <String>  Y, ArrayList <SegmentCode>  CW,char[] curveLabels)
+	        {
+	            breadthFirstSearch(ogp, currentRegions, new RegionGraph(R), M, X, Y, CW, curveLabels);
+	        }
+		public static void breadthFirstSearch(Symbol[][] ogp, ArrayList <SegmentCode []> currentRegions, RegionGraph graph, ArrayList <SegmentCode []>  M,
+	        ArrayList <String>  X, ArrayList <String>  Y, ArrayList <SegmentCode>  CW,char[] curveLabels)
 	        {
 	            while(X.size()+Y.size()<ogp.length)
 	            {
@@ -230,7 +222,7 @@ public class ZonesSet
 	                        r=SegmentCode.inverse(rgb[j]);
 	                        if(!Misc.isIn(r,M))
 	                        {
-	                            SegmentCode []rgb2=RegionCode.getRegionCode(r,R);
+	                            SegmentCode []rgb2=graph.getRegionCode(r);
 	                            currentRegions2.add(rgb2);		
 	                        }
 	                    }
@@ -7,13 +7,13 @@
  ******************************************************************************/
 package it.unisa.di.cluelab.euler.code.zoneGeneration;
 
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
 import it.unisa.di.cluelab.euler.code.gausscode.EulerCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.GaussCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.SegmentCode;
 import it.unisa.di.cluelab.euler.code.gausscode.Symbol;
 import it.unisa.di.cluelab.euler.code.gausscode.ZonesSet;
 
-import java.text.Normalizer;
 import java.util.AbstractMap;
 import java.util.Collections;
 import java.util.HashMap;
@@ -159,6 +159,13 @@ public class DisconnectedEDs {
 	public static Map<Set<Set<String>>, Set<String>> renameDuplicateCurves(
 			Map<Set<Entry<Set<String>, Integer>>, Entry<Set<String>, Integer>> disconnectedEDZones) {
 		HashSet<String> usedLabels = new HashSet<String>();
+		// the labels of all the components, not to be taken by a rename
+		HashSet<String> allLabels = new HashSet<String>();
+		for (Set<Entry<Set<String>, Integer>> comp : disconnectedEDZones
+				.keySet())
+			for (Entry<Set<String>, Integer> zone : comp)
+				allLabels.addAll(zone.getKey());
+		int nextId = 0;
 		HashMap<Entry<Set<String>, Integer>, Set<String>> renMap = new HashMap<Entry<Set<String>, Integer>, Set<String>>();
 		renMap.put(new AbstractMap.SimpleEntry<Set<String>, Integer>(
 				Collections.<String> emptySet(), 0), Collections
@@ -175,15 +182,14 @@ public class DisconnectedEDs {
 
 			HashMap<String, String> trMap = new HashMap<String, String>();
 			for (String c : intersect) {
-				String first = String.valueOf(c.charAt(0));
 				String oth = c.substring(1);
-				char diacriticalMark = '\u0307';
 				String newC;
 				do {
-					newC = Normalizer.normalize(first + diacriticalMark++,
-							Normalizer.Form.NFC).charAt(0)
-							+ oth;
-				} while (usedLabels.contains(newC));
+					if (nextId == CurveIds.MAX_CURVES)
+						throw new IllegalStateException("No label left for "
+								+ c + ".");
+					newC = CurveIds.label(nextId++) + oth;
+				} while (usedLabels.contains(newC) || allLabels.contains(newC));
 				trMap.put(c, newC);
 				usedLabels.add(newC);
 			}
@@ -246,7 +252,7 @@ public class DisconnectedEDs {
 				List<SegmentCode[]> rbc = gaussCodeRBCs[i]
 						.getRegionBoundaryCode();
 				List<List<List<String>>> zones = ZonesSet.computeZonesSet(
-						gaussCodeRBCs[i].getGaussCode(), rbc, outers[i],
+						gaussCodeRBCs[i].getRegionGraph(), outers[i],
 						gaussCodeRBCs[i].getCurveLabels());
 				for (int j = 0; j < rbc.size(); j++) {
 					zoneMapping.put(new HashSet<String>(zones.get(j).get(0)),
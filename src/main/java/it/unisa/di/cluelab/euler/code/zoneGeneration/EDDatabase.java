@@ -7,6 +7,7 @@
  ******************************************************************************/
 package it.unisa.di.cluelab.euler.code.zoneGeneration;
 
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
 import it.unisa.di.cluelab.euler.code.gausscode.GaussCodeRBC;
 import it.unisa.di.cluelab.euler.code.gausscode.RegionCode;
 
@@ -187,6 +188,8 @@ public class EDDatabase {
 		// ensure that each zone is a comparable treeset
 		Set<Set<String>> edzones = rename(inZones, orCurves, orCurves);
 
+		// the canonical labels are the keys of the stored diagrams, so they
+		// stay 'A' + i (not the CurveIds labels of the sketches)
 		List<String> cnCurves = new ArrayList<String>(orCurves.size());
 		for (char c = 'A', end = (char) ('A' + orCurves.size()); c < end; c++)
 			cnCurves.add(String.valueOf(c));
@@ -260,8 +263,10 @@ public class EDDatabase {
 			String cl = fmap.get(ol);
 			if (cl == null) {
 				cl = ol;
-				while (map.containsValue(cl))
-					cl = String.valueOf(nc++);
+				while (map.containsValue(cl)) {
+					cl = String.valueOf(nc);
+					nc = CurveIds.next(nc);
+				}
 				fmap.put(ol, cl);
 			}
 			crLbls[i] = cl.charAt(0);
@@ -7,6 +7,7 @@
  */
 package it.unisa.di.cluelab.euler.code.zoneGeneration;
 import it.unisa.di.cluelab.euler.code.EulerCode;
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -68,9 +69,8 @@ public class ZonesInputDialog extends JPanel {
 
 		int n=(int) Math.pow(2,numberOfCuves);
 		Set<Character> curveLabels = new HashSet<Character>();
-		char ch='A';
-		for(int i=0;i<numberOfCuves;i++)
-			curveLabels.add(ch++);
+		for(char ch : CurveIds.labels(numberOfCuves))
+			curveLabels.add(ch);
 		final List<Set<Character>> zoneSet=powerSet(curveLabels);
 		zoneSet.remove(new HashSet<Character>());
 		//System.out.println(zoneSet +"\n Size"+n);
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+import it.unisa.di.cluelab.euler.code.gausscode.CurveIds;
+
+import java.awt.Polygon;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class CurveMasksTest {
+    @Test
+    public void testBits() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, CurveMasks.bit(CurveIds.label(i)));
+            assertEquals(CurveIds.label(i), CurveMasks.label(i));
+        }
+        // a char that is not a curve label still has its own bit
+        int b = CurveMasks.bit('1');
+        assertTrue(b >= CurveIds.MAX_CURVES);
+        assertEquals('1', CurveMasks.label(b));
+    }
+
+    @Test
+    public void testMasks() {
+        String labels = "Bz" + CurveIds.label(59) + "A" + CurveIds.label(52);
+        BitSet mask = CurveMasks.of(labels);
+        BitSet expected = new BitSet();
+        for (int i : new int[] { 0, 1, 51, 52, 59 })
+            expected.set(i);
+        assertEquals(expected, mask);
+        assertEquals("ABz" + CurveIds.label(52) + CurveIds.label(59), CurveMasks.toLabel(mask));
+        assertEquals(mask, CurveMasks.of(Arrays.asList('z', CurveIds.label(52), 'B', CurveIds.label(59), 'A')));
+        assertEquals(Arrays.asList('A', 'B', 'z', CurveIds.label(52), CurveIds.label(59)),
+                Arrays.asList(CurveMasks.asSet(mask).toArray()));
+        assertTrue(CurveMasks.asSet(mask).contains(CurveIds.label(59)));
+        assertFalse(CurveMasks.asSet(mask).contains('C'));
+        assertNull(CurveMasks.of("ABA"));
+        assertNull(CurveMasks.of(Arrays.asList('A', 'A')));
+        assertEquals("", CurveMasks.toLabel(new BitSet()));
+        // labels without identifier are sorted
+        assertEquals("1AB", CurveMasks.toLabel(CurveMasks.of("B1A")));
+    }
+
+    @Test
+    public void testMoreThan52Curves() {
+        EulerCode ec = new EulerCode();
+        // 30 pairs of overlapping quadrilaterals
+        for (int i = 0; i < 60; i++) {
+            int x = (i / 2 % 8) * 150 + (i % 2) * 30 + 3, y = (i / 16) * 150 + (i % 2) * 20 + 7;
+            ec.addCurve(new Polygon(new int[] { x, x + 61, x + 59, x + 1 }, new int[] { y, y + 2, y + 53, y + 51 }, 4));
+        }
+        assertEquals(new String(CurveIds.labels(60)), CurveMasks.toLabel(CurveMasks.of(ec.getCurves().keySet())));
+        List<Zone> zones = ec.getZones();
+        assertEquals(91, zones.size());
+        for (Zone z : zones) {
+            assertEquals(CurveMasks.of(z.label), z.getMask());
+            for (int i = 0; i < 60; i++)
+                assertEquals(z.label.indexOf(CurveIds.label(i)) >= 0, z.containsCurve(CurveIds.label(i)));
+        }
+        Zone last = zones.get(zones.size() - 1);
+        assertEquals(String.valueOf(CurveIds.label(59)), last.label);
+        BitSet bit59 = new BitSet();
+        bit59.set(59);
+        assertEquals(bit59, last.getMask());
+        String[] lines = ec.getEulerCode(true, false).split("\n");
+        assertEquals(CurveIds.label(59) + ": 59+ 60- 59+", lines[lines.length - 1]);
+    }
+}
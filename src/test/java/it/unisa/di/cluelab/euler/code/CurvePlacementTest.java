@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class CurvePlacementTest {
+    // a rectangle on a 10 pixel grid: the sides of the curves are often on the same lines
+    private static Polygon rectangle(Random r) {
+        int x = r.nextInt(20) * 10, y = r.nextInt(20) * 10, w = 20 + r.nextInt(10) * 10, h = 20 + r.nextInt(10) * 10;
+        return new Polygon(new int[] { x, x + w, x + w, x }, new int[] { y, y, y + h, y + h }, 4);
+    }
+
+    // some rectangles and (in added[0]) the one to add, one time out of two with a side on the line of a
+    // side of the last one
+    private static EulerCode.Snapshot diagram(Random r, Polygon[] added) {
+        EulerCode ec = new EulerCode();
+        Polygon last = null;
+        for (int i = 0, n = 2 + r.nextInt(3); i < n; i++) {
+            Polygon p = rectangle(r);
+            try {
+                ec.addCurve(p);
+                last = p;
+            } catch (RuntimeException e) {
+                // a curve through an incident point is not added
+            }
+        }
+        Polygon curve = rectangle(r);
+        if (last != null && r.nextBoolean())
+            curve.translate(last.xpoints[1] - curve.xpoints[0], 0);
+        added[0] = curve;
+        return ec.snapshot();
+    }
+
+    private static Polygon translated(Polygon p, int[] offset) {
+        Polygon t = new Polygon(p.xpoints, p.ypoints, p.npoints);
+        t.translate(offset[0], offset[1]);
+        return t;
+    }
+
+    // the validity of each offset, each on a new copy of the diagram
+    private static boolean[] valid(EulerCode.Snapshot base, Polygon curve) {
+        boolean[] valid = new boolean[CurvePlacement.OFFSETS.length];
+        for (int i = 0; i < valid.length; i++) {
+            try {
+                EulerCode ec = base.newEulerCode(true);
+                ec.addCurve(translated(curve, CurvePlacement.OFFSETS[i]));
+                valid[i] = CurvePlacement.isValid(ec);
+            } catch (RuntimeException e) {
+                valid[i] = false;
+            }
+        }
+        return valid;
+    }
+
+    // the lowest valid offset (the no offset excluded)
+    private static int expected(boolean[] valid) {
+        for (int i = 1; i < valid.length; i++)
+            if (valid[i])
+                return i;
+        return valid.length;
+    }
+
+    private static int index(int[] offset) {
+        return offset == null ? CurvePlacement.OFFSETS.length : Arrays.asList(CurvePlacement.OFFSETS).indexOf(offset);
+    }
+
+    @Test
+    public void testOffsetsAsSequentialTranslations() {
+        // the in-place translations of the removed search of EulerSketchInputPanel
+        Polygon p = new Polygon(new int[] { 0, 10, 0 }, new int[] { 0, 0, 10 }, 3);
+        List<int[]> offsets = new ArrayList<int[]>();
+        offsets.add(new int[] { 0, 0 });
+        for (int i = 1; i <= 9; i++) {
+            if (i != 9) {
+                p.translate((i + 1) % 3 == 0 ? -2 : 1, i % 3 == 0 ? i - 4 : 0);
+                offsets.add(new int[] { p.xpoints[0], p.ypoints[0] });
+            }
+        }
+        assertEquals(offsets.size(), CurvePlacement.OFFSETS.length);
+        for (int i = 0; i < offsets.size(); i++)
+            assertArrayEquals("offset " + i, offsets.get(i), CurvePlacement.OFFSETS[i]);
+    }
+
+    @Test
+    public void testFindOffsetAsSequentialSearch() {
+        int placed = 0, rejected = 0, notFirst = 0;
+        for (int seed = 0; seed < 150; seed++) {
+            Random r = new Random(seed);
+            Polygon[] added = new Polygon[1];
+            EulerCode.Snapshot base = diagram(r, added);
+            Polygon curve = added[0];
+            int expected = expected(valid(base, curve));
+            int[] xs = Arrays.copyOf(curve.xpoints, curve.npoints), ys = Arrays.copyOf(curve.ypoints, curve.npoints);
+            String msg = "seed " + seed;
+            for (int workers = 1; workers < CurvePlacement.OFFSETS.length; workers++)
+                assertEquals(msg + " workers " + workers, expected,
+                        index(CurvePlacement.findOffset(base, true, curve, workers)));
+            assertEquals(msg, expected, index(CurvePlacement.findOffset(base, true, curve)));
+            // the curve is not changed
+            assertArrayEquals(msg, xs, Arrays.copyOf(curve.xpoints, curve.npoints));
+            assertArrayEquals(msg, ys, Arrays.copyOf(curve.ypoints, curve.npoints));
+            if (expected == CurvePlacement.OFFSETS.length)
+                rejected++;
+            else {
+                placed++;
+                if (expected > 1)
+                    notFirst++;
+            }
+        }
+        assertTrue(placed > 40);
+        assertTrue(rejected > 20);
+        assertTrue(notFirst > 8);
+    }
+
+    // a worker that runs another one after its first valid offset, before it updates found
+    private static CurvePlacement.Worker interleaved(EulerCode.Snapshot base, Polygon curve, int first, int step,
+            AtomicInteger found, final CurvePlacement.Worker other) {
+        return new CurvePlacement.Worker(base, true, curve, first, step, found) {
+            private static final long serialVersionUID = 1L;
+            private boolean ran = false;
+
+            @Override
+            boolean test(int i) {
+                boolean valid = super.test(i);
+                if (valid && !ran) {
+                    ran = true;
+                    other.invoke();
+                }
+                return valid;
+            }
+        };
+    }
+
+    @Test
+    public void testLowestOffsetWinsInAnyOrder() {
+        int cases = 0;
+        for (int seed = 0; seed < 150 && cases < 30; seed++) {
+            Random r = new Random(seed);
+            Polygon[] added = new Polygon[1];
+            EulerCode.Snapshot base = diagram(r, added);
+            Polygon curve = added[0];
+            boolean[] valid = valid(base, curve);
+            int expected = expected(valid);
+            // only the diagrams with more valid offsets, so that a worker can find one after another
+            int count = 0;
+            for (int i = 1; i < valid.length; i++)
+                if (valid[i])
+                    count++;
+            if (count < 2 || count == valid.length - 1)
+                continue;
+            cases++;
+            for (int workers = 2; workers < CurvePlacement.OFFSETS.length; workers++) {
+                // the worker y runs between the test of the first valid offset of x and its update of
+                // found, then the others in a random order
+                for (int x = 0; x < workers; x++) {
+                    for (int y = 0; y < workers; y++) {
+                        if (x == y)
+                            continue;
+                        AtomicInteger found = new AtomicInteger(CurvePlacement.OFFSETS.length);
+                        CurvePlacement.Worker other = new CurvePlacement.Worker(base, true, curve, 1 + y, workers,
+                                found);
+                        interleaved(base, curve, 1 + x, workers, found, other).invoke();
+                        if (!other.isDone())
+                            other.invoke();
+                        List<Integer> order = new ArrayList<Integer>();
+                        for (int w = 0; w < workers; w++)
+                            if (w != x && w != y)
+                                order.add(w);
+                        Collections.shuffle(order, r);
+                        for (int w : order)
+                            new CurvePlacement.Worker(base, true, curve, 1 + w, workers, found).invoke();
+                        assertEquals("seed " + seed + " workers " + workers + " " + x + " " + y + " " + order,
+                                expected, found.get());
+                    }
+                }
+            }
+        }
+        assertEquals(30, cases);
+    }
+
+    @Test
+    public void testFindOffsetNull() {
+        // two curves with a common side: the diagram is wrong wherever the new curve is
+        EulerCode ec = new EulerCode();
+        ec.addCurve(new Polygon(new int[] { 0, 100, 100, 0 }, new int[] { 0, 0, 100, 100 }, 4));
+        ec.addCurve(new Polygon(new int[] { 100, 200, 200, 100 }, new int[] { 20, 20, 80, 80 }, 4));
+        assertFalse(CurvePlacement.isValid(ec));
+        Polygon curve = new Polygon(new int[] { 300, 400, 400, 300 }, new int[] { 300, 300, 400, 400 }, 4);
+        EulerCode.Snapshot base = ec.snapshot();
+        for (int workers = 1; workers < CurvePlacement.OFFSETS.length; workers++) {
+            assertNull(CurvePlacement.findOffset(base, true, curve, workers));
+            assertNull(CurvePlacement.findOffset(base, false, curve, workers));
+        }
+        assertNull(CurvePlacement.findOffset(base, true, curve));
+        // the same curve on an empty diagram is placed with the first offset
+        assertSame(CurvePlacement.OFFSETS[1], CurvePlacement.findOffset(new EulerCode().snapshot(), true, curve, 1));
+    }
+}
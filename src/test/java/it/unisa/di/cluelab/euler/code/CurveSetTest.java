@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPoint;
+
+import java.awt.Polygon;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class CurveSetTest {
+    private static void assertSameSet(String msg, LinkedHashSet<Character> expected, CurveSet actual) {
+        // the same elements in the same order
+        assertEquals(msg, new ArrayList<Character>(expected), new ArrayList<Character>(actual));
+        assertEquals(msg, expected.size(), actual.size());
+        assertEquals(msg, expected.isEmpty(), actual.isEmpty());
+        assertEquals(msg, expected, actual);
+        assertEquals(msg, actual, expected);
+        assertEquals(msg, expected.hashCode(), actual.hashCode());
+        assertArrayEquals(msg, expected.toArray(), actual.toArray());
+    }
+
+    @Test
+    public void testAsLinkedHashSet() {
+        Random r = new Random(2);
+        for (int t = 0; t < 200; t++) {
+            LinkedHashSet<Character> expected = new LinkedHashSet<Character>();
+            CurveSet actual = new CurveSet();
+            // few labels, so that the set grows and shrinks
+            int labels = 1 + r.nextInt(12);
+            for (int k = 0; k < 200; k++) {
+                Character c = (char) ('A' + r.nextInt(labels));
+                String msg = "test " + t + " op " + k + " " + c;
+                switch (r.nextInt(8)) {
+                case 0:
+                case 1:
+                case 2:
+                    assertEquals(msg, expected.add(c), actual.add(c));
+                    break;
+                case 3:
+                case 4:
+                    assertEquals(msg, expected.remove(c), actual.remove(c));
+                    break;
+                case 5:
+                    // removal while iterating
+                    for (Iterator<Character> it = actual.iterator(), eit = expected.iterator(); it.hasNext();) {
+                        Character n = it.next();
+                        assertEquals(msg, eit.next(), n);
+                        if (n.equals(c)) {
+                            it.remove();
+                            eit.remove();
+                        }
+                    }
+                    break;
+                case 6:
+                    if (r.nextInt(10) == 0) {
+                        expected.clear();
+                        actual.clear();
+                    }
+                    break;
+                default:
+                    assertEquals(msg, expected.containsAll(Arrays.asList('A', c)),
+                            actual.containsAll(Arrays.asList('A', c)));
+                    break;
+                }
+                assertEquals(msg, expected.contains(c), actual.contains(c));
+                assertFalse(msg, actual.contains("A"));
+                assertFalse(msg, actual.contains(null));
+                assertFalse(msg, actual.remove("A"));
+                assertSameSet(msg, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testGrowAndShrink() throws Exception {
+        CurveSet s = new CurveSet();
+        LinkedHashSet<Character> expected = new LinkedHashSet<Character>();
+        for (char c = 'A'; c <= 'Z'; c++) {
+            assertTrue(s.add(c));
+            assertFalse(s.add(c));
+            expected.add(c);
+            assertSameSet("add " + c, expected, s);
+        }
+        // from the middle, the ends and back to empty
+        for (char c : "MAZBYNLC".toCharArray()) {
+            assertTrue(s.remove(c));
+            assertFalse(s.remove(c));
+            expected.remove(c);
+            assertSameSet("remove " + c, expected, s);
+        }
+        // a label added again goes at the end
+        assertTrue(s.add('A'));
+        expected.add('A');
+        assertSameSet("add A", expected, s);
+        for (Iterator<Character> it = s.iterator(); it.hasNext();) {
+            it.next();
+            it.remove();
+        }
+        assertTrue(s.isEmpty());
+        assertEquals(0, s.toArray().length);
+        assertFalse(s.remove('A'));
+        assertTrue(s.add('Q'));
+        assertEquals(Arrays.asList('Q'), new ArrayList<Character>(s));
+
+        // serialization
+        s.add('B');
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(s);
+        out.close();
+        Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(Arrays.asList('Q', 'B'), new ArrayList<Character>((CurveSet) copy));
+    }
+
+    @Test
+    public void testIterator() {
+        CurveSet s = new CurveSet();
+        s.add('A');
+        s.add('B');
+        Iterator<Character> it = s.iterator();
+        try {
+            it.remove();
+            fail();
+        } catch (IllegalStateException e) {
+            // before next
+        }
+        assertEquals(Character.valueOf('A'), it.next());
+        it.remove();
+        try {
+            it.remove();
+            fail();
+        } catch (IllegalStateException e) {
+            // twice
+        }
+        assertEquals(Character.valueOf('B'), it.next());
+        try {
+            it.next();
+            fail();
+        } catch (NoSuchElementException e) {
+            // after the last
+        }
+        it = s.iterator();
+        s.add('C');
+        try {
+            it.next();
+            fail();
+        } catch (ConcurrentModificationException e) {
+            // changed after the iterator
+        }
+        it = s.iterator();
+        it.next();
+        s.remove('C');
+        try {
+            it.remove();
+            fail();
+        } catch (ConcurrentModificationException e) {
+            // changed after next
+        }
+        // an unchanged set is not a modification
+        it = s.iterator();
+        s.add('B');
+        s.remove('Z');
+        assertEquals(Character.valueOf('B'), it.next());
+    }
+
+    @Test
+    public void testIncidentCurvesView() {
+        // A and B cross at (100, 50), C passes through the same point
+        Polygon a = new Polygon(new int[] { 0, 200, 200, 0 }, new int[] { 50, 50, 150, 150 }, 4);
+        Polygon b = new Polygon(new int[] { 100, 300, 300, 100 }, new int[] { 0, 0, 100, 100 }, 4);
+        Polygon c = new Polygon(new int[] { 50, 160, 170 }, new int[] { 0, 110, -30 }, 3);
+        EulerCode ec = new EulerCode();
+        ec.addCurve('A', a);
+        ec.addCurve('B', b);
+        IncidentPoint ip = null;
+        for (Entry<Integer, IncidentPoint> e : ec.getIncidentPoints().entrySet())
+            if (e.getValue().distance(100, 50) < 1e-9)
+                ip = e.getValue();
+        assertNotNull(ip);
+        Set<Character> view = ip.getIncidentCurves();
+        assertEquals(Arrays.asList('A', 'B'), new ArrayList<Character>(view));
+        // read-only
+        try {
+            view.add('Z');
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            view.remove('A');
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            view.clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        Iterator<Character> it = view.iterator();
+        it.next();
+        try {
+            it.remove();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(Arrays.asList('A', 'B'), new ArrayList<Character>(view));
+        // live: the point of the triple intersection, then the removals
+        ec.addCurve('C', c);
+        assertNotNull(labelOf(ec, ip));
+        assertEquals(Arrays.asList('A', 'B', 'C'), new ArrayList<Character>(view));
+        ec.removeCurve('C', false);
+        assertEquals(Arrays.asList('A', 'B'), new ArrayList<Character>(view));
+        ec.removeCurve('A', false);
+        assertEquals(Arrays.asList('B'), new ArrayList<Character>(view));
+    }
+
+    private static Integer labelOf(EulerCode ec, IncidentPoint ip) {
+        for (Entry<Integer, IncidentPoint> e : ec.getIncidentPoints().entrySet())
+            if (e.getValue() == ip)
+                return e.getKey();
+        return null;
+    }
+}
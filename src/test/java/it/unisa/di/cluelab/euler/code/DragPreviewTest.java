@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class DragPreviewTest {
+    // a worker that records the previews instead of passing them to a panel
+    private static class Recorder extends DragPreview {
+        final List<EulerCode> previews = new ArrayList<EulerCode>();
+        final List<String> offsets = new ArrayList<String>();
+        boolean onEventDispatchThread = true;
+        private final Polygon original;
+
+        Recorder(EulerCode ec, Character curveLabel) {
+            super(null, ec, curveLabel);
+            Polygon p = ec.getCurves().get(curveLabel);
+            this.original = new Polygon(p.xpoints, p.ypoints, p.npoints);
+        }
+
+        @Override
+        void show(EulerCode preview) {
+            onEventDispatchThread &= SwingUtilities.isEventDispatchThread();
+            previews.add(preview);
+            Polygon p = preview.getCurves().get('A');
+            offsets.add((p.xpoints[0] - original.xpoints[0]) + "," + (p.ypoints[0] - original.ypoints[0]));
+        }
+    }
+
+    private static EulerCode diagram(Random r) {
+        EulerCode ec = new EulerCode();
+        for (int i = 0; i < 4; i++)
+            ec.addCurve(TestDiagrams.blob(r, 60));
+        return ec;
+    }
+
+    /**
+     * Returns the dump of the diagram without the incident point labels
+     * (they depend on the positions previewed before), and its zones.
+     */
+    private static String withoutPointLabels(EulerCode ec) {
+        List<String> points = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        for (String line : TestDiagrams.dump(ec).split("\n")) {
+            if (line.startsWith("point "))
+                points.add(line.replaceFirst("^point -?\\d+ ", ""));
+            else
+                sb.append(line.replaceFirst("^  -?\\d+ ", "  ")).append('\n');
+        }
+        Collections.sort(points);
+        List<String> zones = new ArrayList<String>();
+        for (Zone z : ec.getZones())
+            zones.add(z.label);
+        Collections.sort(zones);
+        return points + "\n" + sb + zones;
+    }
+
+    // waits for the previews already passed to the event dispatch thread
+    private static void flush() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+            }
+        });
+    }
+
+    @Test
+    public void testLastPreviewAsTranslateCurve() throws Exception {
+        for (int seed = 0; seed < 5; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = diagram(r);
+            String before = TestDiagrams.dump(ec);
+            final Recorder dp = new Recorder(ec, 'A');
+            dp.start();
+            // the positions of a fast drag, requested by this thread (not the event dispatch one)
+            Set<String> requested = new HashSet<String>();
+            int dx = 0, dy = 0;
+            for (int k = 0; k < 300; k++) {
+                dx += r.nextInt(7) - 3;
+                dy += r.nextInt(7) - 3;
+                dp.moveTo(dx, dy);
+                requested.add(dx + "," + dy);
+                if (k % 50 == 0)
+                    Thread.sleep(1);
+            }
+            String last = dx + "," + dy;
+            EulerCode expected = ec.snapshot().newEulerCode(true);
+            expected.translateCurve('A', dx, dy);
+            // the last position is shown
+            long end = System.currentTimeMillis() + 30000;
+            do {
+                Thread.sleep(5);
+                flush();
+            } while (!(dp.offsets.size() > 0 && last.equals(dp.offsets.get(dp.offsets.size() - 1)))
+                    && System.currentTimeMillis() < end);
+            String msg = "seed " + seed;
+            assertEquals(msg, last, dp.offsets.get(dp.offsets.size() - 1));
+            assertEquals(msg, withoutPointLabels(expected), withoutPointLabels(dp.previews.get(dp.previews.size() - 1)));
+            assertTrue(msg, dp.onEventDispatchThread);
+            // the positions are coalesced, none is made up
+            assertTrue(msg, dp.offsets.size() <= 300);
+            assertTrue(msg + " " + dp.offsets, requested.containsAll(dp.offsets));
+            // the diagram of the panel is not changed
+            assertEquals(msg, before, TestDiagrams.dump(ec));
+            dp.finish();
+            dp.join(10000);
+            assertFalse(msg, dp.isAlive());
+        }
+    }
+
+    @Test
+    public void testFinish() throws Exception {
+        EulerCode ec = diagram(new Random(1));
+        // without any request
+        Recorder idle = new Recorder(ec, 'A');
+        idle.start();
+        idle.finish();
+        idle.join(10000);
+        assertFalse(idle.isAlive());
+        assertTrue(idle.previews.isEmpty());
+
+        // while a preview waits to be shown
+        final CountDownLatch blocked = new CountDownLatch(1), release = new CountDownLatch(1);
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        Recorder waiting = new Recorder(ec, 'A');
+        waiting.start();
+        waiting.moveTo(5, 5);
+        waiting.moveTo(10, -3);
+        Thread.sleep(200);
+        waiting.finish();
+        waiting.join(10000);
+        boolean alive = waiting.isAlive();
+        release.countDown();
+        assertFalse(alive);
+        flush();
+        assertTrue(waiting.previews.size() <= 1);
+
+        // after the last preview is shown
+        Recorder done = new Recorder(ec, 'A');
+        done.start();
+        done.moveTo(-4, 2);
+        long end = System.currentTimeMillis() + 30000;
+        do {
+            Thread.sleep(5);
+            flush();
+        } while (done.previews.isEmpty() && System.currentTimeMillis() < end);
+        assertEquals("[-4,2]", done.offsets.toString());
+        done.finish();
+        done.join(10000);
+        assertFalse(done.isAlive());
+        // a request after finish is ignored
+        done.moveTo(3, 3);
+        flush();
+        assertEquals(1, done.previews.size());
+    }
+}
@@ -0,0 +1,743 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPoint;
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointRef;
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointsPolygon;
+import it.unisa.di.cluelab.euler.code.EulerCode.Segment;
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+
+import java.awt.Polygon;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class EulerCodeTest {
+    // an edit of a diagram, replayed on a new one
+    private interface Edit {
+        void apply(EulerCode ec);
+    }
+
+    private static Edit add(final Polygon p) {
+        return new Edit() {
+            @Override
+            public void apply(EulerCode ec) {
+                ec.addCurve(p);
+            }
+        };
+    }
+
+    private static Edit remove(final char curve, final boolean redo) {
+        return new Edit() {
+            @Override
+            public void apply(EulerCode ec) {
+                ec.removeCurve(curve, redo);
+            }
+        };
+    }
+
+    private static EulerCode replay(List<Edit> edits) {
+        EulerCode ec = new EulerCode();
+        for (Edit e : edits)
+            e.apply(ec);
+        return ec;
+    }
+
+    @Test
+    public void testGetZonesAfterEditsAsNewDiagram() {
+        int computed = 0;
+        for (int seed = 0; seed < 25; seed++) {
+            Random r = new Random(seed);
+            List<Edit> edits = new ArrayList<Edit>();
+            EulerCode ec = new EulerCode();
+            for (int s = 0; s < 12; s++) {
+                List<Character> labels = new ArrayList<Character>(ec.getCurves().keySet());
+                Edit edit;
+                if (labels.size() > 1 && r.nextInt(3) == 0)
+                    edit = remove(labels.get(r.nextInt(labels.size())), r.nextBoolean());
+                else
+                    edit = add(TestDiagrams.blob(r, 60));
+                edits.add(edit);
+                edit.apply(ec);
+                String zones = TestDiagrams.zones(ec);
+                assertEquals("seed " + seed + " step " + s, TestDiagrams.zones(replay(edits)), zones);
+                // the zones of an unchanged diagram are not computed again
+                if (!zones.startsWith("EXC ")) {
+                    assertSame(ec.getZones(), ec.getZones());
+                    computed++;
+                }
+            }
+        }
+        assertTrue(computed > 200);
+    }
+
+    private static String zoneLabels(EulerCode ec) {
+        try {
+            List<String> labels = new ArrayList<String>();
+            for (Zone z : ec.getZones())
+                labels.add(z.label);
+            return labels.toString();
+        } catch (RuntimeException e) {
+            return "EXC " + e;
+        }
+    }
+
+    // the state that the removal of a curve must leave, as after adding the remaining curves
+    private static void assertConsistent(String msg, EulerCode ec) {
+        Set<Integer> refLabels = new HashSet<Integer>();
+        for (Entry<Character, IncidentPointsPolygon> e : ec.getCurves().entrySet()) {
+            Character curve = e.getKey();
+            IncidentPointsPolygon ipp = e.getValue();
+            for (Character c : ipp.getFirstPointContCurves())
+                assertTrue(msg, ec.getCurves().containsKey(c));
+            for (Entry<IncidentPointRef, Integer> r : ipp.getOrderedIncidentPointRefs()) {
+                int l = r.getValue();
+                refLabels.add(l);
+                IncidentPoint ip = ec.getIncidentPoints().get(l);
+                assertNotNull(msg + " point " + l, ip);
+                assertTrue(msg + " point " + l, ip.getIncidentCurves().contains(curve));
+                // the curves that contain the following segment
+                Point2D slp = r.getKey().getSuggestedLabelPoint();
+                Set<Character> contained = new HashSet<Character>();
+                for (Entry<Character, IncidentPointsPolygon> o : ec.getCurves().entrySet())
+                    if (!o.getKey().equals(curve) && o.getValue().contains(slp.getX(), slp.getY()))
+                        contained.add(o.getKey());
+                assertEquals(msg + " point " + l, contained, r.getKey().getFolContCurves());
+            }
+        }
+        assertEquals(msg, refLabels, ec.getIncidentPoints().keySet());
+        for (Entry<Integer, IncidentPoint> e : ec.getIncidentPoints().entrySet()) {
+            Set<Character> curves = e.getValue().getIncidentCurves();
+            assertTrue(msg + " point " + e.getKey(), ec.getCurves().keySet().containsAll(curves));
+            // a point of a single curve is one of its self intersections
+            if (curves.size() == 1)
+                assertSame(msg + " point " + e.getKey(), e.getValue(), ec.getIncidentPoints().get(-e.getKey()));
+        }
+    }
+
+    @Test
+    public void testRemoveCurveAsNewDiagram() {
+        int computed = 0;
+        for (int seed = 0; seed < 60; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = new EulerCode();
+            for (int i = 0, n = 2 + r.nextInt(5); i < n; i++)
+                ec.addCurve(r.nextInt(3) == 0 ? TestDiagrams.star(r) : TestDiagrams.blob(r, 60));
+            List<Character> labels = new ArrayList<Character>(ec.getCurves().keySet());
+            char removed = labels.get(r.nextInt(labels.size()));
+            EulerCode added = new EulerCode();
+            for (Character c : labels)
+                if (c != removed)
+                    added.addCurve(c, ec.getCurves().get(c));
+            ec.removeCurve(removed, false);
+            String msg = "seed " + seed + " removed " + removed;
+            assertFalse(msg, ec.getCurves().containsKey(removed));
+            assertEquals(msg, added.getCurves().keySet(), ec.getCurves().keySet());
+            assertConsistent(msg, ec);
+            String zones = zoneLabels(added);
+            assertEquals(msg, zones, zoneLabels(ec));
+            if (!zones.startsWith("EXC "))
+                computed++;
+        }
+        assertTrue(computed > 40);
+    }
+
+    @Test
+    public void testRemoveSelfIntersectingCurve() {
+        Random r = new Random(1);
+        Polygon star = TestDiagrams.star(r);
+        Polygon blob = TestDiagrams.blob(r, star.getBounds().x + 20, star.getBounds().y + 20, 80, 40, 0.1);
+        EulerCode ec = new EulerCode();
+        char s = ec.addCurve(star), b = ec.addCurve(blob);
+        assertTrue(ec.getIncidentPoints().size() > 10);
+        ec.removeCurve(s, false);
+        assertConsistent("star removed", ec);
+        assertTrue(ec.getIncidentPoints().isEmpty());
+
+        ec = new EulerCode();
+        s = ec.addCurve(star);
+        b = ec.addCurve(blob);
+        ec.removeCurve(b, false);
+        assertConsistent("blob removed", ec);
+        EulerCode alone = new EulerCode();
+        alone.addCurve(s, star);
+        assertEquals(TestDiagrams.dump(alone), TestDiagrams.dump(ec));
+    }
+
+    private static void addToGroup(Map<String, LinkedList<Integer>> groups, String label, int segment) {
+        LinkedList<Integer> group = groups.get(label);
+        if (group == null) {
+            group = new LinkedList<Integer>();
+            groups.put(label, group);
+        }
+        group.add(segment);
+    }
+
+    // the chains of the zones (as segment indexes) found scanning the remaining segments of each zone
+    private static Map<String, String> linearChains(List<Segment> segs) {
+        Map<String, LinkedList<Integer>> groups = new LinkedHashMap<String, LinkedList<Integer>>();
+        for (int i = 0; i < segs.size(); i++) {
+            addToGroup(groups, segs.get(i).label, i);
+            addToGroup(groups, segs.get(i).contCurves, i);
+        }
+        Map<String, String> res = new TreeMap<String, String>();
+        for (Entry<String, LinkedList<Integer>> e : groups.entrySet()) {
+            String label = e.getKey();
+            LinkedList<Integer> group = e.getValue();
+            List<List<Integer>> outlines = new ArrayList<List<Integer>>();
+            List<List<Integer>> intlines = new ArrayList<List<Integer>>();
+            List<Integer> chain = new ArrayList<Integer>();
+            boolean outline = false;
+            int lastPoint = 0;
+            while (!group.isEmpty()) {
+                if (chain.isEmpty()) {
+                    int first = group.removeFirst();
+                    outline |= segs.get(first).label.equals(label);
+                    chain.add(first);
+                    lastPoint = segs.get(first).p2;
+                } else {
+                    boolean found = false;
+                    for (Iterator<Integer> it = group.iterator(); it.hasNext() && !found;) {
+                        int i = it.next();
+                        Segment seg = segs.get(i);
+                        if (lastPoint == seg.p1 || lastPoint == seg.p2) {
+                            outline |= seg.label.equals(label);
+                            chain.add(i);
+                            lastPoint = lastPoint == seg.p1 ? seg.p2 : seg.p1;
+                            it.remove();
+                            found = true;
+                        }
+                    }
+                    assertTrue(found);
+                }
+                if (lastPoint == segs.get(chain.get(0)).p1) {
+                    (outline ? outlines : intlines).add(chain);
+                    chain = new ArrayList<Integer>();
+                    outline = false;
+                }
+            }
+            assertTrue(chain.isEmpty());
+            res.put(label, outlines + " " + intlines);
+        }
+        return res;
+    }
+
+    @Test
+    public void testComputeZonesAsLinearChaining() {
+        int tested = 0;
+        for (int seed = 0; seed < 30; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = new EulerCode();
+            for (int i = 0, n = 1 + r.nextInt(7); i < n; i++)
+                ec.addCurve(TestDiagrams.blob(r, 60));
+            List<Zone> zones;
+            try {
+                zones = ec.getZones();
+            } catch (RuntimeException e) {
+                continue;
+            }
+            // each segment is in two zones
+            Set<Segment> unique = Collections.newSetFromMap(new IdentityHashMap<Segment, Boolean>());
+            List<Segment> segs = new ArrayList<Segment>();
+            for (Zone z : zones)
+                for (List<List<Segment>> lines : Arrays.asList(z.outlines, z.intlines))
+                    for (List<Segment> l : lines)
+                        for (Segment seg : l)
+                            if (unique.add(seg))
+                                segs.add(new Segment(seg.p1, seg.p2, seg.curve, seg.contCurves));
+            Collections.shuffle(segs, r);
+            Map<Segment, Integer> index = new IdentityHashMap<Segment, Integer>();
+            for (int i = 0; i < segs.size(); i++)
+                index.put(segs.get(i), i);
+            Map<String, String> chains = new TreeMap<String, String>();
+            for (Zone z : EulerCode.computeZones(Collections.singleton(segs))) {
+                List<List<Integer>> outlines = new ArrayList<List<Integer>>();
+                List<List<Integer>> intlines = new ArrayList<List<Integer>>();
+                for (List<Segment> l : z.outlines)
+                    outlines.add(indexes(index, l));
+                for (List<Segment> l : z.intlines)
+                    intlines.add(indexes(index, l));
+                chains.put(z.label, outlines + " " + intlines);
+            }
+            assertEquals("seed " + seed, linearChains(segs), chains);
+            tested++;
+        }
+        assertTrue(tested > 20);
+    }
+
+    private static List<Integer> indexes(Map<Segment, Integer> index, List<Segment> l) {
+        List<Integer> res = new ArrayList<Integer>();
+        for (Segment seg : l)
+            res.add(index.get(seg));
+        return res;
+    }
+
+    // the state of the diagram without the incident point labels and the under flags
+    private static String unlabeled(EulerCode ec) {
+        String[] lines = TestDiagrams.dump(ec).replaceAll("(?m)^(point|  ) ?-?\\d+ ", "$1 ")
+                .replaceAll("(true|false) \\(", "(").split("\n");
+        List<String> points = new ArrayList<String>(), curves = new ArrayList<String>();
+        for (String l : lines)
+            (l.startsWith("point") ? points : curves).add(l);
+        Collections.sort(points);
+        String[] gauss = TestDiagrams.gaussCode(ec).replaceAll("\\d+", "N").split("\n");
+        Arrays.sort(gauss);
+        return points + "\n" + curves + "\n" + Arrays.toString(gauss);
+    }
+
+    // the under flags of the refs of the points of the curve, by point label, ref and edges of the point
+    private static Map<String, Boolean> crossingsUnder(EulerCode ec, char curve) {
+        Map<Integer, String> edges = new HashMap<Integer, String>();
+        for (Entry<IncidentPointRef, Integer> e : ec.getCurves().get(curve).getOrderedIncidentPointRefs())
+            edges.put(Math.abs(e.getValue()), "");
+        for (Entry<Character, IncidentPointsPolygon> c : ec.getCurves().entrySet())
+            for (Entry<IncidentPointRef, Integer> e : c.getValue().getOrderedIncidentPointRefs())
+                if (edges.containsKey(Math.abs(e.getValue())))
+                    edges.put(Math.abs(e.getValue()), edges.get(Math.abs(e.getValue())) + " " + e.getValue() + c.getKey()
+                            + e.getKey().getcRef());
+        Map<String, Boolean> res = new HashMap<String, Boolean>();
+        for (Entry<Character, IncidentPointsPolygon> c : ec.getCurves().entrySet())
+            for (Entry<IncidentPointRef, Integer> e : c.getValue().getOrderedIncidentPointRefs())
+                if (edges.containsKey(Math.abs(e.getValue())))
+                    res.put(e.getValue() + "" + c.getKey() + edges.get(Math.abs(e.getValue())), e.getKey().isUnder());
+        return res;
+    }
+
+    @Test
+    public void testTranslateCurveAsRemoveAndAdd() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = new EulerCode(), ref = new EulerCode();
+            for (int i = 0; i < 5; i++) {
+                Polygon p = TestDiagrams.blob(r, 60);
+                ec.addCurve(p);
+                ref.addCurve(p);
+            }
+            for (int s = 0; s < 8; s++) {
+                List<Character> labels = new ArrayList<Character>(ec.getCurves().keySet());
+                char c = labels.get(r.nextInt(labels.size()));
+                int dx = r.nextInt(5) == 0 ? 0 : r.nextInt(41) - 20, dy = r.nextInt(5) == 0 ? 0 : r.nextInt(41) - 20;
+                for (Entry<IncidentPointRef, Integer> e : ec.getCurves().get(c).getOrderedIncidentPointRefs())
+                    if (r.nextBoolean())
+                        e.getKey().setUnder(!e.getKey().isUnder());
+                Map<String, Boolean> under = crossingsUnder(ec, c);
+                Set<Integer> kept = new HashSet<Integer>(ec.getIncidentPoints().keySet());
+                ec.translateCurve(c, dx, dy);
+                String msg = "seed " + seed + " step " + s + " curve " + c + " by " + dx + "," + dy;
+                Polygon p = ref.removeCurve(c, false);
+                p = new Polygon(p.xpoints, p.ypoints, p.npoints);
+                p.translate(dx, dy);
+                ref.addCurve(c, p);
+                assertEquals(msg, unlabeled(ref), unlabeled(ec));
+                assertEquals(msg, zoneLabels(ref), zoneLabels(ec));
+                // the points of the other curves keep their labels
+                for (Entry<Integer, IncidentPoint> e : ec.getIncidentPoints().entrySet())
+                    if (!e.getValue().getIncidentCurves().contains(c))
+                        assertTrue(msg, kept.contains(e.getKey()));
+                // and the points of the moved curve where the same edges cross their under flags
+                for (Entry<String, Boolean> e : crossingsUnder(ec, c).entrySet())
+                    if (under.containsKey(e.getKey()))
+                        assertEquals(msg + " " + e.getKey(), under.get(e.getKey()), e.getValue());
+            }
+        }
+    }
+
+    // the state of the diagram, for the snapshot tests
+    private static String state(EulerCode ec) {
+        return TestDiagrams.dump(ec) + TestDiagrams.gaussCode(ec) + "\n" + zoneLabels(ec);
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = new EulerCode();
+            for (int i = 0, n = 1 + r.nextInt(6); i < n; i++) {
+                ec.addCurve(TestDiagrams.blob(r, 60));
+                for (IncidentPointsPolygon ipp : ec.getCurves().values())
+                    for (Entry<IncidentPointRef, Integer> e : ipp.getOrderedIncidentPointRefs())
+                        if (r.nextInt(4) == 0)
+                            e.getKey().setUnder(!e.getKey().isUnder());
+            }
+            if (ec.getCurves().size() > 1 && r.nextBoolean())
+                ec.removeCurve(ec.getCurves().keySet().iterator().next(), false);
+            String expected = state(ec);
+            EulerCode.Snapshot snapshot = ec.snapshot();
+            assertSame(ec, snapshot.toEulerCode());
+            assertEquals("seed " + seed, expected, state(snapshot.newEulerCode(true)));
+            ec.addCurve(TestDiagrams.blob(r, 60));
+            EulerCode restored = snapshot.toEulerCode();
+            assertNotSame(ec, restored);
+            assertEquals("seed " + seed, expected, state(restored));
+            assertSame(restored, snapshot.toEulerCode());
+        }
+    }
+
+    @Test
+    public void testSnapshotUndoRedo() {
+        for (int seed = 0; seed < 15; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = new EulerCode();
+            LinkedList<EulerCode.Snapshot> undo = new LinkedList<EulerCode.Snapshot>();
+            LinkedList<String> undoStates = new LinkedList<String>();
+            for (int s = 0; s < 6; s++) {
+                undo.add(ec.snapshot());
+                undoStates.add(state(ec));
+                ec.addCurve(TestDiagrams.blob(r, 60));
+                for (IncidentPointsPolygon ipp : ec.getCurves().values())
+                    for (Entry<IncidentPointRef, Integer> e : ipp.getOrderedIncidentPointRefs())
+                        if (r.nextInt(4) == 0)
+                            e.getKey().setUnder(!e.getKey().isUnder());
+            }
+            LinkedList<EulerCode.Snapshot> redo = new LinkedList<EulerCode.Snapshot>();
+            LinkedList<String> redoStates = new LinkedList<String>();
+            // undo all, redo all and undo all again
+            for (int pass = 0; pass < 3; pass++) {
+                LinkedList<EulerCode.Snapshot> from = pass % 2 == 0 ? undo : redo, to = pass % 2 == 0 ? redo : undo;
+                LinkedList<String> fromStates = pass % 2 == 0 ? undoStates : redoStates;
+                LinkedList<String> toStates = pass % 2 == 0 ? redoStates : undoStates;
+                while (!from.isEmpty()) {
+                    to.add(ec.snapshot());
+                    toStates.add(state(ec));
+                    ec = from.removeLast().toEulerCode();
+                    assertEquals("seed " + seed + " pass " + pass, fromStates.removeLast(), state(ec));
+                }
+            }
+        }
+    }
+
+    // the derived codes and zones of the diagram, computed in an order that depends on first
+    private static String codes(EulerCode ec, int first) {
+        String[] res = new String[5];
+        for (int k = 0; k < res.length; k++) {
+            int w = (k + first) % res.length;
+            try {
+                switch (w) {
+                case 0:
+                    res[w] = ec.getGaussCode(false, false);
+                    break;
+                case 1:
+                    StringBuilder sb = new StringBuilder();
+                    for (Zone z : ec.getZones())
+                        sb.append(z.label).append(z.getArea().getBounds());
+                    res[w] = sb.toString();
+                    break;
+                case 2:
+                    res[w] = ec.getCode(true, false, false);
+                    break;
+                case 3:
+                    res[w] = String.valueOf(ec.getEulerCodeRBC());
+                    break;
+                default:
+                    res[w] = ec.getZonesCode(false, false, false);
+                    break;
+                }
+            } catch (RuntimeException e) {
+                res[w] = "EXC " + e;
+            }
+        }
+        return Arrays.toString(res);
+    }
+
+    private static void assertFrozen(Runnable mutator) {
+        try {
+            mutator.run();
+            fail("frozen EulerCode modified");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFreeze() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int seed = 0; seed < 10; seed++) {
+                Random r = new Random(seed);
+                EulerCode ec = new EulerCode();
+                for (int i = 0; i < 5; i++)
+                    ec.addCurve(TestDiagrams.blob(r, 60));
+                String expected = codes(ec, 0), state = TestDiagrams.dump(ec);
+                final EulerCode frozen = ec.freeze();
+                assertNotSame(ec, frozen);
+                assertSame(frozen, frozen.freeze());
+                assertTrue(frozen.isFrozen());
+                assertFalse(ec.isFrozen());
+                assertEquals(state, TestDiagrams.dump(frozen));
+                // concurrent reads of the lazily computed codes
+                List<Future<String>> results = new ArrayList<Future<String>>();
+                for (int t = 0; t < 8; t++) {
+                    final int first = t;
+                    results.add(executor.submit(new Callable<String>() {
+                        @Override
+                        public String call() {
+                            return codes(frozen, first);
+                        }
+                    }));
+                }
+                for (Future<String> f : results)
+                    assertEquals("seed " + seed, expected, f.get());
+                final char curve = frozen.getCurves().keySet().iterator().next();
+                final IncidentPointRef ref = frozen.getCurves().get(curve).getOrderedIncidentPointRefs().isEmpty() ? null
+                        : frozen.getCurves().get(curve).getOrderedIncidentPointRefs().iterator().next().getKey();
+                assertFrozen(new Runnable() {
+                    @Override
+                    public void run() {
+                        frozen.addCurve(new Polygon(new int[] { 0, 10, 0 }, new int[] { 0, 0, 10 }, 3));
+                    }
+                });
+                assertFrozen(new Runnable() {
+                    @Override
+                    public void run() {
+                        frozen.removeCurve(curve, false);
+                    }
+                });
+                assertFrozen(new Runnable() {
+                    @Override
+                    public void run() {
+                        frozen.translateCurve(curve, 5, 5);
+                    }
+                });
+                assertFrozen(new Runnable() {
+                    @Override
+                    public void run() {
+                        frozen.clear();
+                    }
+                });
+                assertFrozen(new Runnable() {
+                    @Override
+                    public void run() {
+                        frozen.setSweepLine(!frozen.isSweepLine());
+                    }
+                });
+                if (ref != null)
+                    assertFrozen(new Runnable() {
+                        @Override
+                        public void run() {
+                            ref.setUnder(!ref.isUnder());
+                        }
+                    });
+                // the copy does not change with the original
+                ec.addCurve(TestDiagrams.blob(r, 60));
+                ec.removeCurve(curve, false);
+                assertEquals(state, TestDiagrams.dump(frozen));
+                assertEquals(expected, codes(frozen, 0));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // the memoized codes of the diagram and the answers of its zone locator
+    private static String derivedCodes(EulerCode ec) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < 6; k++) {
+            try {
+                switch (k) {
+                case 0:
+                    sb.append(ec.getGaussCode(false, false));
+                    break;
+                case 1:
+                    sb.append(ec.getCode(true, false, false));
+                    break;
+                case 2:
+                    sb.append(ec.getGaussCodeRBC().getGaussCodeString()).append(ec.getGaussCodeRBC().getRegionBoundaryCodeString());
+                    break;
+                case 3:
+                    sb.append(ec.getEulerCodeRBC());
+                    break;
+                case 4:
+                    sb.append(ec.getKnotCode(false, false));
+                    break;
+                default:
+                    ZoneLocator loc = ec.getZoneLocator();
+                    for (int x = 0; x < 600; x += 15)
+                        for (int y = 0; y < 600; y += 15)
+                            sb.append(loc.getCurvesAt(x + 0.5, y + 0.5));
+                    break;
+                }
+            } catch (RuntimeException e) {
+                sb.append("EXC ").append(e);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // the memoized objects of the diagram (null if they cannot be computed)
+    private static List<Object> derivedObjects(EulerCode ec) {
+        List<Object> res = new ArrayList<Object>();
+        for (int k = 0; k < 3; k++) {
+            try {
+                res.add(k == 0 ? ec.getGaussCodeRBC() : k == 1 ? ec.getEulerCodeRBC() : ec.getZoneLocator());
+            } catch (RuntimeException e) {
+                res.add(null);
+            }
+        }
+        return res;
+    }
+
+    private static EulerCode build(List<Character> labels, List<Polygon> polys, Character except) {
+        EulerCode ec = new EulerCode();
+        for (int i = 0; i < labels.size(); i++)
+            if (!labels.get(i).equals(except))
+                ec.addCurve(labels.get(i), polys.get(i));
+        return ec;
+    }
+
+    private static IncidentPointRef ref(EulerCode ec, char curve, int k) {
+        Iterator<Entry<IncidentPointRef, Integer>> it = ec.getCurves().get(curve).getOrderedIncidentPointRefs().iterator();
+        for (int i = 0; i < k; i++)
+            it.next();
+        return it.next().getKey();
+    }
+
+    // applies the edit op to the diagram (the same one to diagrams with the same curves)
+    private static void edit(EulerCode ec, int op, char curve, Polygon p, int k) {
+        switch (op) {
+        case 0:
+            ec.addCurve(p);
+            break;
+        case 1:
+            ec.removeCurve(curve, true);
+            break;
+        case 2:
+            ec.removeCurve(curve, false);
+            break;
+        case 3:
+            ec.translateCurve(curve, p.xpoints[0], p.ypoints[0]);
+            break;
+        case 4:
+            ec.clear();
+            break;
+        default:
+            IncidentPointRef ipr = ref(ec, curve, k);
+            ipr.setUnder(!ipr.isUnder());
+            break;
+        }
+    }
+
+    @Test
+    public void testDerivedCodesAfterEdits() {
+        int recomputed = 0;
+        for (int seed = 0; seed < 12; seed++) {
+            for (int op = 0; op < 6; op++) {
+                Random r = new Random(seed * 6 + op);
+                List<Character> labels = new ArrayList<Character>();
+                List<Polygon> polys = new ArrayList<Polygon>();
+                EulerCode ec = new EulerCode();
+                for (int i = 0; i < 4; i++) {
+                    polys.add(TestDiagrams.blob(r, 60));
+                    labels.add(ec.addCurve(polys.get(i)));
+                }
+                String before = derivedCodes(ec);
+                List<Object> objects = derivedObjects(ec);
+                assertEquals(before, derivedCodes(ec));
+                char c = labels.get(r.nextInt(labels.size()));
+                while (op == 5 && ec.getCurves().get(c).getOrderedIncidentPointRefs().isEmpty())
+                    c = labels.get(r.nextInt(labels.size()));
+                Polygon p = op == 3 ? new Polygon(new int[] { r.nextInt(41) - 20 }, new int[] { r.nextInt(41) - 20 }, 1)
+                        : TestDiagrams.blob(r, 60);
+                int k = op == 5 ? r.nextInt(ec.getCurves().get(c).getOrderedIncidentPointRefs().size()) : 0;
+                edit(ec, op, c, p, k);
+                // the same edit of a diagram whose codes have never been computed
+                EulerCode fresh = build(labels, polys, null);
+                edit(fresh, op, c, p, k);
+                String msg = "seed " + seed + " op " + op;
+                List<Object> after = derivedObjects(ec);
+                for (int i = 0; i < after.size(); i++) {
+                    if (after.get(i) != null) {
+                        assertNotSame(msg, objects.get(i), after.get(i));
+                        recomputed++;
+                    }
+                }
+                String expected = derivedCodes(fresh);
+                assertEquals(msg, expected, derivedCodes(ec));
+                // and a diagram built with the resulting curves
+                if (op == 0) {
+                    labels.add(ec.getCurves().keySet().toArray(new Character[0])[4]);
+                    polys.add(p);
+                }
+                if (op <= 1 || op == 4)
+                    assertEquals(msg, expected, derivedCodes(op == 4 ? new EulerCode() : build(labels, polys, op == 1 ? c : null)));
+                else
+                    assertFalse(msg, before.equals(expected));
+            }
+        }
+        assertTrue(recomputed > 150);
+    }
+
+    @Test
+    public void testLabelPointsAfterAddCurveAsNewDiagram() {
+        int refs = 0;
+        for (int seed = 0; seed < 30; seed++) {
+            Random r = new Random(seed);
+            List<Character> labels = new ArrayList<Character>();
+            List<Polygon> polys = new ArrayList<Polygon>();
+            EulerCode ec = new EulerCode();
+            for (int i = 0, n = 2 + r.nextInt(6); i < n; i++) {
+                Polygon p = r.nextInt(3) == 0 ? TestDiagrams.star(r) : TestDiagrams.blob(r, 60);
+                Character c;
+                try {
+                    c = ec.addCurve(p);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                labels.add(c);
+                polys.add(p);
+                String msg = "seed " + seed + " curve " + c;
+                // the label points of all the refs, as walked on the curves by the old meanPoint
+                for (IncidentPointsPolygon ipp : ec.getCurves().values()) {
+                    List<IncidentPointRef> iprs = new ArrayList<IncidentPointRef>();
+                    for (Entry<IncidentPointRef, Integer> e : ipp.getOrderedIncidentPointRefs())
+                        iprs.add(e.getKey());
+                    for (int k = 0; k < iprs.size(); k++) {
+                        IncidentPointRef pre = iprs.get(k), cur = iprs.get((k + 1) % iprs.size());
+                        Point2D expected = GeomUtils.meanPoint(ipp, pre.getcRef(), pre.getDis(), cur.getcRef(),
+                                cur.getDis());
+                        assertEquals(msg, 0, expected.distance(pre.getSuggestedLabelPoint()), 1e-9);
+                        refs++;
+                    }
+                }
+                // and the curves that contain them
+                assertConsistent(msg, ec);
+                char[] cl = new char[labels.size()];
+                for (int j = 0; j < cl.length; j++)
+                    cl[j] = labels.get(j);
+                EulerCode fresh = new EulerCode(cl, polys.toArray(new Polygon[polys.size()]), null, null, null, true);
+                assertEquals(msg, TestDiagrams.dump(fresh), TestDiagrams.dump(ec));
+            }
+        }
+        assertTrue(refs > 2000);
+    }
+}
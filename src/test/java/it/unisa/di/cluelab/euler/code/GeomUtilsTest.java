@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.Polygon;
+import java.awt.geom.Point2D;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class GeomUtilsTest {
+    // the crossing sign of getGaussCodeRBC before compareAngles
+    private static int atan2Sign(double x0, double y0, double x1, double y1, double x2, double y2) {
+        double pi2 = 2 * Math.PI;
+        double aRot = pi2 - Math.atan2(y0, x0);
+        double a1 = (Math.atan2(y1, x1) + aRot) % pi2;
+        double a2 = (Math.atan2(y2, x2) + aRot) % pi2;
+        return a1 < a2 ? -1 : (a1 == a2 ? 0 : 1);
+    }
+
+    private static int compareAnglesSign(double x0, double y0, double x1, double y1, double x2, double y2) {
+        return Integer.signum(GeomUtils.compareAngles(x0, y0, x1, y1, x2, y2));
+    }
+
+    @Test
+    public void testCompareAngles() {
+        assertEquals(-1, compareAnglesSign(1, 0, 0, 1, -1, 0));
+        assertEquals(1, compareAnglesSign(1, 0, 0, -1, -1, 0));
+        assertEquals(-1, compareAnglesSign(1, 0, 1, 0, 0, 1));
+        assertEquals(0, compareAnglesSign(0, 1, 2, 2, 1, 1));
+    }
+
+    @Test
+    public void testCompareAnglesCollinearAsAtan2() {
+        // the second vector is the reference one: atan2 puts it just below 2 pi
+        double x0 = -83.49679908649978, y0 = -295.4491411097679;
+        double x1 = -104.49679908649978, y1 = -277.4491411097679;
+        assertEquals(-1, atan2Sign(x0, y0, x1, y1, x0, y0));
+        assertEquals(-1, compareAnglesSign(x0, y0, x1, y1, x0, y0));
+    }
+
+    @Test
+    public void testCompareAnglesMatchesAtan2() {
+        Random r = new Random(1);
+        for (int t = 0; t < 200000; t++) {
+            double cx = r.nextInt(400) + r.nextDouble(), cy = r.nextInt(400) + r.nextDouble();
+            double x0 = r.nextInt(400) - cx, y0 = r.nextInt(400) - cy;
+            double x1 = r.nextInt(400) - cx, y1 = r.nextInt(400) - cy;
+            double x2 = r.nextInt(400) - cx, y2 = r.nextInt(400) - cy;
+            // almost collinear vectors
+            double s = r.nextDouble() * 3 - 1.5, e = Math.pow(10, -r.nextInt(17));
+            if (t % 4 == 1) {
+                x2 = x1 * s + e * r.nextGaussian();
+                y2 = y1 * s + e * r.nextGaussian();
+            } else if (t % 4 == 2) {
+                x2 = x0 * s + e * r.nextGaussian();
+                y2 = y0 * s + e * r.nextGaussian();
+            } else if (t % 4 == 3) {
+                x1 = x0 * s + e * r.nextGaussian();
+                y1 = y0 * s + e * r.nextGaussian();
+            }
+            assertEquals(atan2Sign(x0, y0, x1, y1, x2, y2), compareAnglesSign(x0, y0, x1, y1, x2, y2));
+        }
+    }
+
+    // random points without repeated consecutive ones (the old meanPoint divides by the edge length)
+    private static Polygon polygon(Random r) {
+        Polygon p = new Polygon();
+        for (int i = 0, n = 3 + r.nextInt(100); i < n; i++) {
+            int x = r.nextInt(400), y = r.nextInt(400);
+            if (i > 0 && x == p.xpoints[i - 1] && y == p.ypoints[i - 1])
+                x++;
+            p.addPoint(x, y);
+        }
+        if (p.xpoints[0] == p.xpoints[p.npoints - 1] && p.ypoints[0] == p.ypoints[p.npoints - 1])
+            p.ypoints[0]++;
+        return p;
+    }
+
+    private static double edgeLength(Polygon p, int i) {
+        int j = (i + 1) % p.npoints;
+        return Point2D.distance(p.xpoints[i], p.ypoints[i], p.xpoints[j], p.ypoints[j]);
+    }
+
+    // a distance over the edge i, at its ends one time out of four
+    private static double distance(Random r, Polygon p, int i) {
+        switch (r.nextInt(8)) {
+        case 0:
+            return 0;
+        case 1:
+            return edgeLength(p, i);
+        default:
+            return r.nextDouble() * edgeLength(p, i);
+        }
+    }
+
+    @Test
+    public void testMeanPointAsBoundaryWalk() {
+        Random r = new Random(7);
+        for (int t = 0; t < 2000; t++) {
+            Polygon p = polygon(r);
+            double[] arc = GeomUtils.arcLengths(p);
+            assertEquals(p.npoints + 1, arc.length);
+            assertEquals(0, arc[0], 0);
+            for (int i = 0; i < p.npoints; i++)
+                assertEquals(arc[i] + edgeLength(p, i), arc[i + 1], 1e-9);
+            for (int k = 0; k < 50; k++) {
+                int startIdx = r.nextInt(p.npoints);
+                // the same edge, before or after the start point, one time out of four
+                int endIdx = r.nextInt(4) == 0 ? startIdx : r.nextInt(p.npoints);
+                double startDis = distance(r, p, startIdx), endDis = distance(r, p, endIdx);
+                Point2D.Double expected = GeomUtils.meanPoint(p, startIdx, startDis, endIdx, endDis);
+                Point2D.Double actual = GeomUtils.meanPoint(p, arc, startIdx, startDis, endIdx, endDis);
+                // the rounding of the two sums grows with the perimeter (about 2e-11 for 20000)
+                assertEquals("polygon " + t + " " + startIdx + " " + startDis + " " + endIdx + " " + endDis, 0,
+                        expected.distance(actual), 1e-14 * arc[p.npoints]);
+            }
+        }
+    }
+}
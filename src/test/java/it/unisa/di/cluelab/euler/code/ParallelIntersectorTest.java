@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointsPolygon;
+
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class ParallelIntersectorTest {
+    private static Polygon[] curves(Random r, int n, int maxPoints) {
+        Polygon[] polys = new Polygon[n];
+        for (int i = 0; i < n; i++)
+            polys[i] = i % 4 == 3 ? TestDiagrams.star(r) : TestDiagrams.blob(r, maxPoints);
+        return polys;
+    }
+
+    // the (i, c, k) triples of the intersecting edges of polys[j], testing all the edge pairs in order
+    private static List<Integer> pairwise(Polygon[] polys, int j) {
+        List<Integer> res = new ArrayList<Integer>();
+        double[] intp = new double[2];
+        Polygon pl = polys[j];
+        for (int i = 0; i < pl.npoints; i++) {
+            for (int c = -1; c < j; c++) {
+                Polygon cc = c < 0 ? pl : polys[c];
+                for (int k = 0; k < cc.npoints; k++) {
+                    if (c < 0 && (i == k || (i + 1) % pl.npoints == k || (i - 1 + pl.npoints) % pl.npoints == k))
+                        continue;
+                    if (GeomUtils.getEdgesIntersection(pl, i, cc, k, intp)) {
+                        res.add(i);
+                        res.add(c);
+                        res.add(k);
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    private static List<Integer> asList(int[] a) {
+        List<Integer> res = new ArrayList<Integer>(a.length);
+        for (int v : a)
+            res.add(v);
+        return res;
+    }
+
+    @Test
+    public void testFindCrossingsAsPairwise() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random r = new Random(seed);
+            Polygon[] polys = curves(r, 1 + r.nextInt(7), 120);
+            for (int i = 0; i < polys.length; i++)
+                polys[i] = new IncidentPointsPolygon(polys[i].xpoints, polys[i].ypoints, polys[i].npoints);
+            int[][] cr = ParallelIntersector.findCrossings(polys);
+            assertEquals(polys.length, cr.length);
+            for (int j = 0; j < polys.length; j++)
+                assertEquals("seed " + seed + " curve " + j, pairwise(polys, j), asList(cr[j]));
+        }
+    }
+
+    @Test
+    public void testBulkConstructionAsSequential() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random r = new Random(seed);
+            Polygon[] polys = curves(r, 1 + r.nextInt(8), seed < 10 ? 60 : 300);
+            char[] labels = new char[polys.length];
+            for (int i = 0; i < labels.length; i++)
+                labels[i] = (char) ('A' + (i * 7) % 26);
+            EulerCode seq = new EulerCode();
+            seq.setSweepLine(false);
+            for (int i = 0; i < polys.length; i++)
+                seq.addCurve(labels[i], polys[i]);
+            String expected = TestDiagrams.dump(seq);
+            for (boolean sweepLine : new boolean[] { false, true }) {
+                EulerCode bulk = new EulerCode(labels, polys, null, null, null, sweepLine);
+                assertEquals("seed " + seed + " sweep line " + sweepLine, expected, TestDiagrams.dump(bulk));
+                assertEquals(TestDiagrams.gaussCode(seq), TestDiagrams.gaussCode(bulk));
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class PointGridTest {
+    // the cell size of EulerCode (POINTS_MIN_DISTANCE)
+    private static final double MIN_DISTANCE = 1.;
+
+    // the scan of EulerCode.incidentPoints replaced by PointGrid.nearest
+    private static Integer scanNearest(LinkedHashMap<Integer, Point2D> points, Point2D p) {
+        Integer found = null;
+        double dist = MIN_DISTANCE;
+        for (Entry<Integer, Point2D> ep : points.entrySet()) {
+            double cdist = p.distance(ep.getValue());
+            if (dist > cdist) {
+                dist = cdist;
+                found = ep.getKey();
+            }
+        }
+        return found;
+    }
+
+    // the scan of the suggested incident point labels replaced by PointGrid.first
+    private static Integer scanFirst(LinkedHashMap<Integer, Point2D> points, Point2D p) {
+        for (Entry<Integer, Point2D> e : points.entrySet())
+            if (p.distance(e.getValue()) < MIN_DISTANCE)
+                return e.getKey();
+        return null;
+    }
+
+    private static Integer key(Entry<Integer, Point2D> e) {
+        return e == null ? null : e.getKey();
+    }
+
+    // a coordinate on a quarter grid near the origin (many ties, distances of exactly 1 and cell borders),
+    // or a random one
+    private static double coordinate(Random r) {
+        return r.nextBoolean() ? (r.nextInt(33) - 16) / 4. : (r.nextDouble() - .5) * 8;
+    }
+
+    @Test
+    public void testSearchAsLinearScan() {
+        Random r = new Random(5);
+        for (int t = 0; t < 200; t++) {
+            PointGrid<Point2D> grid = new PointGrid<Point2D>(MIN_DISTANCE);
+            LinkedHashMap<Integer, Point2D> points = new LinkedHashMap<Integer, Point2D>();
+            for (int k = 0; k < 300; k++) {
+                int op = r.nextInt(10);
+                if (op < 4) {
+                    Integer key = r.nextInt(60) - 30;
+                    Point2D p = new Point2D.Double(coordinate(r), coordinate(r));
+                    grid.put(key, p.getX(), p.getY(), p);
+                    points.put(key, p);
+                } else if (op < 6) {
+                    Integer key = r.nextInt(60) - 30;
+                    assertEquals(points.remove(key), grid.removeKey(key));
+                } else {
+                    Point2D p = new Point2D.Double(coordinate(r), coordinate(r));
+                    String msg = "test " + t + " query " + k + " " + p;
+                    Entry<Integer, Point2D> nearest = grid.nearest(p.getX(), p.getY(), MIN_DISTANCE);
+                    assertEquals(msg, scanNearest(points, p), key(nearest));
+                    if (nearest != null)
+                        assertSame(points.get(nearest.getKey()), nearest.getValue());
+                    Entry<Integer, Point2D> first = grid.first(p.getX(), p.getY(), MIN_DISTANCE);
+                    assertEquals(msg, scanFirst(points, p), key(first));
+                    // as the suggested labels, the matched point is removed
+                    if (first != null && r.nextBoolean()) {
+                        grid.removeKey(first.getKey());
+                        points.remove(first.getKey());
+                    }
+                }
+                assertEquals(points.isEmpty(), grid.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testTiesAndBounds() {
+        PointGrid<String> grid = new PointGrid<String>(MIN_DISTANCE);
+        grid.put(3, 0.5, 0, "3");
+        grid.put(1, -0.5, 0, "1");
+        grid.put(2, 0, 0.5, "2");
+        // all at distance 0.5: the first inserted wins, not the lowest key
+        assertEquals(Integer.valueOf(3), grid.nearest(0, 0, MIN_DISTANCE).getKey());
+        assertEquals(Integer.valueOf(3), grid.first(0, 0, MIN_DISTANCE).getKey());
+        // a point replaced keeps its insertion order
+        grid.put(3, 0.5, 0, "3b");
+        assertEquals("3b", grid.nearest(0, 0, MIN_DISTANCE).getValue());
+        // a nearer point inserted later wins only for nearest
+        grid.put(4, 0, -0.25, "4");
+        assertEquals(Integer.valueOf(4), grid.nearest(0, 0, MIN_DISTANCE).getKey());
+        assertEquals(Integer.valueOf(3), grid.first(0, 0, MIN_DISTANCE).getKey());
+        assertEquals("3b", grid.removeKey(3));
+        assertNull(grid.removeKey(3));
+        assertEquals(Integer.valueOf(1), grid.first(0, 0, MIN_DISTANCE).getKey());
+        grid.clear();
+        assertTrue(grid.isEmpty());
+
+        // exactly MIN_DISTANCE away (in a neighbouring cell) is not near
+        grid.put(1, 2, 0, "1");
+        grid.put(2, 0.5, 0.5, "2");
+        assertNull(grid.nearest(3, 0, MIN_DISTANCE));
+        assertNull(grid.first(3, 0, MIN_DISTANCE));
+        assertNull(grid.nearest(0.5, -0.5, MIN_DISTANCE));
+        assertEquals(Integer.valueOf(2), grid.nearest(0.5, -0.4999, MIN_DISTANCE).getKey());
+        // across the cell border and the origin
+        assertEquals(Integer.valueOf(1), grid.nearest(2.999, 0, MIN_DISTANCE).getKey());
+        assertEquals(Integer.valueOf(2), grid.nearest(0.1, -0.1, MIN_DISTANCE).getKey());
+        grid.put(3, -1.001, -1.001, "3");
+        assertEquals(Integer.valueOf(3), grid.nearest(-0.5, -0.5, MIN_DISTANCE).getKey());
+        assertEquals(Integer.valueOf(3), grid.first(-0.3, -0.3, MIN_DISTANCE).getKey());
+        // a search distance larger than a cell
+        assertEquals(Integer.valueOf(1), grid.nearest(4.5, 0, 3).getKey());
+        assertNull(grid.nearest(5, 0, 3));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        Random r = new Random(11);
+        PointGrid<Point2D> grid = new PointGrid<Point2D>(MIN_DISTANCE);
+        LinkedHashMap<Integer, Point2D> points = new LinkedHashMap<Integer, Point2D>();
+        for (int k = 0; k < 500; k++) {
+            Point2D p = new Point2D.Double(coordinate(r), coordinate(r));
+            grid.put(k, p.getX(), p.getY(), p);
+            points.put(k, p);
+        }
+        List<Integer> keys = new ArrayList<Integer>(points.keySet());
+        for (Iterator<Integer> it = keys.iterator(); it.hasNext();) {
+            Integer key = it.next();
+            if (r.nextBoolean())
+                continue;
+            Point2D p = points.remove(key);
+            assertSame(p, grid.removeKey(key));
+            assertEquals(scanNearest(points, p), key(grid.nearest(p.getX(), p.getY(), MIN_DISTANCE)));
+            assertEquals(scanFirst(points, p), key(grid.first(p.getX(), p.getY(), MIN_DISTANCE)));
+            it.remove();
+        }
+        for (Integer key : keys)
+            assertNotNull(grid.removeKey(key));
+        assertTrue(grid.isEmpty());
+        assertNull(grid.nearest(0, 0, MIN_DISTANCE));
+    }
+}
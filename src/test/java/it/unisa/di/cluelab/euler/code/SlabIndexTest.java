@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointsPolygon;
+
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class SlabIndexTest {
+    // random points (t even) or a random walk with many collinear and horizontal edges
+    private static Polygon polygon(Random r, int t) {
+        int n = 3 + r.nextInt(600);
+        Polygon p = new Polygon();
+        for (int i = 0, x = 500, y = 500; i < n; i++) {
+            if (t % 2 == 0) {
+                p.addPoint(r.nextInt(300), r.nextInt(300));
+            } else {
+                x += r.nextInt(11) - 5;
+                y += r.nextInt(11) - 5;
+                p.addPoint(x, y);
+            }
+        }
+        return p;
+    }
+
+    // a query point in the bounds, on the integer grid one time out of three
+    private static double coordinate(Random r, int min, int size) {
+        return min - 2 + r.nextInt(size + 5) + (r.nextInt(3) == 0 ? 0 : r.nextDouble());
+    }
+
+    @Test
+    public void testContainsAsPolygon() {
+        Random r = new Random(3);
+        for (int t = 0; t < 400; t++) {
+            Polygon p = polygon(r, t);
+            SlabIndex si = new SlabIndex(p);
+            Rectangle b = p.getBounds();
+            for (int k = 0; k < 1000; k++) {
+                double x = coordinate(r, b.x, b.width), y = coordinate(r, b.y, b.height);
+                assertEquals("polygon " + t + " (" + x + "," + y + ")", p.contains(x, y), si.contains(x, y));
+            }
+            // the vertexes
+            for (int i = 0; i < p.npoints; i++)
+                assertEquals(p.contains(p.xpoints[i], p.ypoints[i]), si.contains(p.xpoints[i], p.ypoints[i]));
+        }
+    }
+
+    @Test
+    public void testCurveContainsAfterTranslate() {
+        Random r = new Random(5);
+        for (int t = 0; t < 100; t++) {
+            Polygon p = polygon(r, t);
+            IncidentPointsPolygon ipp = new IncidentPointsPolygon(p.xpoints, p.ypoints, p.npoints);
+            Polygon copy = new Polygon(ipp.xpoints, ipp.ypoints, ipp.npoints);
+            for (int step = 0; step < 3; step++) {
+                Rectangle b = copy.getBounds();
+                for (int k = 0; k < 300; k++) {
+                    double x = coordinate(r, b.x, b.width), y = coordinate(r, b.y, b.height);
+                    assertEquals("polygon " + t + " step " + step, copy.contains(x, y), ipp.contains(x, y));
+                }
+                int dx = r.nextInt(21) - 10, dy = r.nextInt(21) - 10;
+                ipp.translate(dx, dy);
+                copy.translate(dx, dy);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointsPolygon;
+
+import java.awt.Polygon;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class SweepLineIntersectorTest {
+    private static Polygon[] curves(Random r, int n, int maxPoints) {
+        Polygon[] polys = new Polygon[n];
+        for (int i = 0; i < n; i++) {
+            Polygon p = i % 4 == 3 ? TestDiagrams.star(r) : TestDiagrams.blob(r, maxPoints);
+            polys[i] = new IncidentPointsPolygon(p.xpoints, p.ypoints, p.npoints);
+        }
+        return polys;
+    }
+
+    // the (i, c, k) triples of the intersecting edges of polys[j], testing all the edge pairs
+    private static Set<List<Integer>> pairwise(Polygon[] polys, int j) {
+        Set<List<Integer>> res = new HashSet<List<Integer>>();
+        double[] intp = new double[2];
+        Polygon pl = polys[j];
+        for (int i = 0; i < pl.npoints; i++) {
+            for (int c = -1; c < j; c++) {
+                Polygon cc = c < 0 ? pl : polys[c];
+                for (int k = 0; k < cc.npoints; k++) {
+                    if (c < 0 && (i == k || (i + 1) % pl.npoints == k || (i - 1 + pl.npoints) % pl.npoints == k))
+                        continue;
+                    if (GeomUtils.getEdgesIntersection(pl, i, cc, k, intp))
+                        res.add(Arrays.asList(i, c, k));
+                }
+            }
+        }
+        return res;
+    }
+
+    @Test
+    public void testFindCrossingsContainsEveryIntersection() {
+        for (int seed = 0; seed < 30; seed++) {
+            Random r = new Random(seed);
+            Polygon[] polys = curves(r, 2 + r.nextInt(6), 120);
+            int first = r.nextInt(polys.length);
+            int[][] cr = SweepLineIntersector.findCrossings(polys, first);
+            assertEquals(polys.length - first, cr.length);
+            for (int j = first; j < polys.length; j++) {
+                int[] t = cr[j - first];
+                Set<List<Integer>> found = new HashSet<List<Integer>>();
+                for (int h = 0; h < t.length; h += 3) {
+                    // sorted by i, then c, then k
+                    if (h > 0)
+                        assertTrue(Arrays.asList(t[h - 3], t[h - 2], t[h - 1]) + " before " + Arrays.asList(t[h], t[h + 1], t[h + 2]),
+                                t[h - 3] < t[h] || t[h - 3] == t[h] && (t[h - 2] < t[h + 1] || t[h - 2] == t[h + 1] && t[h - 1] < t[h + 2]));
+                    assertTrue(t[h + 1] < j);
+                    found.add(Arrays.asList(t[h], t[h + 1], t[h + 2]));
+                }
+                Set<List<Integer>> missed = pairwise(polys, j);
+                missed.removeAll(found);
+                assertTrue("seed " + seed + " curve " + j + " missed " + missed, missed.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void testFindCrossingsOutOfRange() {
+        Polygon far = new Polygon(new int[] { 0, 1 << 21, 0 }, new int[] { 0, 0, 10 }, 3);
+        assertNull(SweepLineIntersector.findCrossings(new Polygon[] { far }, 0));
+    }
+
+    @Test
+    public void testAddCurveSweepLineAsPairwise() {
+        for (int seed = 0; seed < 12; seed++) {
+            Random r = new Random(seed);
+            // curves with many points, so that the sweep line is preferred
+            List<Polygon> polys = new ArrayList<Polygon>();
+            for (int i = 0, n = 2 + r.nextInt(5); i < n; i++)
+                polys.add(i % 3 == 2 ? TestDiagrams.star(r) : TestDiagrams.blob(r, 400));
+            EulerCode sweep = new EulerCode(), pairs = new EulerCode();
+            sweep.setSweepLine(true);
+            pairs.setSweepLine(false);
+            for (Polygon p : polys) {
+                sweep.addCurve(p);
+                pairs.addCurve(p);
+                assertEquals("seed " + seed, TestDiagrams.dump(pairs), TestDiagrams.dump(sweep));
+            }
+            assertEquals(TestDiagrams.gaussCode(pairs), TestDiagrams.gaussCode(sweep));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPoint;
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointRef;
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointsPolygon;
+import it.unisa.di.cluelab.euler.code.EulerCode.Segment;
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+
+import java.awt.Polygon;
+import java.awt.geom.Point2D;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Fixed input curves and a textual form of the state of an {@link EulerCode}
+ * for the tests that compare two ways of building the same diagram.
+ *
+ * @author Mattia De Rosa
+ */
+final class TestDiagrams {
+    private TestDiagrams() {
+    }
+
+    /**
+     * Returns a closed wavy curve of n points around (cx, cy).
+     */
+    static Polygon blob(Random r, int cx, int cy, int rad, int n, double noise) {
+        Polygon p = new Polygon();
+        double ph = r.nextDouble() * 6;
+        for (int i = 0; i < n; i++) {
+            double a = 2 * Math.PI * i / n;
+            double rr = rad * (1 + noise * Math.sin(3 * a + ph) + noise * 0.5 * (r.nextDouble() - 0.5));
+            p.addPoint((int) Math.round(cx + rr * Math.cos(a)), (int) Math.round(cy + rr * 0.8 * Math.sin(a)));
+        }
+        return p;
+    }
+
+    /**
+     * Returns a random blob with up to maxPoints points (at least 8).
+     */
+    static Polygon blob(Random r, int maxPoints) {
+        return blob(r, 200 + r.nextInt(200), 200 + r.nextInt(200), 40 + r.nextInt(150), 8 + r.nextInt(maxPoints - 7),
+                0.1 + r.nextDouble() * 0.3);
+    }
+
+    /**
+     * Returns a closed five-pointed star (with five self intersections).
+     */
+    static Polygon star(Random r) {
+        int cx = 200 + r.nextInt(200), cy = 200 + r.nextInt(200), rad = 60 + r.nextInt(120);
+        Polygon p = new Polygon();
+        for (int i = 0; i < 5; i++) {
+            double a = 2 * Math.PI * (i * 2 % 5) / 5 + r.nextDouble() * 0.2;
+            p.addPoint(cx + (int) (rad * Math.cos(a)), cy + (int) (rad * Math.sin(a)));
+        }
+        return p;
+    }
+
+    static String format(Point2D p) {
+        return p == null ? "null" : String.format(Locale.ROOT, "(%.6f,%.6f)", p.getX(), p.getY());
+    }
+
+    /**
+     * Returns the incident points and the curves (with their incident point
+     * refs in order) of the diagram.
+     */
+    static String dump(EulerCode ec) {
+        StringBuilder sb = new StringBuilder();
+        for (Entry<Integer, IncidentPoint> e : ec.getIncidentPoints().entrySet())
+            sb.append("point ").append(e.getKey()).append(' ').append(format(e.getValue())).append(' ')
+                    .append(new TreeSet<Character>(e.getValue().getIncidentCurves())).append('\n');
+        for (Entry<Character, IncidentPointsPolygon> e : ec.getCurves().entrySet()) {
+            IncidentPointsPolygon c = e.getValue();
+            sb.append("curve ").append(e.getKey()).append(" n=").append(c.npoints).append(" first=")
+                    .append(new TreeSet<Character>(c.getFirstPointContCurves())).append('\n');
+            for (Entry<IncidentPointRef, Integer> r : c.getOrderedIncidentPointRefs()) {
+                IncidentPointRef ipr = r.getKey();
+                sb.append(String.format(Locale.ROOT, "  %d %d %.6f %s %b %s%n", r.getValue(), ipr.getcRef(),
+                        ipr.getDis(), new TreeSet<Character>(ipr.getFolContCurves()), ipr.isUnder(),
+                        format(ipr.getSuggestedLabelPoint())));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the zones of the diagram (with their segment chains and
+     * polygons) and its Euler code, or the exception they throw.
+     */
+    static String zones(EulerCode ec) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Zone z : ec.getZones()) {
+                sb.append("zone '").append(z.label).append("' out=");
+                for (List<Segment> l : z.outlines)
+                    segments(sb, l);
+                sb.append(" int=");
+                for (List<Segment> l : z.intlines)
+                    segments(sb, l);
+                sb.append(" polys=");
+                for (Polygon p : z.getOutPolys())
+                    polygon(sb, p);
+                sb.append('/');
+                for (Polygon p : z.getIntPolys())
+                    polygon(sb, p);
+                sb.append('\n');
+            }
+            return sb.append(ec.getEulerCode(false, false)).toString();
+        } catch (RuntimeException e) {
+            return "EXC " + e;
+        }
+    }
+
+    private static void segments(StringBuilder sb, List<Segment> l) {
+        sb.append('[');
+        for (Segment s : l) {
+            sb.append(s.p1).append('>').append(s.p2).append(s.curve).append('/').append(s.label);
+            if (s.getFirstZone() != null)
+                sb.append(" z1=").append(s.getFirstZone().getKey().label).append(s.getFirstZone().getValue());
+            if (s.getSecondZone() != null)
+                sb.append(" z2=").append(s.getSecondZone().getKey().label).append(s.getSecondZone().getValue());
+            sb.append(';');
+        }
+        sb.append(']');
+    }
+
+    private static void polygon(StringBuilder sb, Polygon p) {
+        sb.append('[');
+        for (int i = 0; i < p.npoints; i++)
+            sb.append(p.xpoints[i]).append(',').append(p.ypoints[i]).append(' ');
+        sb.append(']');
+    }
+
+    /**
+     * Returns the Gauss code of the diagram, or the exception it throws.
+     */
+    static String gaussCode(EulerCode ec) {
+        try {
+            return ec.getGaussCode(false, false);
+        } catch (RuntimeException e) {
+            return "EXC " + e;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code;
+
+import it.unisa.di.cluelab.euler.code.EulerCode.IncidentPointsPolygon;
+import it.unisa.di.cluelab.euler.code.EulerCode.Zone;
+
+import java.awt.Polygon;
+import java.awt.geom.Line2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class ZoneLocatorTest {
+    // a diagram of up to 13 circles
+    private static EulerCode circles(Random r) {
+        EulerCode ec = new EulerCode();
+        for (int i = 0, n = 2 + r.nextInt(12); i < n; i++) {
+            Polygon p = new Polygon();
+            int cx = 50 + r.nextInt(400), cy = 50 + r.nextInt(400), rad = 20 + r.nextInt(120), k = 8 + r.nextInt(40);
+            double a0 = r.nextDouble();
+            for (int j = 0; j < k; j++) {
+                double t = a0 + 2 * Math.PI * j / k;
+                p.addPoint((int) Math.round(cx + rad * Math.cos(t)), (int) Math.round(cy + rad * Math.sin(t)));
+            }
+            try {
+                ec.addCurve(p);
+            } catch (RuntimeException e) {
+                // a curve through an incident point is not added
+            }
+        }
+        return ec;
+    }
+
+    // the zones, if they are well defined (no concurrency and no tangency)
+    private static List<Zone> zones(EulerCode ec) {
+        try {
+            List<Zone> zones = ec.getZones();
+            String gc = ec.getGaussCode(false, false);
+            return gc.contains("#") || gc.contains("@") ? null : zones;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean farFromCurves(EulerCode ec, double x, double y) {
+        for (IncidentPointsPolygon p : ec.getCurves().values()) {
+            for (int i = 0; i < p.npoints; i++) {
+                int j = (i + 1) % p.npoints;
+                if (Line2D.ptSegDist(p.xpoints[i], p.ypoints[i], p.xpoints[j], p.ypoints[j], x, y) < 3)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testLocateAsPolygons() {
+        int zonesTested = 0;
+        for (int seed = 0; seed < 40; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = circles(r);
+            ZoneLocator loc = ec.getZoneLocator();
+            List<Zone> zones = zones(ec);
+            for (int q = 0; q < 2000; q++) {
+                double x = r.nextDouble() * 700 - 50, y = r.nextDouble() * 700 - 50;
+                if (q % 3 == 0) {
+                    x = Math.floor(x);
+                    y = Math.floor(y);
+                }
+                String at = "seed " + seed + " (" + x + "," + y + ")";
+                List<Character> expected = new ArrayList<Character>();
+                for (Entry<Character, IncidentPointsPolygon> e : ec.getCurves().entrySet()) {
+                    IncidentPointsPolygon c = e.getValue();
+                    if (new Polygon(c.xpoints, c.ypoints, c.npoints).contains(x, y))
+                        expected.add(e.getKey());
+                }
+                assertEquals(at, expected, loc.getCurvesAt(x, y));
+                assertEquals(at, expected.isEmpty() ? null : expected.get(expected.size() - 1), loc.getTopCurveAt(x, y));
+                assertEquals(at, CurveMasks.of(expected), loc.getMaskAt(x, y));
+                if (zones != null && farFromCurves(ec, x, y)) {
+                    Zone zone = null;
+                    for (Zone z : zones) {
+                        if (!z.label.isEmpty() && !z.outlines.isEmpty() && z.getArea() != null && z.getArea().contains(x, y))
+                            zone = z;
+                    }
+                    if (zone != null) {
+                        assertSame(at, zone, loc.getZoneAt(x, y));
+                        zonesTested++;
+                    }
+                }
+            }
+        }
+        assertTrue(zonesTested > 1000);
+    }
+}
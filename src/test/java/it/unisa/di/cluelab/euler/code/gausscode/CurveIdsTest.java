@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import it.unisa.di.cluelab.euler.code.zoneGeneration.DisconnectedEDs;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class CurveIdsTest {
+    @Test
+    public void testLabels() {
+        assertEquals('A', CurveIds.label(0));
+        assertEquals('Z', CurveIds.label(25));
+        assertEquals('a', CurveIds.label(26));
+        assertEquals('z', CurveIds.label(51));
+        assertTrue(CurveIds.MAX_CURVES > 40000);
+        Set<Character> seen = new HashSet<Character>();
+        for (int i = 0; i < CurveIds.MAX_CURVES; i++) {
+            char c = CurveIds.label(i);
+            assertEquals(i, CurveIds.id(c));
+            assertTrue(Character.isLetter(c));
+            assertTrue(seen.add(c));
+            if (i > 0)
+                assertEquals(c, CurveIds.next(CurveIds.label(i - 1)));
+        }
+        // separators and digits are not labels
+        for (char c : "0123456789+-_:;,.()[]{}!@#$%^&*| \n".toCharArray()) {
+            assertEquals(-1, CurveIds.id(c));
+            assertFalse(seen.contains(c));
+        }
+        assertEquals('a', CurveIds.next('Z'));
+        assertEquals('A', CurveIds.next('0'));
+        assertEquals("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz", new String(CurveIds.labels(52)));
+        assertEquals(CurveIds.label(59), CurveIds.labels(60)[59]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidId() {
+        CurveIds.label(CurveIds.MAX_CURVES);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoNextLabel() {
+        CurveIds.next(CurveIds.label(CurveIds.MAX_CURVES - 1));
+    }
+
+    private static Entry<Set<String>, Integer> zone(int n, String... curves) {
+        return new AbstractMap.SimpleEntry<Set<String>, Integer>(new LinkedHashSet<String>(Arrays.asList(curves)), n);
+    }
+
+    @Test
+    public void testRenameDuplicateCurves() {
+        Map<Set<Entry<Set<String>, Integer>>, Entry<Set<String>, Integer>> m =
+                new LinkedHashMap<Set<Entry<Set<String>, Integer>>, Entry<Set<String>, Integer>>();
+        Entry<Set<String>, Integer> out = new AbstractMap.SimpleEntry<Set<String>, Integer>(Collections.<String>emptySet(), 0);
+        m.put(new LinkedHashSet<Entry<Set<String>, Integer>>(Arrays.asList(zone(1, "A"), zone(1, "A", "B"),
+                zone(1, "B"))), out);
+        m.put(new LinkedHashSet<Entry<Set<String>, Integer>>(Arrays.asList(zone(2, "A"), zone(2, "A", "C"),
+                zone(2, "C"))), out);
+        m.put(new LinkedHashSet<Entry<Set<String>, Integer>>(Arrays.asList(zone(3, "A"), zone(3, "A", "B"),
+                zone(3, "B"), zone(4, "A"))), out);
+        // the duplicate curves take the first labels that no component uses
+        assertEquals("{[[A], [A, B], [B]]=[], [[D], [D, C], [C]]=[], [[E], [E, F], [F]]=[]}",
+                DisconnectedEDs.renameDuplicateCurves(m).toString());
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class GaussCodeRBCTest {
+    @Test
+    public void testRegionBoundaryCodeComputedOnce() throws Exception {
+        for (GaussCodeRBC g : GaussCodes.codes(40, 8)) {
+            GaussCodeRBC fresh = new GaussCodeRBC(g.getGaussCodeString());
+            List<SegmentCode[]> rbc = fresh.getRegionBoundaryCode();
+            assertSame(rbc, fresh.getRegionBoundaryCode());
+            assertEquals(GaussCodeRBC.getRegionBoundaryCodeString(RegionCode.computeRegionBoundaryCode(g.getGaussCode())),
+                    GaussCodeRBC.getRegionBoundaryCodeString(rbc));
+            try {
+                rbc.remove(0);
+                fail("modifiable region boundary code");
+            } catch (UnsupportedOperationException e) {
+                // the shared code is unmodifiable
+            }
+            fresh.invalidate();
+            List<SegmentCode[]> again = fresh.getRegionBoundaryCode();
+            assertNotSame(rbc, again);
+            assertEquals(GaussCodeRBC.getRegionBoundaryCodeString(rbc), GaussCodeRBC.getRegionBoundaryCodeString(again));
+        }
+    }
+
+    @Test
+    public void testConcurrentFirstAccess() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final GaussCodeRBC g : GaussCodes.codes(30, 8)) {
+                final GaussCodeRBC fresh = new GaussCodeRBC(g.getGaussCodeString());
+                List<Future<List<SegmentCode[]>>> results = new ArrayList<Future<List<SegmentCode[]>>>();
+                for (int t = 0; t < 8; t++) {
+                    results.add(executor.submit(new Callable<List<SegmentCode[]>>() {
+                        @Override
+                        public List<SegmentCode[]> call() {
+                            return fresh.getRegionBoundaryCode();
+                        }
+                    }));
+                }
+                for (Future<List<SegmentCode[]>> f : results)
+                    assertSame(fresh.getRegionBoundaryCode(), f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // a random word of one curve with n crossings (each label once with each sign)
+    private static Symbol[][] randomWord(Random r, int n) {
+        List<Symbol> w = new ArrayList<Symbol>();
+        for (int i = 1; i <= n; i++) {
+            w.add(new Symbol(String.valueOf(i), '+'));
+            w.add(new Symbol(String.valueOf(i), '-'));
+        }
+        Collections.shuffle(w, r);
+        return new Symbol[][] { w.toArray(new Symbol[w.size()]) };
+    }
+
+    @Test
+    public void testPlanarityCheckAsBefore() {
+        Random r = new Random(1);
+        int planar = 0, nonPlanar = 0;
+        for (int t = 0; t < 300; t++) {
+            Symbol[][] word = randomWord(r, 2 + r.nextInt(5));
+            boolean expected = Misc.checkInput(word) && Planarity.CheckPlanarity(word);
+            GaussCodeRBC g = new GaussCodeRBC(new char[] { 'A' }, word);
+            try {
+                g.getRegionBoundaryCode();
+                assertTrue(expected);
+                planar++;
+            } catch (IllegalStateException e) {
+                assertFalse(expected);
+                nonPlanar++;
+                // not cached
+                try {
+                    g.getRegionBoundaryCode();
+                    fail("non-planar word accepted the second time");
+                } catch (IllegalStateException e2) {
+                    // as the first time
+                }
+            }
+        }
+        assertTrue(planar > 10);
+        assertTrue(nonPlanar > 10);
+    }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import it.unisa.di.cluelab.euler.code.EulerCode;
+
+import java.awt.Polygon;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fixed Gauss codes for the tests that compare the region and zone
+ * algorithms with the list-based ones.
+ *
+ * @author Mattia De Rosa
+ */
+final class GaussCodes {
+    // with self intersections from the sixth code on
+    private static final String[] CODES = { "A: 1+", "A: 1- 2+\nB: 1+ 2-", "A: 1- 2+\nB: 1+ 2-\nC: 3+",
+            "A: 1- 2+ 3- 4+\nB: 1+ 2- 3+ 4-", "A: 1+ 2- 3+ 4-\nB: 1- 5+ 6- 3-\nC: 2+ 5- 6+ 4+",
+            "A: 10- 11+\nB: 10+ 11-\nC: 12+ 13-\nD: 12- 13+", "A: 1+ 1-", "A: 1+ 2- 3+ 1-\nB: 2+ 3-",
+            "A: 1+ 2+ 5- 1- 3+ 4-\nB: 2- 3- 4+ 5+" };
+
+    private GaussCodes() {
+    }
+
+    /**
+     * Returns some fixed Gauss codes and the (planar) Gauss codes of n
+     * diagrams of up to maxCurves random circles and figure eights.
+     */
+    static List<GaussCodeRBC> codes(int n, int maxCurves) {
+        List<GaussCodeRBC> codes = new ArrayList<GaussCodeRBC>();
+        List<String> strings = new ArrayList<String>(Arrays.asList(CODES));
+        for (int seed = 0; seed < n; seed++) {
+            Random r = new Random(seed);
+            EulerCode ec = new EulerCode();
+            for (int i = 0, curves = 1 + r.nextInt(maxCurves); i < curves; i++) {
+                Polygon p = new Polygon();
+                int cx = 50 + r.nextInt(300), cy = 50 + r.nextInt(300), rad = 20 + r.nextInt(120),
+                        k = 8 + r.nextInt(40);
+                double a0 = r.nextDouble();
+                // a circle, or a figure eight (one self intersection) one time out of four
+                boolean eight = r.nextInt(4) == 0;
+                for (int j = 0; j < k; j++) {
+                    double t = a0 + 2 * Math.PI * j / k;
+                    p.addPoint((int) Math.round(cx + rad * Math.cos(t)),
+                            (int) Math.round(cy + rad * (eight ? Math.sin(2 * t) / 2 : Math.sin(t))));
+                }
+                try {
+                    ec.addCurve(p);
+                } catch (RuntimeException e) {
+                    // a curve through an incident point is not added
+                }
+            }
+            try {
+                strings.add(ec.getGaussCodeRBC().getGaussCodeString());
+            } catch (RuntimeException e) {
+                // no Gauss code
+            }
+        }
+        for (String s : strings) {
+            // the codes with tangent or concurrent points are not parsed
+            try {
+                codes.add(new GaussCodeRBC(s, true));
+            } catch (ParseException e) {
+                continue;
+            }
+        }
+        return codes;
+    }
+}
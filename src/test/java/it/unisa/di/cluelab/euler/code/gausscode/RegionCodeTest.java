@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class RegionCodeTest {
+    // the faces traced with the linear search of the next segment
+    private static List<SegmentCode[]> linearRegionBoundaryCode(Symbol[][] ogp) {
+        List<SegmentCode[]> R = new ArrayList<SegmentCode[]>();
+        if (ogp.length == 1 && ogp[0].length == 1) {
+            Symbol p = new Symbol(ogp[0][0].getLabel(), ' ');
+            R.add(new SegmentCode[] { new SegmentCode(p, p, '+') });
+            R.add(new SegmentCode[] { new SegmentCode(p, p, '-') });
+            return R;
+        }
+        ArrayList<SegmentCode> m = new ArrayList<SegmentCode>();
+        ArrayList<SegmentCode> S = RegionCode.computeSegmentsCode(ogp);
+        for (SegmentCode s : S) {
+            if (!Misc.isIn(s, m)) {
+                ArrayList<SegmentCode> r = new ArrayList<SegmentCode>();
+                r.add(s);
+                m.add(s);
+                SegmentCode s2 = RegionCode.traverse(s, S);
+                while (!Misc.isEqual(s, s2)) {
+                    r.add(s2);
+                    m.add(s2);
+                    s2 = RegionCode.traverse(s2, S);
+                }
+                R.add(r.toArray(new SegmentCode[r.size()]));
+            }
+        }
+        return R;
+    }
+
+    @Test
+    public void testComputeRegionBoundaryCodeAsLinearScan() {
+        int codes = 0;
+        for (GaussCodeRBC g : GaussCodes.codes(150, 10)) {
+            Symbol[][] ogp = g.getGaussCode();
+            String expected = GaussCodeRBC.getRegionBoundaryCodeString(linearRegionBoundaryCode(ogp));
+            assertEquals(g.getGaussCodeString(), expected,
+                    GaussCodeRBC.getRegionBoundaryCodeString(RegionCode.computeRegionBoundaryCode(ogp)));
+            assertEquals(expected, g.getRegionBoundaryCodeString());
+            codes++;
+        }
+        assertTrue(codes > 40);
+    }
+
+}
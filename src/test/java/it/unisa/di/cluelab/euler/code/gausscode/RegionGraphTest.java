@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class RegionGraphTest {
+    // the first region with a segment from the symbol in the direction, scanning the list
+    private static SegmentCode[] scanFrom(Symbol first, char direction, ArrayList<SegmentCode[]> R) {
+        for (SegmentCode[] r : R)
+            for (SegmentCode t : r)
+                if (first.getLabel().equals(t.getFirstSymbol().getLabel())
+                        && first.getSign() == t.getFirstSymbol().getSign() && direction == t.getDirection())
+                    return r;
+        return null;
+    }
+
+    @Test
+    public void testLookupsAsListScan() {
+        int segments = 0;
+        for (GaussCodeRBC g : GaussCodes.codes(150, 10)) {
+            ArrayList<SegmentCode[]> R = new ArrayList<SegmentCode[]>(g.getRegionBoundaryCode());
+            RegionGraph graph = g.getRegionGraph();
+            assertSame(graph, g.getRegionGraph());
+            assertEquals(R.size(), graph.size());
+            for (int k = 0; k < R.size(); k++) {
+                SegmentCode[] r = R.get(k);
+                assertSame(r, graph.getRegion(k));
+                Set<Integer> neighbours = new LinkedHashSet<Integer>();
+                for (int i = 0; i < r.length; i++) {
+                    for (SegmentCode s : new SegmentCode[] { r[i], SegmentCode.inverse(r[i]) }) {
+                        SegmentCode[] expected = RegionCode.getRegionCode(s, R);
+                        if (expected.length == 0)
+                            assertEquals(0, graph.getRegionCode(s).length);
+                        else
+                            assertSame(expected, graph.getRegionCode(s));
+                        assertEquals(expected.length == 0 ? -1 : R.indexOf(expected), graph.regionOf(s));
+                        SegmentCode[] from = scanFrom(s.getFirstSymbol(), s.getDirection(), R);
+                        assertEquals(from == null ? -1 : R.indexOf(from),
+                                graph.regionFrom(s.getFirstSymbol(), s.getDirection()));
+                        segments++;
+                    }
+                    SegmentCode[] across = RegionCode.getRegionCode(SegmentCode.inverse(r[i]), R);
+                    int nb = across.length == 0 ? -1 : R.indexOf(across);
+                    assertEquals(nb, graph.neighbour(k, i));
+                    if (nb >= 0)
+                        neighbours.add(nb);
+                    String curve = SegmentCode.identifyCurveLabels(r[i], g.getGaussCode());
+                    int c = graph.curveOf(r[i]);
+                    assertEquals(curve, c < 0 ? "" : String.valueOf(CurveIds.label(c)));
+                }
+                List<Integer> actual = new ArrayList<Integer>();
+                for (int nb : graph.getNeighbours(k))
+                    actual.add(nb);
+                assertEquals(new ArrayList<Integer>(neighbours), actual);
+            }
+        }
+        assertTrue(segments > 5000);
+        // a segment of another code
+        RegionGraph graph = GaussCodes.codes(0, 1).get(0).getRegionGraph();
+        Symbol missing = new Symbol("99", '+');
+        SegmentCode s = new SegmentCode(missing, missing, '+');
+        assertEquals(-1, graph.regionOf(s));
+        assertEquals(0, graph.getRegionCode(s).length);
+        assertEquals(-1, graph.curveOf(s));
+        assertEquals(-1, graph.regionFrom(missing, '+'));
+    }
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class SymbolTableTest {
+    @Test
+    public void testCodes() {
+        SymbolTable st = new SymbolTable();
+        assertEquals(0, st.intern("12"));
+        assertEquals(1, st.intern("3"));
+        assertEquals(0, st.intern("12"));
+        assertEquals(-1, st.id("4"));
+        assertEquals(2, st.size());
+        assertEquals("3", st.label(1));
+        int c = st.code(new Symbol("3", '-'));
+        assertEquals(3, c);
+        assertEquals(1, SymbolTable.id(c));
+        assertEquals('-', SymbolTable.sign(c));
+        assertEquals(SymbolTable.code(1, '+'), SymbolTable.flip(c));
+        assertEquals(c, SymbolTable.flip(SymbolTable.flip(c)));
+        assertEquals(new Symbol("3", '-'), st.symbol(c));
+        assertSame(st.symbol(c), st.symbol(c));
+        // a new label interned by code
+        assertEquals(SymbolTable.code(2, '+'), st.code(new Symbol("7", '+')));
+        assertEquals(new Symbol("7", '+'), st.symbol(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongSign() {
+        new SymbolTable().code(new Symbol("1", '#'));
+    }
+
+    @Test
+    public void testEncodeAsSymbols() {
+        for (GaussCodeRBC g : GaussCodes.codes(60, 10)) {
+            Symbol[][] ogp = g.getGaussCode();
+            SymbolTable st = new SymbolTable(ogp);
+            int[][] words = st.encode(ogp);
+            Set<String> labels = new HashSet<String>();
+            for (int i = 0; i < ogp.length; i++) {
+                assertEquals(ogp[i].length, words[i].length);
+                Symbol[] decoded = st.decode(words[i]);
+                for (int j = 0; j < ogp[i].length; j++) {
+                    Symbol s = ogp[i][j];
+                    labels.add(s.getLabel());
+                    assertEquals(s, decoded[j]);
+                    assertEquals(st.id(s.getLabel()), SymbolTable.id(words[i][j]));
+                    assertEquals(s.getSign(), SymbolTable.sign(words[i][j]));
+                }
+            }
+            // dense ids, the same in the words of the same table
+            assertEquals(labels.size(), st.size());
+            assertArrayEquals(words, st.encode(ogp));
+        }
+    }
+}
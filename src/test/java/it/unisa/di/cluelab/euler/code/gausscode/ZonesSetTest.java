@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Mattia De Rosa.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the GNU General Public License v3.0
+ * which accompanies this distribution, and is available at
+ * http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package it.unisa.di.cluelab.euler.code.gausscode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * @author Mattia De Rosa
+ *
+ */
+public class ZonesSetTest {
+    // Orientation.rank, looking up the regions in the list
+    private static void listRank(Node node, ArrayList<SegmentCode> S, SegmentCode[] outerFace,
+            ArrayList<SegmentCode[]> R, ArrayList<SegmentCode[]> M, ArrayList<Node> list) {
+        SegmentCode s = node.segment;
+        if (Orientation.isIn(s, outerFace) || Misc.isIn(s, M))
+            return;
+        Node parent = new Node(s, node.count);
+        list.add(parent);
+        SegmentCode[] r = RegionCode.getRegionCode(s, R);
+        M.add(r);
+        for (SegmentCode s1 : r) {
+            SegmentCode s2 = SegmentCode.inverse(s1);
+            if (!Misc.isIn(s2, M)) {
+                Node child = new Node(s2, Misc.isIn(s2, S) ? parent.count + 1 : parent.count);
+                list.add(child);
+                listRank(child, S, outerFace, R, M, list);
+            }
+        }
+    }
+
+    // ZonesSet.breadthFirstSearch, looking up the regions in the list
+    private static void listBreadthFirstSearch(Symbol[][] ogp, ArrayList<SegmentCode[]> currentRegions,
+            ArrayList<SegmentCode[]> R, ArrayList<SegmentCode[]> M, ArrayList<String> X, ArrayList<String> Y,
+            ArrayList<SegmentCode> CW, char[] curveLabels) {
+        while (X.size() + Y.size() < ogp.length) {
+            ArrayList<SegmentCode[]> currentRegions2 = new ArrayList<SegmentCode[]>();
+            for (SegmentCode[] rgb : currentRegions) {
+                if (!Misc.isIn(rgb[0], M)) {
+                    M.add(rgb);
+                    ZonesSet.identifyContainingCurves(ogp, rgb, X, Y, CW, curveLabels);
+                    if (X.size() + Y.size() == ogp.length)
+                        return;
+                }
+                for (SegmentCode s : rgb) {
+                    SegmentCode r = SegmentCode.inverse(s);
+                    if (!Misc.isIn(r, M))
+                        currentRegions2.add(RegionCode.getRegionCode(r, R));
+                }
+            }
+            currentRegions = currentRegions2;
+        }
+    }
+
+    // the clockwise segments, with a rank search per segment
+    private static ArrayList<SegmentCode> listClockwise(Symbol[][] ogp, ArrayList<SegmentCode[]> R, SegmentCode[] r) {
+        ArrayList<SegmentCode> CW = new ArrayList<SegmentCode>();
+        for (Symbol[] w : ogp) {
+            ArrayList<SegmentCode> S = ZonesSet.computeSegmentsCode(w);
+            for (SegmentCode s : S) {
+                ArrayList<Node> list = new ArrayList<Node>();
+                listRank(new Node(s, 0), S, r, R, new ArrayList<SegmentCode[]>(), list);
+                int count = 0;
+                for (Node n : list) {
+                    if (Orientation.isIn(n.segment, r)) {
+                        count = n.count;
+                        break;
+                    }
+                }
+                if (count % 2 == 0)
+                    CW.add(s);
+            }
+        }
+        return CW;
+    }
+
+    // the zones of the regions, with a breadth first search per region
+    private static List<List<List<String>>> listZonesSet(Symbol[][] ogp, ArrayList<SegmentCode[]> R, SegmentCode[] r,
+            char[] curveLabels) {
+        ArrayList<SegmentCode> CW = listClockwise(ogp, R, r);
+        List<List<List<String>>> zones = new ArrayList<List<List<String>>>();
+        for (SegmentCode[] region : R) {
+            ArrayList<String> X = new ArrayList<String>();
+            ArrayList<String> Y = new ArrayList<String>();
+            ArrayList<SegmentCode[]> current = new ArrayList<SegmentCode[]>();
+            current.add(region);
+            listBreadthFirstSearch(ogp, current, R, new ArrayList<SegmentCode[]>(), X, Y, CW, curveLabels);
+            zones.add(Arrays.asList((List<String>) X, (List<String>) Y));
+        }
+        return zones;
+    }
+
+    // the zones with the curves in order
+    private static String sorted(List<List<List<String>>> zones) {
+        StringBuilder sb = new StringBuilder();
+        for (List<List<String>> z : zones)
+            sb.append(new TreeSet<String>(z.get(0))).append(new TreeSet<String>(z.get(1))).append('\n');
+        return sb.toString();
+    }
+
+    // the zones of the regions adjacent to each region, looking up the regions in the list
+    private static Map<String, String> listTreeZoneSet(List<List<List<String>>> zones, ArrayList<SegmentCode[]> R) {
+        Map<String, String> tree = new TreeMap<String, String>();
+        for (int i = 0; i < R.size(); i++) {
+            List<SegmentCode> seen = new ArrayList<SegmentCode>();
+            List<String> value = new ArrayList<String>();
+            for (SegmentCode s : R.get(i)) {
+                SegmentCode sr = SegmentCode.inverse(s);
+                if (!belongsTo(sr, seen)) {
+                    SegmentCode[] region = RegionCode.getRegionCode(sr, R);
+                    seen.addAll(Arrays.asList(region));
+                    value.add(new TreeSet<String>(zones.get(R.indexOf(region)).get(0)).toString());
+                }
+            }
+            tree.put(new TreeSet<String>(zones.get(i).get(0)).toString(), value.toString());
+        }
+        return tree;
+    }
+
+    private static boolean belongsTo(SegmentCode s, List<SegmentCode> segments) {
+        for (SegmentCode t : segments)
+            if (s.getSegmentCode().equals(t.getSegmentCode()))
+                return true;
+        return false;
+    }
+
+    @Test
+    public void testComputeZonesSetAsListSearch() {
+        int faces = 0;
+        for (GaussCodeRBC g : GaussCodes.codes(60, 7)) {
+            Symbol[][] ogp = g.getGaussCode();
+            if (Misc.checkDisjointWords(ogp).size() > 1)
+                continue;
+            ArrayList<SegmentCode[]> R = new ArrayList<SegmentCode[]>(g.getRegionBoundaryCode());
+            for (SegmentCode[] r : R) {
+                List<List<List<String>>> expected = listZonesSet(ogp, R, r, g.getCurveLabels());
+                String at = g.getGaussCodeString() + "\nouter face " + RegionCode.regionCodeString(r);
+                assertEquals(at, sorted(expected), sorted(ZonesSet.computeZonesSet(ogp, R, r, g.getCurveLabels())));
+                assertEquals(at, sorted(expected),
+                        sorted(ZonesSet.computeZonesSet(g.getRegionGraph(), r, g.getCurveLabels())));
+                assertEquals(at, listClockwise(ogp, R, r), ZonesSet.computeClockwiseSegments(g.getRegionGraph(), r));
+                List<List<List<String>>> defaultLabels = listZonesSet(ogp, R, r, null);
+                Map<List<String>, List<List<String>>> tree = ZonesSet.computeTreeZoneSet(ogp, R, r);
+                Map<String, String> actual = new TreeMap<String, String>();
+                for (Entry<List<String>, List<List<String>>> e : tree.entrySet()) {
+                    List<String> value = new ArrayList<String>();
+                    for (List<String> v : e.getValue())
+                        value.add(new TreeSet<String>(v).toString());
+                    actual.put(new TreeSet<String>(e.getKey()).toString(), value.toString());
+                }
+                assertEquals(at, listTreeZoneSet(defaultLabels, R), actual);
+                faces++;
+            }
+        }
+        assertTrue(faces > 300);
+    }
+}